@@ -0,0 +1,90 @@
+package com.payflow.entity;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.payflow.value.Money;
+
+/**
+ * In-memory balance operations on a wallet holding the three supported
+ * currencies, as done by every pessimistic, in-process and optimistic
+ * transfer. moneyAddThenSubtractBalance is the same update done through
+ * BigDecimal and Money on the balances map, as Wallet did before it kept
+ * balances in FixedPointMoney minor units; compare its gc.alloc.rate.norm
+ * with addThenSubtractBalance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WalletBenchmark {
+
+  private final Money credit = Money.of("12.34", "USD");
+  private final Money debit = Money.of("12.34", "USD");
+  private final Money large = Money.of("1000000.00", "USD");
+
+  private Wallet wallet;
+  private Map<BalanceSlot, BigDecimal> slotBalances;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    Map<String, BigDecimal> balances = new HashMap<>();
+    balances.put("USD", new BigDecimal("10000.00"));
+    balances.put("EUR", new BigDecimal("5000.00"));
+    balances.put("MXN", new BigDecimal("100000.00"));
+    wallet = Wallet.builder().balances(balances).build();
+    slotBalances = Wallet.builder().balances(balances).build().getSlotBalances();
+  }
+
+  @Benchmark
+  public Money getBalance() {
+    return wallet.getBalance("USD");
+  }
+
+  @Benchmark
+  public boolean hasSufficientBalance() {
+    return wallet.hasSufficientBalance(debit);
+  }
+
+  @Benchmark
+  public boolean hasInsufficientBalance() {
+    return wallet.hasSufficientBalance(large);
+  }
+
+  /** A credit and a debit of the same amount, so the balance stays put. */
+  @Benchmark
+  public Wallet addThenSubtractBalance() {
+    wallet.addBalance(credit);
+    wallet.subtractBalance(debit);
+    return wallet;
+  }
+
+  @Benchmark
+  public Map<BalanceSlot, BigDecimal> moneyAddThenSubtractBalance() {
+    BalanceSlot home = BalanceSlot.home("USD");
+    Money current = Money.of(slotBalances.getOrDefault(home, BigDecimal.ZERO), "USD");
+    slotBalances.put(home, current.add(credit).getAmount());
+    current = Money.of(slotBalances.get(home), "USD");
+    if (current.isLessThan(debit)) {
+      throw new IllegalStateException("Insufficient balance");
+    }
+    slotBalances.put(home, current.subtract(debit).getAmount());
+    return slotBalances;
+  }
+}
@@ -0,0 +1,96 @@
+package com.payflow.security;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.payflow.config.JwtProperties;
+import com.payflow.repository.IRevokedTokenRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Cost of authenticating one request in JwtAuthenticationFilter: the three
+ * separate verify passes the filter used to make, a single verify pass per
+ * request (cache disabled), and a hit in the verified-token cache. Both
+ * filter variants include the revocation check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+  private JwtTokenProvider jwtTokenProvider;
+  private JwtAuthenticationFilter uncachedFilter;
+  private JwtAuthenticationFilter cachedFilter;
+  private String token;
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @Setup
+  public void setUp() {
+    JwtProperties jwtProperties = new JwtProperties();
+    jwtProperties.setSecret("benchmark-secret-key-at-least-32-characters-long");
+    jwtTokenProvider = new JwtTokenProvider(jwtProperties);
+    token = jwtTokenProvider.generateToken(42L, Set.of("USER"));
+
+    TokenRevocationList revocationList = new TokenRevocationList(mock(IRevokedTokenRepository.class),
+        jwtProperties, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+    cachedFilter = new JwtAuthenticationFilter(
+        new VerifiedTokenCache(jwtTokenProvider, jwtProperties, new SimpleMeterRegistry()), revocationList);
+    jwtProperties.setVerifiedTokenCacheMaxEntries(0);
+    uncachedFilter = new JwtAuthenticationFilter(
+        new VerifiedTokenCache(jwtTokenProvider, jwtProperties, new SimpleMeterRegistry()), revocationList);
+  }
+
+  @Benchmark
+  public void tripleParse(Blackhole blackhole) {
+    if (jwtTokenProvider.validateToken(token)) {
+      blackhole.consume(jwtTokenProvider.getUserIdFromToken(token));
+      blackhole.consume(jwtTokenProvider.getRolesFromToken(token));
+    }
+  }
+
+  @Benchmark
+  public Authentication filterVerifyingEveryRequest() throws ServletException, IOException {
+    return authenticate(uncachedFilter);
+  }
+
+  @Benchmark
+  public Authentication filterWithVerifiedTokenCache() throws ServletException, IOException {
+    return authenticate(cachedFilter);
+  }
+
+  private Authentication authenticate(JwtAuthenticationFilter filter) throws ServletException, IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/wallets/me");
+    request.addHeader("Authorization", "Bearer " + token);
+    filter.doFilter(request, response, (req, res) -> {
+    });
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    SecurityContextHolder.clearContext();
+    return authentication;
+  }
+}
@@ -0,0 +1,47 @@
+package com.payflow.services;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.payflow.value.Money;
+
+/**
+ * The money math TransactionService does for each transfer before touching
+ * a wallet: fee, total debit and converted amount.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransferFeeBenchmark {
+
+  private final BigDecimal amount = new BigDecimal("250.00");
+  private final BigDecimal exchangeRate = new BigDecimal("17.50");
+
+  @Benchmark
+  public BigDecimal transferFee() {
+    return TransactionService.transferFee(amount);
+  }
+
+  @Benchmark
+  public void transferAmounts(Blackhole blackhole) {
+    BigDecimal fee = TransactionService.transferFee(amount);
+    Money totalDebit = Money.of(amount, "USD").add(Money.of(fee, "USD"));
+    Money convertedMoney = Money.of(amount.multiply(exchangeRate), "MXN");
+    blackhole.consume(totalDebit);
+    blackhole.consume(convertedMoney);
+  }
+}
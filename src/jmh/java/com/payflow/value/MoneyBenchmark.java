@@ -0,0 +1,121 @@
+package com.payflow.value;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Money construction and arithmetic, the per-operation cost of every
+ * balance change, next to the FixedPointMoney equivalents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+  private final BigDecimal amount = new BigDecimal("1234.56");
+  private final BigDecimal unscaledAmount = new BigDecimal("1234.5678");
+  private final Money balance = Money.of("10000.00", "USD");
+  private Money runningBalance = balance;
+  private final Money delta = Money.of("12.34", "USD");
+  private final FixedPointMoney fixedBalance = FixedPointMoney.ofMinorUnits(1000000L, "USD");
+  private final FixedPointMoney fixedDelta = FixedPointMoney.ofMinorUnits(1234L, "USD");
+  private FixedPointMoney runningFixedBalance = fixedBalance;
+
+  @Benchmark
+  public Money of() {
+    return Money.of(amount, "USD");
+  }
+
+  @Benchmark
+  public Money ofWithRescale() {
+    return Money.of(unscaledAmount, "usd");
+  }
+
+  @Benchmark
+  public Money ofCents() {
+    return Money.ofCents(123456L, "USD");
+  }
+
+  @Benchmark
+  public Money add() {
+    return balance.add(delta);
+  }
+
+  @Benchmark
+  public Money subtract() {
+    return balance.subtract(delta);
+  }
+
+  @Benchmark
+  public boolean isGreaterThanOrEqual() {
+    return balance.isGreaterThanOrEqual(delta);
+  }
+
+  @Benchmark
+  public int compareTo() {
+    return balance.compareTo(delta);
+  }
+
+  @Benchmark
+  public FixedPointMoney fixedPointOfCents() {
+    return FixedPointMoney.ofMinorUnits(123456L, "USD");
+  }
+
+  @Benchmark
+  public FixedPointMoney fixedPointFromMoney() {
+    return FixedPointMoney.from(balance);
+  }
+
+  @Benchmark
+  public FixedPointMoney fixedPointAdd() {
+    return fixedBalance.add(fixedDelta);
+  }
+
+  @Benchmark
+  public FixedPointMoney fixedPointSubtract() {
+    return fixedBalance.subtract(fixedDelta);
+  }
+
+  @Benchmark
+  public int fixedPointCompareTo() {
+    return fixedBalance.compareTo(fixedDelta);
+  }
+
+  /**
+   * A credit, a sufficient-funds check and a debit on a balance kept as
+   * Money, as Wallet does per transfer; compare gc.alloc.rate.norm with
+   * fixedPointBalanceUpdate.
+   */
+  @Benchmark
+  public Money moneyBalanceUpdate() {
+    Money credited = runningBalance.add(delta);
+    if (credited.isLessThan(delta)) {
+      throw new IllegalStateException("Insufficient balance");
+    }
+    runningBalance = credited.subtract(delta);
+    return runningBalance;
+  }
+
+  @Benchmark
+  public FixedPointMoney fixedPointBalanceUpdate() {
+    FixedPointMoney credited = runningFixedBalance.add(fixedDelta);
+    if (credited.isLessThan(fixedDelta)) {
+      throw new IllegalStateException("Insufficient balance");
+    }
+    runningFixedBalance = credited.subtract(fixedDelta);
+    return runningFixedBalance;
+  }
+}
@@ -1,25 +1,65 @@
 package com.payflow;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Service;
 
 import com.payflow.config.RateLimitProperties;
+import com.payflow.util.IdleEvictingLongMap;
+import com.payflow.util.IdleEvictingMap;
 
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
+/**
+ * Token buckets per client IP and per user.
+ *
+ * At most app.rate-limit.ip-max-buckets and user-max-buckets buckets are
+ * kept, so a flood of distinct addresses cannot grow the heap without
+ * bound. A bucket left alone until it would have refilled completely is
+ * dropped, which loses nothing: a new bucket starts full as well. Buckets
+ * still refilling are never dropped to make room, since a client rotating
+ * addresses or accounts could otherwise reset other clients' limits; while
+ * the store is full of them, requests needing a new bucket are denied. User
+ * buckets are keyed by the primitive user id.
+ */
 @Service
 public class RateLimitService {
 
-  private final Map<String, Bucket> ipBuckets = new ConcurrentHashMap<>();
-  private final Map<String, Bucket> usersBucket = new ConcurrentHashMap<>();
+  private final IdleEvictingMap<String, Bucket> ipBuckets;
+  private final IdleEvictingLongMap<Bucket> userBuckets;
   private final RateLimitProperties rateLimitProperties;
 
-  public RateLimitService(RateLimitProperties rateLimitProperties) {
+  public RateLimitService(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
     this.rateLimitProperties = rateLimitProperties;
+    this.ipBuckets = new IdleEvictingMap<>(rateLimitProperties.getIpMaxBuckets(),
+        fullRefillTime(rateLimitProperties.getIpCapacity(), rateLimitProperties.getIpRefillRate(),
+            rateLimitProperties.getIpRefillDurationMinutes()));
+    this.userBuckets = new IdleEvictingLongMap<>(rateLimitProperties.getUserMaxBuckets(),
+        fullRefillTime(rateLimitProperties.getUserCapacity(), rateLimitProperties.getUserRefillRate(),
+            rateLimitProperties.getUserRefillDurationMinutes()));
+
+    Gauge.builder("rate.limit.buckets", ipBuckets, IdleEvictingMap::size)
+        .tag("type", "ip").register(meterRegistry);
+    Gauge.builder("rate.limit.buckets", userBuckets, IdleEvictingLongMap::size)
+        .tag("type", "user").register(meterRegistry);
+    FunctionCounter.builder("rate.limit.bucket.evictions", ipBuckets, IdleEvictingMap::evictions)
+        .tag("type", "ip").register(meterRegistry);
+    FunctionCounter.builder("rate.limit.bucket.evictions", userBuckets, IdleEvictingLongMap::evictions)
+        .tag("type", "user").register(meterRegistry);
+    FunctionCounter.builder("rate.limit.bucket.rejections", ipBuckets, IdleEvictingMap::rejections)
+        .tag("type", "ip").register(meterRegistry);
+    FunctionCounter.builder("rate.limit.bucket.rejections", userBuckets, IdleEvictingLongMap::rejections)
+        .tag("type", "user").register(meterRegistry);
+  }
+
+  /** How long an empty bucket takes to refill to capacity. */
+  private static Duration fullRefillTime(int capacity, int refillRate, int refillDurationMinutes) {
+    long refills = (capacity + refillRate - 1) / refillRate;
+    return Duration.ofMinutes(refills * refillDurationMinutes);
   }
 
   private Bucket createIpBucket() {
@@ -48,16 +88,16 @@ public class RateLimitService {
     }
     Bucket bucket = ipBuckets
         .computeIfAbsent(ipAddress, key -> createIpBucket());
-    return bucket.tryConsume(1);
+    return bucket != null && bucket.tryConsume(1);
   }
 
   public boolean isAllowedForUser(long userId) {
     if (!rateLimitProperties.getEnabled()) {
       return true;
     }
-    Bucket bucket = usersBucket
-        .computeIfAbsent("user:" + userId, key -> createUserBucket());
-    return bucket.tryConsume(1);
+    Bucket bucket = userBuckets
+        .computeIfAbsent(userId, key -> createUserBucket());
+    return bucket != null && bucket.tryConsume(1);
   }
 
   public long getRemainingTokensForIp(String ipAddress) {
@@ -66,7 +106,7 @@ public class RateLimitService {
   }
 
   public long getRemainingTokensForUser(long userId) {
-    Bucket bucket = usersBucket.get("user:" + userId);
+    Bucket bucket = userBuckets.get(userId);
     return bucket != null ? bucket.getAvailableTokens() : rateLimitProperties.getUserCapacity();
   }
 
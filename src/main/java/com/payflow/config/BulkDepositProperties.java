@@ -0,0 +1,41 @@
+package com.payflow.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Bulk Deposit Configuration Properties
+ * Maps to: app.bulk-deposit in application.yml
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.bulk-deposit")
+@Validated
+public class BulkDepositProperties {
+
+  @NotNull(message = "Bulk deposit chunk size must be specified")
+  @Min(value = 1, message = "Bulk deposit chunk size must be at least 1")
+  private Integer chunkSize = 200;
+
+  @NotNull(message = "Bulk deposit max line length must be specified")
+  @Min(value = 64, message = "Bulk deposit max line length must be at least 64")
+  private Integer maxLineLength = 4096;
+
+  public Integer getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(Integer chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public Integer getMaxLineLength() {
+    return maxLineLength;
+  }
+
+  public void setMaxLineLength(Integer maxLineLength) {
+    this.maxLineLength = maxLineLength;
+  }
+}
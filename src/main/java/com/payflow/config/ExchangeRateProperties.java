@@ -2,10 +2,15 @@ package com.payflow.config;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Exchange Rate API Configuration Properties
  * Maps to: app.exchange-rate in application.yml
@@ -23,6 +28,26 @@ public class ExchangeRateProperties {
   @Min(value = 1, message = "Cache duration must be at least 1 minute")
   private Integer cacheDurationMinutes = 5;
 
+  @NotNull(message = "Exchange rate provider enabled flag must be specified")
+  private Boolean providerEnabled = true;
+
+  @NotEmpty(message = "Exchange rate currencies must not be empty")
+  private List<String> currencies = new ArrayList<>(List.of("USD", "EUR", "MXN"));
+
+  private String pivotCurrency = "USD";
+
+  @NotNull(message = "Exchange rate max staleness must be specified")
+  @Min(value = 1, message = "Exchange rate max staleness must be at least 1 minute")
+  private Integer maxStaleMinutes = 60;
+
+  @NotNull(message = "Quote TTL must be specified")
+  @Min(value = 1, message = "Quote TTL must be at least 1 second")
+  private Integer quoteTtlSeconds = 30;
+
+  @NotNull(message = "Exchange rate API timeout must be specified")
+  @Min(value = 1, message = "Exchange rate API timeout must be at least 1 ms")
+  private Integer timeoutMillis = 2000;
+
   public String getApiUrl() {
     return apiUrl;
   }
@@ -46,4 +71,52 @@ public class ExchangeRateProperties {
   public void setCacheDurationMinutes(Integer cacheDurationMinutes) {
     this.cacheDurationMinutes = cacheDurationMinutes;
   }
+
+  public Boolean getProviderEnabled() {
+    return providerEnabled;
+  }
+
+  public void setProviderEnabled(Boolean providerEnabled) {
+    this.providerEnabled = providerEnabled;
+  }
+
+  public List<String> getCurrencies() {
+    return currencies;
+  }
+
+  public void setCurrencies(List<String> currencies) {
+    this.currencies = currencies;
+  }
+
+  public Integer getMaxStaleMinutes() {
+    return maxStaleMinutes;
+  }
+
+  public void setMaxStaleMinutes(Integer maxStaleMinutes) {
+    this.maxStaleMinutes = maxStaleMinutes;
+  }
+
+  public Integer getTimeoutMillis() {
+    return timeoutMillis;
+  }
+
+  public void setTimeoutMillis(Integer timeoutMillis) {
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  public String getPivotCurrency() {
+    return pivotCurrency;
+  }
+
+  public void setPivotCurrency(String pivotCurrency) {
+    this.pivotCurrency = pivotCurrency;
+  }
+
+  public Integer getQuoteTtlSeconds() {
+    return quoteTtlSeconds;
+  }
+
+  public void setQuoteTtlSeconds(Integer quoteTtlSeconds) {
+    this.quoteTtlSeconds = quoteTtlSeconds;
+  }
 }
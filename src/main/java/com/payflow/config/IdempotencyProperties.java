@@ -0,0 +1,137 @@
+package com.payflow.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Idempotency Configuration Properties
+ * Maps to: app.idempotency in application.yml
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.idempotency")
+@Validated
+public class IdempotencyProperties {
+
+  @NotNull(message = "Idempotency cache enabled flag must be specified")
+  private Boolean cacheEnabled = true;
+
+  @NotNull(message = "Idempotency cache max entries must be specified")
+  @Min(value = 1, message = "Idempotency cache max entries must be at least 1")
+  private Integer cacheMaxEntries = 100000;
+
+  @NotNull(message = "Idempotency cache TTL must be specified")
+  @Min(value = 1, message = "Idempotency cache TTL must be at least 1 minute")
+  private Integer cacheTtlMinutes = 60;
+
+  @NotNull(message = "Idempotency bloom filter flag must be specified")
+  private Boolean bloomFilterEnabled = false;
+
+  @NotNull(message = "Idempotency bloom filter expected keys must be specified")
+  @Min(value = 1, message = "Idempotency bloom filter expected keys must be at least 1")
+  private Long bloomExpectedKeys = 10000000L;
+
+  @NotNull(message = "Idempotency bloom filter false positive rate must be specified")
+  @DecimalMin(value = "0.0001", message = "Idempotency bloom filter false positive rate must be at least 0.0001")
+  @DecimalMax(value = "0.5", message = "Idempotency bloom filter false positive rate must be at most 0.5")
+  private Double bloomFalsePositiveRate = 0.01;
+
+  @NotNull(message = "In-flight wait must be specified")
+  @Min(value = 1, message = "In-flight wait must be at least 1 ms")
+  private Long inFlightWaitMillis = 30000L;
+
+  @NotNull(message = "Idempotency record TTL must be specified")
+  @Min(value = 1, message = "Idempotency record TTL must be at least 1 hour")
+  private Integer recordTtlHours = 24;
+
+  @NotNull(message = "Idempotency purge enabled flag must be specified")
+  private Boolean purgeEnabled = true;
+
+  @NotNull(message = "Idempotency purge interval must be specified")
+  @Min(value = 1, message = "Idempotency purge interval must be at least 1 minute")
+  private Integer purgeIntervalMinutes = 60;
+
+  public Boolean getCacheEnabled() {
+    return cacheEnabled;
+  }
+
+  public void setCacheEnabled(Boolean cacheEnabled) {
+    this.cacheEnabled = cacheEnabled;
+  }
+
+  public Integer getCacheMaxEntries() {
+    return cacheMaxEntries;
+  }
+
+  public void setCacheMaxEntries(Integer cacheMaxEntries) {
+    this.cacheMaxEntries = cacheMaxEntries;
+  }
+
+  public Integer getCacheTtlMinutes() {
+    return cacheTtlMinutes;
+  }
+
+  public void setCacheTtlMinutes(Integer cacheTtlMinutes) {
+    this.cacheTtlMinutes = cacheTtlMinutes;
+  }
+
+  public Boolean getBloomFilterEnabled() {
+    return bloomFilterEnabled;
+  }
+
+  public void setBloomFilterEnabled(Boolean bloomFilterEnabled) {
+    this.bloomFilterEnabled = bloomFilterEnabled;
+  }
+
+  public Long getBloomExpectedKeys() {
+    return bloomExpectedKeys;
+  }
+
+  public void setBloomExpectedKeys(Long bloomExpectedKeys) {
+    this.bloomExpectedKeys = bloomExpectedKeys;
+  }
+
+  public Double getBloomFalsePositiveRate() {
+    return bloomFalsePositiveRate;
+  }
+
+  public void setBloomFalsePositiveRate(Double bloomFalsePositiveRate) {
+    this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+  }
+
+  public Long getInFlightWaitMillis() {
+    return inFlightWaitMillis;
+  }
+
+  public void setInFlightWaitMillis(Long inFlightWaitMillis) {
+    this.inFlightWaitMillis = inFlightWaitMillis;
+  }
+
+  public Integer getRecordTtlHours() {
+    return recordTtlHours;
+  }
+
+  public void setRecordTtlHours(Integer recordTtlHours) {
+    this.recordTtlHours = recordTtlHours;
+  }
+
+  public Boolean getPurgeEnabled() {
+    return purgeEnabled;
+  }
+
+  public void setPurgeEnabled(Boolean purgeEnabled) {
+    this.purgeEnabled = purgeEnabled;
+  }
+
+  public Integer getPurgeIntervalMinutes() {
+    return purgeIntervalMinutes;
+  }
+
+  public void setPurgeIntervalMinutes(Integer purgeIntervalMinutes) {
+    this.purgeIntervalMinutes = purgeIntervalMinutes;
+  }
+}
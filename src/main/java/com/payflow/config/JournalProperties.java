@@ -0,0 +1,64 @@
+package com.payflow.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Transaction Journal Configuration Properties
+ * Maps to: app.journal in application.yml
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.journal")
+@Validated
+public class JournalProperties {
+
+  @NotNull(message = "Journal enabled flag must be specified")
+  private Boolean enabled = false;
+
+  @NotNull(message = "Journal batch size must be specified")
+  @Min(value = 1, message = "Journal batch size must be at least 1")
+  private Integer batchSize = 64;
+
+  @NotNull(message = "Journal linger must be specified")
+  @Min(value = 0, message = "Journal linger must be zero or positive")
+  private Long lingerMillis = 2L;
+
+  @NotNull(message = "Journal queue capacity must be specified")
+  @Min(value = 1, message = "Journal queue capacity must be at least 1")
+  private Integer queueCapacity = 10000;
+
+  public Boolean getEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(Boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(Integer batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public Long getLingerMillis() {
+    return lingerMillis;
+  }
+
+  public void setLingerMillis(Long lingerMillis) {
+    this.lingerMillis = lingerMillis;
+  }
+
+  public Integer getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(Integer queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+}
@@ -2,6 +2,7 @@ package com.payflow.config;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -21,7 +22,23 @@ public class JwtProperties {
   private String secret;
 
   @Min(value = 60000, message = "JWT expiration must be at least 60 seconds (60000ms)")
-  private Long expiration = 86400000L; // 24 hours default
+  private Long expiration = 900000L; // 15 minutes default
+
+  @NotNull(message = "Refresh token expiration must be specified")
+  @Min(value = 60000, message = "Refresh token expiration must be at least 60 seconds (60000ms)")
+  private Long refreshExpiration = 604800000L; // 7 days default
+
+  @NotNull(message = "Verified token cache size must be specified")
+  @Min(value = 0, message = "Verified token cache size must be zero or positive")
+  private Integer verifiedTokenCacheMaxEntries = 10000;
+
+  @NotNull(message = "Revocation refresh interval must be specified")
+  @Min(value = 1, message = "Revocation refresh interval must be at least 1 second")
+  private Integer revocationRefreshSeconds = 30;
+
+  @NotNull(message = "Revocation expected entries must be specified")
+  @Min(value = 1, message = "Revocation expected entries must be at least 1")
+  private Integer revocationExpectedEntries = 100000;
 
   // Getters and Setters
   public String getSecret() {
@@ -39,4 +56,36 @@ public class JwtProperties {
   public void setExpiration(Long expiration) {
     this.expiration = expiration;
   }
+
+  public Long getRefreshExpiration() {
+    return refreshExpiration;
+  }
+
+  public void setRefreshExpiration(Long refreshExpiration) {
+    this.refreshExpiration = refreshExpiration;
+  }
+
+  public Integer getVerifiedTokenCacheMaxEntries() {
+    return verifiedTokenCacheMaxEntries;
+  }
+
+  public void setVerifiedTokenCacheMaxEntries(Integer verifiedTokenCacheMaxEntries) {
+    this.verifiedTokenCacheMaxEntries = verifiedTokenCacheMaxEntries;
+  }
+
+  public Integer getRevocationRefreshSeconds() {
+    return revocationRefreshSeconds;
+  }
+
+  public void setRevocationRefreshSeconds(Integer revocationRefreshSeconds) {
+    this.revocationRefreshSeconds = revocationRefreshSeconds;
+  }
+
+  public Integer getRevocationExpectedEntries() {
+    return revocationExpectedEntries;
+  }
+
+  public void setRevocationExpectedEntries(Integer revocationExpectedEntries) {
+    this.revocationExpectedEntries = revocationExpectedEntries;
+  }
 }
@@ -41,7 +41,7 @@ public class OpenApiConfig {
                                 .type(SecurityScheme.Type.HTTP)
                                 .scheme("bearer")
                                 .bearerFormat("JWT")
-                                .description("JWT token obtained from /api/v1/auth/login endpoint")))
+                                .description("JWT access token obtained from /api/v1/auth/login or /api/v1/auth/refresh")))
                 .addSecurityItem(new SecurityRequirement().addList("bearer-jwt"));
     }
 }
@@ -0,0 +1,67 @@
+package com.payflow.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Password Hashing Configuration Properties
+ * Maps to: app.security.password-hashing in application.yml
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.password-hashing")
+@Validated
+public class PasswordHashingProperties {
+
+  @NotNull(message = "BCrypt cost must be specified")
+  @Min(value = 4, message = "BCrypt cost must be at least 4")
+  @Max(value = 31, message = "BCrypt cost must be at most 31")
+  private Integer bcryptCost = 10;
+
+  @NotNull(message = "Password hashing threads must be specified")
+  @Min(value = 1, message = "Password hashing threads must be at least 1")
+  private Integer threads = 2;
+
+  @NotNull(message = "Password hashing queue capacity must be specified")
+  @Min(value = 1, message = "Password hashing queue capacity must be at least 1")
+  private Integer queueCapacity = 32;
+
+  @NotNull(message = "Password hashing timeout must be specified")
+  @Min(value = 1, message = "Password hashing timeout must be at least 1 ms")
+  private Long timeoutMillis = 5000L;
+
+  public Integer getBcryptCost() {
+    return bcryptCost;
+  }
+
+  public void setBcryptCost(Integer bcryptCost) {
+    this.bcryptCost = bcryptCost;
+  }
+
+  public Integer getThreads() {
+    return threads;
+  }
+
+  public void setThreads(Integer threads) {
+    this.threads = threads;
+  }
+
+  public Integer getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(Integer queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public Long getTimeoutMillis() {
+    return timeoutMillis;
+  }
+
+  public void setTimeoutMillis(Long timeoutMillis) {
+    this.timeoutMillis = timeoutMillis;
+  }
+}
@@ -1,5 +1,6 @@
 package com.payflow.config;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -35,6 +36,14 @@ public class RateLimitProperties {
   @NotNull(message = "User refill duration in minutes must be specified")
   private Integer userRefillDurationMinutes = 1;
 
+  @NotNull(message = "IP bucket limit must be specified")
+  @Min(value = 1, message = "IP bucket limit must be at least 1")
+  private Integer ipMaxBuckets = 100000;
+
+  @NotNull(message = "User bucket limit must be specified")
+  @Min(value = 1, message = "User bucket limit must be at least 1")
+  private Integer userMaxBuckets = 100000;
+
   public Boolean getEnabled() {
     return enabled;
   }
@@ -90,4 +99,20 @@ public class RateLimitProperties {
   public void setUserRefillDurationMinutes(Integer userRefillDurationMinutes) {
     this.userRefillDurationMinutes = userRefillDurationMinutes;
   }
+
+  public Integer getIpMaxBuckets() {
+    return ipMaxBuckets;
+  }
+
+  public void setIpMaxBuckets(Integer ipMaxBuckets) {
+    this.ipMaxBuckets = ipMaxBuckets;
+  }
+
+  public Integer getUserMaxBuckets() {
+    return userMaxBuckets;
+  }
+
+  public void setUserMaxBuckets(Integer userMaxBuckets) {
+    this.userMaxBuckets = userMaxBuckets;
+  }
 }
@@ -1,7 +1,10 @@
 package com.payflow.config;
 
+import com.payflow.security.BoundedPasswordEncoder;
 import com.payflow.security.JwtAuthenticationFilter;
-import com.payflow.security.JwtTokenProvider;
+import com.payflow.security.TokenRevocationList;
+import com.payflow.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,7 +12,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -24,22 +26,26 @@ import java.util.Arrays;
 @EnableMethodSecurity
 public class SecurityConfig {
 
-  private final JwtTokenProvider jwtTokenProvider;
+  private final VerifiedTokenCache verifiedTokenCache;
+  private final TokenRevocationList tokenRevocationList;
   private final CorsProperties corsProperties;
 
-  public SecurityConfig(JwtTokenProvider jwtTokenProvider, CorsProperties corsProperties) {
-    this.jwtTokenProvider = jwtTokenProvider;
+  public SecurityConfig(VerifiedTokenCache verifiedTokenCache, TokenRevocationList tokenRevocationList,
+      CorsProperties corsProperties) {
+    this.verifiedTokenCache = verifiedTokenCache;
+    this.tokenRevocationList = tokenRevocationList;
     this.corsProperties = corsProperties;
   }
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties,
+      MeterRegistry meterRegistry) {
+    return new BoundedPasswordEncoder(passwordHashingProperties, meterRegistry);
   }
 
   @Bean
   public JwtAuthenticationFilter jwtAuthenticationFilter() {
-    return new JwtAuthenticationFilter(jwtTokenProvider);
+    return new JwtAuthenticationFilter(verifiedTokenCache, tokenRevocationList);
   }
 
   @Bean
@@ -68,6 +74,7 @@ public class SecurityConfig {
         .authorizeHttpRequests(authz -> authz
             .requestMatchers(HttpMethod.POST, "/api/v1/auth/register").permitAll()
             .requestMatchers(HttpMethod.POST, "/api/v1/auth/login").permitAll()
+            .requestMatchers(HttpMethod.POST, "/api/v1/auth/refresh").permitAll()
             .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
             .requestMatchers("/actuator/health/**", "/actuator/info/**").permitAll()
             .requestMatchers("/api/v1/**").authenticated()
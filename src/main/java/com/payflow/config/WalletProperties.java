@@ -0,0 +1,163 @@
+package com.payflow.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Wallet Concurrency Configuration Properties
+ * Maps to: app.wallet in application.yml
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.wallet")
+@Validated
+public class WalletProperties {
+
+  @NotNull(message = "Wallet concurrency mode must be specified")
+  private ConcurrencyMode concurrencyMode = ConcurrencyMode.PESSIMISTIC;
+
+  @NotNull(message = "Wallet lock stripes must be specified")
+  @Min(value = 1, message = "Wallet lock stripes must be at least 1")
+  private Integer lockStripes = 256;
+
+  @NotNull(message = "Wallet lock timeout must be specified")
+  @Min(value = 1, message = "Wallet lock timeout must be at least 1 ms")
+  private Long lockTimeoutMillis = 5000L;
+
+  @NotNull(message = "Wallet row lock fallback flag must be specified")
+  private Boolean rowLockFallback = true;
+
+  @NotNull(message = "Optimistic max retries must be specified")
+  @Min(value = 0, message = "Optimistic max retries must be zero or positive")
+  private Integer optimisticMaxRetries = 3;
+
+  @NotNull(message = "Optimistic backoff must be specified")
+  @Min(value = 0, message = "Optimistic backoff must be zero or positive")
+  private Long optimisticBackoffMillis = 10L;
+
+  @NotNull(message = "Wallet sharding flag must be specified")
+  private Boolean shardingEnabled = false;
+
+  @NotNull(message = "Max balance slots must be specified")
+  @Min(value = 1, message = "Max balance slots must be at least 1")
+  private Integer maxBalanceSlots = 64;
+
+  @NotNull(message = "Balance read mode must be specified")
+  private BalanceReadMode balanceReadMode = BalanceReadMode.STRICT;
+
+  @NotNull(message = "Balance cache max entries must be specified")
+  @Min(value = 1, message = "Balance cache max entries must be at least 1")
+  private Integer balanceCacheMaxEntries = 10000;
+
+  @NotNull(message = "Balance cache TTL must be specified")
+  @Min(value = 1, message = "Balance cache TTL must be at least 1 second")
+  private Long balanceCacheTtlSeconds = 30L;
+
+  public ConcurrencyMode getConcurrencyMode() {
+    return concurrencyMode;
+  }
+
+  public void setConcurrencyMode(ConcurrencyMode concurrencyMode) {
+    this.concurrencyMode = concurrencyMode;
+  }
+
+  public Integer getLockStripes() {
+    return lockStripes;
+  }
+
+  public void setLockStripes(Integer lockStripes) {
+    this.lockStripes = lockStripes;
+  }
+
+  public Long getLockTimeoutMillis() {
+    return lockTimeoutMillis;
+  }
+
+  public void setLockTimeoutMillis(Long lockTimeoutMillis) {
+    this.lockTimeoutMillis = lockTimeoutMillis;
+  }
+
+  public Boolean getRowLockFallback() {
+    return rowLockFallback;
+  }
+
+  public void setRowLockFallback(Boolean rowLockFallback) {
+    this.rowLockFallback = rowLockFallback;
+  }
+
+  public Integer getOptimisticMaxRetries() {
+    return optimisticMaxRetries;
+  }
+
+  public void setOptimisticMaxRetries(Integer optimisticMaxRetries) {
+    this.optimisticMaxRetries = optimisticMaxRetries;
+  }
+
+  public Long getOptimisticBackoffMillis() {
+    return optimisticBackoffMillis;
+  }
+
+  public void setOptimisticBackoffMillis(Long optimisticBackoffMillis) {
+    this.optimisticBackoffMillis = optimisticBackoffMillis;
+  }
+
+  public Boolean getShardingEnabled() {
+    return shardingEnabled;
+  }
+
+  public void setShardingEnabled(Boolean shardingEnabled) {
+    this.shardingEnabled = shardingEnabled;
+  }
+
+  public Integer getMaxBalanceSlots() {
+    return maxBalanceSlots;
+  }
+
+  public void setMaxBalanceSlots(Integer maxBalanceSlots) {
+    this.maxBalanceSlots = maxBalanceSlots;
+  }
+
+  public BalanceReadMode getBalanceReadMode() {
+    return balanceReadMode;
+  }
+
+  public void setBalanceReadMode(BalanceReadMode balanceReadMode) {
+    this.balanceReadMode = balanceReadMode;
+  }
+
+  public Integer getBalanceCacheMaxEntries() {
+    return balanceCacheMaxEntries;
+  }
+
+  public void setBalanceCacheMaxEntries(Integer balanceCacheMaxEntries) {
+    this.balanceCacheMaxEntries = balanceCacheMaxEntries;
+  }
+
+  public Long getBalanceCacheTtlSeconds() {
+    return balanceCacheTtlSeconds;
+  }
+
+  public void setBalanceCacheTtlSeconds(Long balanceCacheTtlSeconds) {
+    this.balanceCacheTtlSeconds = balanceCacheTtlSeconds;
+  }
+
+  public enum ConcurrencyMode {
+    /** Every balance change takes a SELECT ... FOR UPDATE on the wallet row. */
+    PESSIMISTIC,
+    /** Single-node ledger lock: wallets are serialized in-process by a striped lock table. */
+    IN_PROCESS,
+    /** No lock on read: the wallet version column detects conflicts and the operation is retried. */
+    OPTIMISTIC,
+    /** No wallet read at all: balances change through single conditional UPDATE/UPSERT statements. */
+    ATOMIC
+  }
+
+  public enum BalanceReadMode {
+    /** Every GET /wallets/me request reads the wallet and its balances from the database. */
+    STRICT,
+    /** Balances are served from a per-wallet cache, invalidated when a balance change commits on this node. */
+    CACHED
+  }
+}
@@ -11,6 +11,7 @@ import com.payflow.services.UserService;
 import com.payflow.services.WalletService;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 
@@ -101,4 +102,13 @@ public class AdminControllerV1 {
     return ResponseEntity.ok("Roles updated successfully");
   }
 
+  @PreAuthorize("hasRole('ADMIN')")
+  @PutMapping("/wallets/{walletId}/balance-slots")
+  public ResponseEntity<String> updateBalanceSlots(
+      @PathVariable("walletId") @Positive long walletId,
+      @RequestParam("slots") @Min(1) int slots) {
+    walletService.updateBalanceSlots(walletId, slots);
+    return ResponseEntity.ok("Balance slots updated successfully");
+  }
+
 }
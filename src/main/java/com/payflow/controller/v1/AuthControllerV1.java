@@ -2,16 +2,14 @@ package com.payflow.controller.v1;
 
 import com.payflow.dto.v1.response.AuthResponse;
 import com.payflow.dto.v1.request.LoginRequest;
+import com.payflow.dto.v1.request.RefreshTokenRequest;
 import com.payflow.dto.v1.request.RegisterRequest;
 import com.payflow.dto.v1.response.UserResponse;
-import com.payflow.entity.Role;
 import com.payflow.entity.User;
-import com.payflow.security.JwtTokenProvider;
+import com.payflow.services.AuthTokenService;
+import com.payflow.services.AuthTokens;
 import com.payflow.services.UserService;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,11 +23,11 @@ import jakarta.validation.Valid;
 public class AuthControllerV1 {
 
   private final UserService userService;
-  private final JwtTokenProvider jwtTokenProvider;
+  private final AuthTokenService authTokenService;
 
-  public AuthControllerV1(UserService userService, JwtTokenProvider jwtTokenProvider) {
+  public AuthControllerV1(UserService userService, AuthTokenService authTokenService) {
     this.userService = userService;
-    this.jwtTokenProvider = jwtTokenProvider;
+    this.authTokenService = authTokenService;
   }
 
   @PostMapping("/register")
@@ -54,18 +52,29 @@ public class AuthControllerV1 {
       @Valid @RequestBody LoginRequest request) {
 
     User user = userService.authenticate(request.email(), request.password());
-    Set<String> userRoles = user.getRoles()
-        .stream().map(Role::getRole).collect(Collectors.toSet());
-    String token = jwtTokenProvider.generateToken(user.getId(), userRoles);
+    AuthTokens tokens = authTokenService.issue(user);
+
+    return ResponseEntity.ok(toResponse(tokens, "Login successful"));
+  }
+
+  @PostMapping("/refresh")
+  public ResponseEntity<AuthResponse> refresh(
+      @Valid @RequestBody RefreshTokenRequest request) {
 
-    AuthResponse response = new AuthResponse(
+    AuthTokens tokens = authTokenService.refresh(request.refreshToken());
+
+    return ResponseEntity.ok(toResponse(tokens, "Token refreshed"));
+  }
+
+  private static AuthResponse toResponse(AuthTokens tokens, String message) {
+    User user = tokens.user();
+    return new AuthResponse(
         user.getId(),
         user.getEmail(),
         user.getFullName(),
-        token,
-        "Login successful");
-
-    return ResponseEntity.ok(response);
+        tokens.accessToken(),
+        tokens.refreshToken(),
+        message);
   }
 
 }
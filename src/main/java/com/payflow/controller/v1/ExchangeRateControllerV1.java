@@ -0,0 +1,53 @@
+package com.payflow.controller.v1;
+
+import com.payflow.dto.v1.response.QuoteResponse;
+import com.payflow.security.AuthenticatedUser;
+import com.payflow.services.RateQuoteService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("/api/v1/exchange-rates")
+@PreAuthorize("isAuthenticated()")
+@Tag(name = "Exchange Rates (v1)", description = "Exchange rate quote endpoints - Version 1")
+public class ExchangeRateControllerV1 {
+
+  private final RateQuoteService rateQuoteService;
+
+  public ExchangeRateControllerV1(RateQuoteService rateQuoteService) {
+    this.rateQuoteService = rateQuoteService;
+  }
+
+  /**
+   * Quotes a currency pair. The returned token can be passed as quoteToken on
+   * a transfer to execute it at this rate until the quote expires.
+   */
+  @GetMapping("/quote")
+  public ResponseEntity<QuoteResponse> quote(
+      @AuthenticationPrincipal AuthenticatedUser principal,
+      @RequestParam String from,
+      @RequestParam String to,
+      @RequestParam(required = false) BigDecimal amount) {
+
+    RateQuoteService.Quote quote = rateQuoteService.quote(principal.userId(), from, to);
+
+    QuoteResponse response = new QuoteResponse(
+        quote.token(),
+        quote.snapshotId(),
+        quote.snapshotPublishedAt(),
+        from,
+        to,
+        quote.exchangeRate(),
+        amount,
+        amount != null ? amount.multiply(quote.exchangeRate()) : null,
+        quote.expiresAt());
+
+    return ResponseEntity.ok(response);
+  }
+}
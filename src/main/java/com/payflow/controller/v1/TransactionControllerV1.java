@@ -1,6 +1,9 @@
 package com.payflow.controller.v1;
 
+import com.payflow.dto.v1.request.BatchTransferRequest;
 import com.payflow.dto.v1.request.DepositRequest;
+import com.payflow.dto.v1.response.BatchTransferItemResponse;
+import com.payflow.dto.v1.response.BatchTransferResponse;
 import com.payflow.dto.v1.response.TransactionDTO;
 import com.payflow.dto.v1.request.TransactionFilter;
 import com.payflow.dto.v1.response.TransactionResponse;
@@ -10,11 +13,20 @@ import com.payflow.dto.v1.request.WithdrawRequest;
 import com.payflow.entity.Transaction;
 import com.payflow.entity.User;
 import com.payflow.entity.Wallet;
+import com.payflow.dto.v1.response.BulkDepositResult;
+import com.payflow.security.AuthenticatedUser;
+import com.payflow.services.BulkDepositService;
 import com.payflow.services.ExchangeRateService;
+import com.payflow.services.IdempotencyRecordStore;
+import com.payflow.services.InFlightRequestRegistry;
+import com.payflow.services.OptimisticRetryExecutor;
+import com.payflow.services.RateQuoteService;
+import com.payflow.services.TransactionJournal;
 import com.payflow.services.TransactionService;
 import com.payflow.services.UserService;
 import com.payflow.services.WalletService;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -22,12 +34,25 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/transactions")
@@ -39,14 +64,35 @@ public class TransactionControllerV1 {
   private final WalletService walletService;
   private final UserService userService;
   private final ExchangeRateService exchangeRateService;
+  private final RateQuoteService rateQuoteService;
+  private final OptimisticRetryExecutor retryExecutor;
+  private final TransactionJournal transactionJournal;
+  private final BulkDepositService bulkDepositService;
+  private final InFlightRequestRegistry inFlightRequests;
+  private final IdempotencyRecordStore idempotencyRecordStore;
+  private final ObjectMapper objectMapper;
 
   public TransactionControllerV1(TransactionService transactionService,
       WalletService walletService, UserService userService,
-      ExchangeRateService exchangeRateService) {
+      ExchangeRateService exchangeRateService,
+      RateQuoteService rateQuoteService,
+      OptimisticRetryExecutor retryExecutor,
+      TransactionJournal transactionJournal,
+      BulkDepositService bulkDepositService,
+      InFlightRequestRegistry inFlightRequests,
+      IdempotencyRecordStore idempotencyRecordStore,
+      ObjectMapper objectMapper) {
     this.transactionService = transactionService;
     this.walletService = walletService;
     this.userService = userService;
     this.exchangeRateService = exchangeRateService;
+    this.rateQuoteService = rateQuoteService;
+    this.retryExecutor = retryExecutor;
+    this.transactionJournal = transactionJournal;
+    this.bulkDepositService = bulkDepositService;
+    this.inFlightRequests = inFlightRequests;
+    this.idempotencyRecordStore = idempotencyRecordStore;
+    this.objectMapper = objectMapper;
   }
 
   private void validateIdempotencyKey(String idempotencyKey) {
@@ -55,21 +101,42 @@ public class TransactionControllerV1 {
     }
   }
 
+  /**
+   * Runs a balance operation through the optimistic retry and the journal.
+   * A retry arriving while the first request is still running waits for it on
+   * this node. Requests with the same new key can still both pass the
+   * duplicate check on different nodes; the unique constraint then rejects
+   * the second insert, which is answered with the transaction the first one
+   * committed if it was made by the same request, and rejected with
+   * IdempotencyKeyReuseException otherwise.
+   */
+  private Transaction executeIdempotent(String operation, String idempotencyKey, String requestHash,
+      Supplier<Transaction> action) {
+    return inFlightRequests.execute(operation, idempotencyKey, requestHash, () -> {
+      try {
+        return retryExecutor.execute(operation, () -> transactionJournal.execute(action));
+      } catch (DataIntegrityViolationException e) {
+        Transaction found = transactionService.getTransactionByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+        idempotencyRecordStore.verify(idempotencyKey, IdempotencyRecordStore.requestHash(found), requestHash);
+        return found;
+      }
+    });
+  }
+
   @PostMapping("/deposit")
   public ResponseEntity<TransactionResponse> deposit(
-      Authentication authentication,
+      @AuthenticationPrincipal AuthenticatedUser principal,
       @Valid @RequestBody DepositRequest request,
       @RequestHeader("Idempotency-Key") String idempotencyKey) {
 
     validateIdempotencyKey(idempotencyKey);
 
-    User user = userService.getUserById(Long.parseLong(authentication.getName()));
+    User user = userService.getUserReference(principal.userId());
 
-    Transaction transaction = transactionService.deposit(
-        user,
-        request.currency(),
-        request.amount(),
-        idempotencyKey);
+    String requestHash = IdempotencyRecordStore.requestHash(Transaction.TransactionType.DEPOSIT,
+        principal.userId(), request.currency(), request.amount(), null, null);
+    Transaction transaction = executeIdempotent("deposit", idempotencyKey, requestHash,
+        () -> transactionService.deposit(user, request.currency(), request.amount(), idempotencyKey));
 
     TransactionResponse response = new TransactionResponse(
         transaction.getTransactionId(),
@@ -82,21 +149,45 @@ public class TransactionControllerV1 {
     return ResponseEntity.status(HttpStatus.CREATED).body(response);
   }
 
+  /**
+   * Streams an application/x-ndjson body of deposits
+   * ({"idempotencyKey":..,"currency":..,"amount":..} per line) into the
+   * caller's wallet and streams one result per line back as they are applied.
+   */
+  @PostMapping(value = "/deposits/bulk", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+  public void bulkDeposit(
+      @AuthenticationPrincipal AuthenticatedUser principal,
+      InputStream body,
+      HttpServletResponse response) throws IOException {
+
+    User user = userService.getUserReference(principal.userId());
+
+    response.setStatus(HttpStatus.OK.value());
+    response.setContentType("application/x-ndjson");
+    OutputStream out = response.getOutputStream();
+    bulkDepositService.ingest(user, new InputStreamReader(body, StandardCharsets.UTF_8), results -> {
+      for (BulkDepositResult result : results) {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+      }
+      out.flush();
+    });
+  }
+
   @PostMapping("/withdraw")
   public ResponseEntity<TransactionResponse> withdraw(
-      Authentication authentication,
+      @AuthenticationPrincipal AuthenticatedUser principal,
       @Valid @RequestBody WithdrawRequest request,
       @RequestHeader("Idempotency-Key") String idempotencyKey) {
 
     validateIdempotencyKey(idempotencyKey);
 
-    User user = userService.getUserById(Long.parseLong(authentication.getName()));
+    User user = userService.getUserReference(principal.userId());
 
-    Transaction transaction = transactionService.withdraw(
-        user,
-        request.currency(),
-        request.amount(),
-        idempotencyKey);
+    String requestHash = IdempotencyRecordStore.requestHash(Transaction.TransactionType.WITHDRAWAL,
+        principal.userId(), request.currency(), request.amount(), null, null);
+    Transaction transaction = executeIdempotent("withdraw", idempotencyKey, requestHash,
+        () -> transactionService.withdraw(user, request.currency(), request.amount(), idempotencyKey));
 
     TransactionResponse response = new TransactionResponse(
         transaction.getTransactionId(),
@@ -111,27 +202,31 @@ public class TransactionControllerV1 {
 
   @PostMapping("/transfer")
   public ResponseEntity<TransferResponse> transfer(
-      Authentication authentication,
+      @AuthenticationPrincipal AuthenticatedUser principal,
       @Valid @RequestBody TransferRequest request,
       @RequestHeader("Idempotency-Key") String idempotencyKey) {
 
     validateIdempotencyKey(idempotencyKey);
 
-    User sender = userService.getUserById(Long.parseLong(authentication.getName()));
-    User recipient = userService.getUserById(request.recipientUserId());
+    User sender = userService.getUserReference(principal.userId());
+    User recipient = userService.getUserReference(request.recipientUserId());
 
-    BigDecimal exchangeRate = exchangeRateService.getExchangeRate(
-        request.senderCurrency(),
-        request.recipientCurrency());
+    BigDecimal exchangeRate = request.quoteToken() != null
+        ? redeemQuote(sender, request, idempotencyKey)
+        : exchangeRateService.getExchangeRate(request.senderCurrency(), request.recipientCurrency());
 
-    Transaction transaction = transactionService.transfer(
-        sender,
-        recipient,
-        request.senderCurrency(),
-        request.recipientCurrency(),
-        request.amount(),
-        exchangeRate,
-        idempotencyKey);
+    String requestHash = IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER,
+        principal.userId(), request.senderCurrency(), request.amount(), request.recipientUserId(),
+        request.recipientCurrency());
+    Transaction transaction = executeIdempotent("transfer", idempotencyKey, requestHash,
+        () -> transactionService.transfer(
+            sender,
+            recipient,
+            request.senderCurrency(),
+            request.recipientCurrency(),
+            request.amount(),
+            exchangeRate,
+            idempotencyKey));
 
     TransferResponse response = new TransferResponse(
         transaction.getTransactionId(),
@@ -141,22 +236,130 @@ public class TransactionControllerV1 {
         transaction.getFee(),
         transaction.getAmount().add(transaction.getFee()),
         transaction.getRecipientCurrency(),
-        transaction.getAmount().multiply(exchangeRate),
-        exchangeRate,
+        transaction.getAmount().multiply(transaction.getExchangeRate()),
+        transaction.getExchangeRate(),
         transaction.getStatus().toString(),
         transaction.getCreatedAt());
 
     return ResponseEntity.status(HttpStatus.CREATED).body(response);
   }
 
+  /**
+   * A retry of a quoted transfer that already completed is replayed even if
+   * its quote has expired meanwhile.
+   */
+  private BigDecimal redeemQuote(User sender, TransferRequest request, String idempotencyKey) {
+    try {
+      return rateQuoteService.redeem(request.quoteToken(), sender.getId(), request.senderCurrency(),
+          request.recipientCurrency());
+    } catch (IllegalArgumentException e) {
+      return transactionService.getTransactionByIdempotencyKey(idempotencyKey)
+          .map(Transaction::getExchangeRate)
+          .orElseThrow(() -> e);
+    }
+  }
+
+  /**
+   * A quote that cannot be redeemed only rejects its own item. Items that a
+   * previous attempt already completed are replayed even if their quote has
+   * expired meanwhile.
+   */
+  @PostMapping("/transfers/batch")
+  public ResponseEntity<BatchTransferResponse> transferBatch(
+      @AuthenticationPrincipal AuthenticatedUser principal,
+      @Valid @RequestBody BatchTransferRequest request,
+      @RequestHeader("Idempotency-Key") String idempotencyKey) {
+
+    validateIdempotencyKey(idempotencyKey);
+
+    User sender = userService.getUserReference(principal.userId());
+    Map<Long, User> recipients = userService.getUserReferences(
+        request.transfers().stream().map(TransferRequest::recipientUserId).distinct().toList());
+
+    Map<String, BigDecimal> exchangeRates = new HashMap<>();
+    List<TransactionService.BatchTransferItem> items = new ArrayList<>(request.transfers().size());
+    List<String> itemHashes = new ArrayList<>(request.transfers().size());
+    for (TransferRequest transfer : request.transfers()) {
+      itemHashes.add(IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER, principal.userId(),
+          transfer.senderCurrency(), transfer.amount(), transfer.recipientUserId(), transfer.recipientCurrency()));
+      BigDecimal exchangeRate = null;
+      String rateError = null;
+      if (transfer.quoteToken() != null) {
+        try {
+          exchangeRate = rateQuoteService.redeem(transfer.quoteToken(), sender.getId(), transfer.senderCurrency(),
+              transfer.recipientCurrency());
+        } catch (IllegalArgumentException e) {
+          rateError = e.getMessage();
+        }
+      } else {
+        exchangeRate = exchangeRates.computeIfAbsent(
+            transfer.senderCurrency() + "-" + transfer.recipientCurrency(),
+            pair -> exchangeRateService.hasExchangeRate(transfer.senderCurrency(), transfer.recipientCurrency())
+                ? exchangeRateService.getExchangeRate(transfer.senderCurrency(), transfer.recipientCurrency())
+                : null);
+      }
+      items.add(new TransactionService.BatchTransferItem(
+          recipients.get(transfer.recipientUserId()),
+          transfer.senderCurrency(),
+          transfer.recipientCurrency(),
+          transfer.amount(),
+          exchangeRate,
+          rateError));
+    }
+
+    List<TransactionService.BatchTransferResult> results = inFlightRequests.execute("transfer-batch",
+        idempotencyKey, IdempotencyRecordStore.requestHash(itemHashes),
+        () -> retryExecutor.execute("transfer-batch", () -> transactionService.transferBatch(sender, items,
+            idempotencyKey)));
+
+    List<BatchTransferItemResponse> itemResponses = new ArrayList<>(results.size());
+    int completed = 0;
+    for (int i = 0; i < results.size(); i++) {
+      TransactionService.BatchTransferResult result = results.get(i);
+      TransferRequest transfer = request.transfers().get(i);
+      if (result.isCompleted()) {
+        completed++;
+        Transaction transaction = result.transaction();
+        itemResponses.add(new BatchTransferItemResponse(
+            i,
+            transfer.recipientUserId(),
+            transaction.getStatus().toString(),
+            transaction.getTransactionId(),
+            transaction.getCurrency(),
+            transaction.getAmount(),
+            transaction.getFee(),
+            transaction.getRecipientCurrency(),
+            transaction.getAmount().multiply(transaction.getExchangeRate()),
+            transaction.getExchangeRate(),
+            null));
+      } else {
+        itemResponses.add(new BatchTransferItemResponse(
+            i,
+            transfer.recipientUserId(),
+            Transaction.TransactionStatus.FAILED.toString(),
+            null,
+            transfer.senderCurrency(),
+            transfer.amount(),
+            null,
+            transfer.recipientCurrency(),
+            null,
+            null,
+            result.error()));
+      }
+    }
+
+    BatchTransferResponse response = new BatchTransferResponse(
+        results.size(), completed, results.size() - completed, itemResponses);
+    return ResponseEntity.ok(response);
+  }
+
   @GetMapping("/history")
   public ResponseEntity<Page<TransactionDTO>> getTransactionHistory(
-      Authentication authentication,
+      @AuthenticationPrincipal AuthenticatedUser principal,
       @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
       @Valid @ModelAttribute TransactionFilter filter) {
 
-    User user = userService.getUserById(Long.parseLong(authentication.getName()));
-    Wallet wallet = walletService.getWalletByUserReadOnly(user);
+    Wallet wallet = walletService.getWalletReferenceByUserId(principal.userId());
 
     Page<Transaction> transactions = transactionService.getTransactionHistory(wallet, filter, pageable);
 
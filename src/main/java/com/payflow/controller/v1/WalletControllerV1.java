@@ -3,14 +3,13 @@ package com.payflow.controller.v1;
 import com.payflow.dto.v1.response.BalanceResponse;
 import com.payflow.dto.v1.response.BalancesResponse;
 import com.payflow.dto.v1.response.FullWalletResponse;
-import com.payflow.entity.User;
-import com.payflow.entity.Wallet;
-import com.payflow.services.UserService;
+import com.payflow.security.AuthenticatedUser;
 import com.payflow.services.WalletService;
+import com.payflow.services.WalletSnapshot;
 import com.payflow.value.Money;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,39 +21,35 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class WalletControllerV1 {
 
   private final WalletService walletService;
-  private final UserService userService;
 
-  public WalletControllerV1(WalletService walletService, UserService userService) {
+  public WalletControllerV1(WalletService walletService) {
     this.walletService = walletService;
-    this.userService = userService;
   }
 
   @GetMapping("/me")
   public ResponseEntity<FullWalletResponse> getMyWallet(
-      Authentication authentication) {
+      @AuthenticationPrincipal AuthenticatedUser principal) {
 
-    User user = userService.getUserById(Long.parseLong(authentication.getName()));
-    Wallet wallet = walletService.getWalletByUserReadOnly(user);
+    WalletSnapshot wallet = walletService.getWalletSnapshot(principal.userId());
 
     FullWalletResponse response = new FullWalletResponse(
-        wallet.getId(),
-        user.getId(),
-        wallet.getBalances(),
-        wallet.getCreatedAt(),
-        wallet.getUpdatedAt());
+        wallet.walletId(),
+        wallet.userId(),
+        wallet.balances(),
+        wallet.createdAt(),
+        wallet.updatedAt());
 
     return ResponseEntity.ok(response);
   }
 
   @GetMapping("/me/balance")
   public ResponseEntity<BalanceResponse> getBalance(
-      Authentication authentication,
+      @AuthenticationPrincipal AuthenticatedUser principal,
       @RequestParam String currency) {
 
-    User user = userService.getUserById(Long.parseLong(authentication.getName()));
-    Wallet wallet = walletService.getWalletByUserReadOnly(user);
+    WalletSnapshot wallet = walletService.getWalletSnapshot(principal.userId());
 
-    Money balance = walletService.getBalance(wallet, currency);
+    Money balance = wallet.getBalance(currency);
 
     BalanceResponse response = new BalanceResponse(currency, balance.getAmount());
 
@@ -63,12 +58,11 @@ public class WalletControllerV1 {
 
   @GetMapping("/me/balances")
   public ResponseEntity<BalancesResponse> getAllBalances(
-      Authentication authentication) {
+      @AuthenticationPrincipal AuthenticatedUser principal) {
 
-    User user = userService.getUserById(Long.parseLong(authentication.getName()));
-    Wallet wallet = walletService.getWalletByUserReadOnly(user);
+    WalletSnapshot wallet = walletService.getWalletSnapshot(principal.userId());
 
-    BalancesResponse response = new BalancesResponse(wallet.getId(), wallet.getBalances());
+    BalancesResponse response = new BalancesResponse(wallet.walletId(), wallet.balances());
 
     return ResponseEntity.ok(response);
   }
@@ -0,0 +1,17 @@
+package com.payflow.dto.v1.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for batch transfer requests: up to 500 transfers from the
+ * authenticated user, applied in one transaction
+ */
+public record BatchTransferRequest(
+    @NotEmpty(message = "Transfers cannot be empty")
+    @Size(max = 500, message = "A batch cannot contain more than 500 transfers")
+    List<@Valid TransferRequest> transfers
+) {}
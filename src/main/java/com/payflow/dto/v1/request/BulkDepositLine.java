@@ -0,0 +1,12 @@
+package com.payflow.dto.v1.request;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of an application/x-ndjson bulk deposit body
+ */
+public record BulkDepositLine(
+    String idempotencyKey,
+    String currency,
+    BigDecimal amount
+) {}
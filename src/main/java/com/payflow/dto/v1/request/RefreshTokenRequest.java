@@ -0,0 +1,8 @@
+package com.payflow.dto.v1.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequest(
+    @NotBlank(message = "Refresh token is required")
+    String refreshToken
+) {}
@@ -7,7 +7,8 @@ import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 
 /**
- * DTO for transfer requests
+ * DTO for transfer requests. quoteToken is optional: when it is set the
+ * transfer executes at the rate of that quote instead of the current one.
  */
 public record TransferRequest(
     @NotNull(message = "Recipient user ID cannot be null")
@@ -20,5 +21,7 @@ public record TransferRequest(
     String recipientCurrency,
 
     @ValidAmount
-    BigDecimal amount
+    BigDecimal amount,
+
+    String quoteToken
 ) {}
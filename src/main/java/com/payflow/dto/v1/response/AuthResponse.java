@@ -5,5 +5,6 @@ public record AuthResponse(
     String email,
     String fullName,
     String token,
+    String refreshToken,
     String message
 ) {}
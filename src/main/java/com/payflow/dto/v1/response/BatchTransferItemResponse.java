@@ -0,0 +1,17 @@
+package com.payflow.dto.v1.response;
+
+import java.math.BigDecimal;
+
+public record BatchTransferItemResponse(
+    int index,
+    Long recipientUserId,
+    String status,
+    String transactionId,
+    String senderCurrency,
+    BigDecimal senderAmount,
+    BigDecimal fee,
+    String recipientCurrency,
+    BigDecimal recipientAmount,
+    BigDecimal exchangeRate,
+    String error
+) {}
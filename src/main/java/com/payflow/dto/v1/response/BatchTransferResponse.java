@@ -0,0 +1,10 @@
+package com.payflow.dto.v1.response;
+
+import java.util.List;
+
+public record BatchTransferResponse(
+    int requested,
+    int completed,
+    int rejected,
+    List<BatchTransferItemResponse> results
+) {}
@@ -0,0 +1,9 @@
+package com.payflow.dto.v1.response;
+
+public record BulkDepositResult(
+    long line,
+    String idempotencyKey,
+    String status,
+    String transactionId,
+    String error
+) {}
@@ -0,0 +1,16 @@
+package com.payflow.dto.v1.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record QuoteResponse(
+    String quoteToken,
+    long snapshotId,
+    Instant snapshotPublishedAt,
+    String senderCurrency,
+    String recipientCurrency,
+    BigDecimal exchangeRate,
+    BigDecimal amount,
+    BigDecimal recipientAmount,
+    Instant expiresAt
+) {}
@@ -0,0 +1,295 @@
+package com.payflow.entity;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.payflow.value.Currency;
+import com.payflow.value.FixedPointMoney;
+
+/**
+ * Compact backing map of Wallet.balances.
+ *
+ * Instead of a hash node, a BalanceSlot key and a BigDecimal per
+ * wallet_balances row, rows live in parallel arrays: the currency code
+ * (shared through the Currency registry), the slot number and the balance as
+ * an unscaled long plus its scale. A wallet holds a handful of rows, so
+ * lookups are a linear scan. Keys and values are only materialized when read
+ * through the Map view, and they round-trip exactly: a balance reads back
+ * with the scale it was written with.
+ *
+ * Hibernate wraps this map in a PersistentBalanceMap (see BalanceMapType),
+ * so writes through the wrapper are still dirty-checked against the table.
+ * Wallet balance updates go through MinorUnitBalances, which reads and
+ * writes the unscaled longs directly.
+ */
+final class BalanceMap extends AbstractMap<BalanceSlot, BigDecimal> implements MinorUnitBalances {
+
+  private static final int DEFAULT_CAPACITY = 2;
+  private static final long[] POWERS_OF_TEN = {
+      1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L };
+
+  private String[] currencies;
+  private int[] slots;
+  private long[] unscaled;
+  private byte[] scales;
+  private int size;
+  private int modCount;
+
+  BalanceMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  BalanceMap(int capacity) {
+    int initial = Math.max(capacity, 1);
+    currencies = new String[initial];
+    slots = new int[initial];
+    unscaled = new long[initial];
+    scales = new byte[initial];
+  }
+
+  BalanceMap(Map<BalanceSlot, BigDecimal> balances) {
+    this(balances.size());
+    putAll(balances);
+  }
+
+  private int indexOf(Object key) {
+    if (!(key instanceof BalanceSlot slot) || slot.getCurrency() == null) {
+      return -1;
+    }
+    for (int i = 0; i < size; i++) {
+      if (slots[i] == slot.getSlot() && currencies[i].equals(slot.getCurrency())) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private BigDecimal valueAt(int index) {
+    return BigDecimal.valueOf(unscaled[index], scales[index]);
+  }
+
+  /**
+   * @throws ArithmeticException if the unscaled balance does not fit in a
+   *                             long or its scale in a byte
+   */
+  private void store(int index, BigDecimal value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Balance cannot be null");
+    }
+    if (value.unscaledValue().bitLength() > 63) {
+      throw new ArithmeticException("Balance out of range: " + value);
+    }
+    if (value.scale() != (byte) value.scale()) {
+      throw new ArithmeticException("Balance scale out of range: " + value);
+    }
+    unscaled[index] = value.unscaledValue().longValue();
+    scales[index] = (byte) value.scale();
+  }
+
+  @Override
+  public long homeMinorUnits(Currency currency) {
+    return minorUnits(currency, true);
+  }
+
+  @Override
+  public long totalMinorUnits(Currency currency) {
+    return minorUnits(currency, false);
+  }
+
+  private long minorUnits(Currency currency, boolean homeOnly) {
+    String code = currency.getCode();
+    int target = currency.getScale();
+    long total = 0L;
+    for (int i = 0; i < size; i++) {
+      if ((homeOnly && slots[i] != BalanceSlot.HOME_SLOT) || !currencies[i].equals(code)) {
+        continue;
+      }
+      int shift = scales[i] - target;
+      if (shift < 0 && -shift < POWERS_OF_TEN.length) {
+        total = Math.addExact(total, Math.multiplyExact(unscaled[i], POWERS_OF_TEN[-shift]));
+      } else if (shift >= 0 && shift < POWERS_OF_TEN.length && unscaled[i] % POWERS_OF_TEN[shift] == 0) {
+        total = Math.addExact(total, unscaled[i] / POWERS_OF_TEN[shift]);
+      } else {
+        return roundedMinorUnits(currency, homeOnly);
+      }
+    }
+    return total;
+  }
+
+  /** Slow path for rows finer than the minor unit: sum, then round like Money. */
+  private long roundedMinorUnits(Currency currency, boolean homeOnly) {
+    BigDecimal total = BigDecimal.ZERO;
+    for (int i = 0; i < size; i++) {
+      if ((!homeOnly || slots[i] == BalanceSlot.HOME_SLOT) && currencies[i].equals(currency.getCode())) {
+        total = total.add(valueAt(i));
+      }
+    }
+    return FixedPointMoney.toMinorUnits(total, currency);
+  }
+
+  @Override
+  public void putHomeMinorUnits(Currency currency, long minorUnits) {
+    for (int i = 0; i < size; i++) {
+      if (slots[i] == BalanceSlot.HOME_SLOT && currencies[i].equals(currency.getCode())) {
+        unscaled[i] = minorUnits;
+        scales[i] = (byte) currency.getScale();
+        return;
+      }
+    }
+    put(BalanceSlot.home(currency.getCode()), FixedPointMoney.toAmount(minorUnits, currency));
+  }
+
+  @Override
+  public void removeOtherSlots(Currency currency) {
+    for (int i = size - 1; i >= 0; i--) {
+      if (slots[i] != BalanceSlot.HOME_SLOT && currencies[i].equals(currency.getCode())) {
+        removeAt(i);
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public BigDecimal get(Object key) {
+    int index = indexOf(key);
+    return index >= 0 ? valueAt(index) : null;
+  }
+
+  @Override
+  public BigDecimal put(BalanceSlot key, BigDecimal value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      BigDecimal previous = valueAt(index);
+      store(index, value);
+      return previous;
+    }
+    if (key == null || key.getCurrency() == null) {
+      throw new IllegalArgumentException("Balance slot cannot be null");
+    }
+    if (size == slots.length) {
+      int capacity = size * 2;
+      currencies = Arrays.copyOf(currencies, capacity);
+      slots = Arrays.copyOf(slots, capacity);
+      unscaled = Arrays.copyOf(unscaled, capacity);
+      scales = Arrays.copyOf(scales, capacity);
+    }
+    store(size, value);
+    Currency currency = Currency.find(key.getCurrency());
+    currencies[size] = currency != null ? currency.getCode() : key.getCurrency();
+    slots[size] = key.getSlot();
+    size++;
+    modCount++;
+    return null;
+  }
+
+  @Override
+  public BigDecimal remove(Object key) {
+    int index = indexOf(key);
+    if (index < 0) {
+      return null;
+    }
+    BigDecimal previous = valueAt(index);
+    removeAt(index);
+    return previous;
+  }
+
+  private void removeAt(int index) {
+    int moved = size - index - 1;
+    System.arraycopy(currencies, index + 1, currencies, index, moved);
+    System.arraycopy(slots, index + 1, slots, index, moved);
+    System.arraycopy(unscaled, index + 1, unscaled, index, moved);
+    System.arraycopy(scales, index + 1, scales, index, moved);
+    currencies[--size] = null;
+    modCount++;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(currencies, 0, size, null);
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public Set<Map.Entry<BalanceSlot, BigDecimal>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public Iterator<Map.Entry<BalanceSlot, BigDecimal>> iterator() {
+        return new EntryIterator();
+      }
+    };
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<BalanceSlot, BigDecimal>> {
+    private int next;
+    private int last = -1;
+    private int expectedModCount = modCount;
+
+    @Override
+    public boolean hasNext() {
+      return next < size;
+    }
+
+    @Override
+    public Map.Entry<BalanceSlot, BigDecimal> next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (next >= size) {
+        throw new NoSuchElementException();
+      }
+      last = next++;
+      return new Entry(last);
+    }
+
+    @Override
+    public void remove() {
+      if (last < 0) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      removeAt(last);
+      next = last;
+      last = -1;
+      expectedModCount = modCount;
+    }
+  }
+
+  private final class Entry extends AbstractMap.SimpleEntry<BalanceSlot, BigDecimal> {
+    private final int index;
+
+    private Entry(int index) {
+      super(new BalanceSlot(currencies[index], slots[index]), valueAt(index));
+      this.index = index;
+    }
+
+    @Override
+    public BigDecimal setValue(BigDecimal value) {
+      store(index, value);
+      return super.setValue(value);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.payflow.entity;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.CollectionClassification;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.usertype.UserCollectionType;
+
+/**
+ * Collection type of Wallet.balances: a Hibernate PersistentMap over the
+ * wallet_balances rows whose underlying map is a BalanceMap instead of a
+ * HashMap.
+ */
+public class BalanceMapType implements UserCollectionType {
+
+  @Override
+  public CollectionClassification getClassification() {
+    return CollectionClassification.MAP;
+  }
+
+  @Override
+  public Class<?> getCollectionClass() {
+    return Map.class;
+  }
+
+  @Override
+  public PersistentCollection<?> instantiate(SharedSessionContractImplementor session,
+      CollectionPersister persister) {
+    return new PersistentBalanceMap(session);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public PersistentCollection<?> wrap(SharedSessionContractImplementor session, Object collection) {
+    return new PersistentBalanceMap(session, (Map<BalanceSlot, BigDecimal>) collection);
+  }
+
+  @Override
+  public Iterator<?> getElementsIterator(Object collection) {
+    return ((Map<?, ?>) collection).values().iterator();
+  }
+
+  @Override
+  public boolean contains(Object collection, Object entity) {
+    return ((Map<?, ?>) collection).containsValue(entity);
+  }
+
+  @Override
+  public Object indexOf(Object collection, Object entity) {
+    for (Map.Entry<?, ?> entry : ((Map<?, ?>) collection).entrySet()) {
+      if (entry.getValue().equals(entity)) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Object replaceElements(Object original, Object target, CollectionPersister persister, Object owner,
+      Map copyCache, SharedSessionContractImplementor session) {
+    Map<BalanceSlot, BigDecimal> result = (Map<BalanceSlot, BigDecimal>) target;
+    result.clear();
+    result.putAll((Map<BalanceSlot, BigDecimal>) original);
+    return result;
+  }
+
+  @Override
+  public Object instantiate(int anticipatedSize) {
+    return new BalanceMap(anticipatedSize);
+  }
+}
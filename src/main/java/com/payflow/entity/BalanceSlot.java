@@ -0,0 +1,74 @@
+package com.payflow.entity;
+
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Key of a wallet_balances row. Unsharded wallets only use the home slot;
+ * sharded wallets spread a currency's balance across slots 0..N-1.
+ */
+@Embeddable
+public class BalanceSlot {
+
+  public static final int HOME_SLOT = 0;
+
+  @Column(name = "currency", nullable = false, length = 3)
+  private String currency;
+
+  @Column(name = "slot", nullable = false)
+  private Integer slot;
+
+  protected BalanceSlot() {
+  }
+
+  public BalanceSlot(String currency, int slot) {
+    this.currency = currency;
+    this.slot = slot;
+  }
+
+  public static BalanceSlot home(String currency) {
+    return new BalanceSlot(currency, HOME_SLOT);
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
+  public boolean isHome() {
+    return slot == HOME_SLOT;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof BalanceSlot))
+      return false;
+    BalanceSlot other = (BalanceSlot) o;
+    return Objects.equals(currency, other.currency) && Objects.equals(slot, other.slot);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(currency, slot);
+  }
+
+  @Override
+  public String toString() {
+    return currency + "#" + slot;
+  }
+
+  public static class Fields {
+    public static final String CURRENCY = "currency";
+    public static final String SLOT = "slot";
+
+    private Fields() {
+    }
+  }
+}
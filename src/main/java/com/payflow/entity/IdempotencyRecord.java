@@ -0,0 +1,185 @@
+package com.payflow.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import jakarta.persistence.*;
+
+/**
+ * An idempotency key together with a hash of the request that first used it
+ * and the transaction that answers its replays.
+ *
+ * expires_at is part of the primary key because idempotency_keys is range
+ * partitioned on it; a key is only unique among its unexpired rows.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyRecord.Key.class)
+public class IdempotencyRecord {
+
+  @Id
+  @Column(name = "idempotency_key", nullable = false)
+  private String idempotencyKey;
+
+  @Id
+  @Column(name = "expires_at", nullable = false)
+  private LocalDateTime expiresAt;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "operation", nullable = false, length = 20)
+  private Transaction.TransactionType operation;
+
+  @Column(name = "request_hash", length = 64)
+  private String requestHash;
+
+  @Column(name = "response_transaction_id", nullable = false)
+  private Long responseTransactionId;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public void setIdempotencyKey(String idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public LocalDateTime getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(LocalDateTime expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  public Transaction.TransactionType getOperation() {
+    return operation;
+  }
+
+  public void setOperation(Transaction.TransactionType operation) {
+    this.operation = operation;
+  }
+
+  /**
+   * Null for keys carried over from the ledger, whose request is unknown.
+   */
+  public String getRequestHash() {
+    return requestHash;
+  }
+
+  public void setRequestHash(String requestHash) {
+    this.requestHash = requestHash;
+  }
+
+  public Long getResponseTransactionId() {
+    return responseTransactionId;
+  }
+
+  public void setResponseTransactionId(Long responseTransactionId) {
+    this.responseTransactionId = responseTransactionId;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public static class Fields {
+    public static final String IDEMPOTENCY_KEY = "idempotencyKey";
+    public static final String EXPIRES_AT = "expiresAt";
+    public static final String OPERATION = "operation";
+    public static final String REQUEST_HASH = "requestHash";
+    public static final String RESPONSE_TRANSACTION_ID = "responseTransactionId";
+    public static final String CREATED_AT = "createdAt";
+
+    private Fields() {
+    }
+  }
+
+  public static IdempotencyRecordBuilder builder() {
+    return new IdempotencyRecordBuilder();
+  }
+
+  public static class IdempotencyRecordBuilder {
+    private String idempotencyKey;
+    private LocalDateTime expiresAt;
+    private Transaction.TransactionType operation;
+    private String requestHash;
+    private Long responseTransactionId;
+    private LocalDateTime createdAt;
+
+    public IdempotencyRecordBuilder idempotencyKey(String idempotencyKey) {
+      this.idempotencyKey = idempotencyKey;
+      return this;
+    }
+
+    public IdempotencyRecordBuilder expiresAt(LocalDateTime expiresAt) {
+      this.expiresAt = expiresAt;
+      return this;
+    }
+
+    public IdempotencyRecordBuilder operation(Transaction.TransactionType operation) {
+      this.operation = operation;
+      return this;
+    }
+
+    public IdempotencyRecordBuilder requestHash(String requestHash) {
+      this.requestHash = requestHash;
+      return this;
+    }
+
+    public IdempotencyRecordBuilder responseTransactionId(Long responseTransactionId) {
+      this.responseTransactionId = responseTransactionId;
+      return this;
+    }
+
+    public IdempotencyRecordBuilder createdAt(LocalDateTime createdAt) {
+      this.createdAt = createdAt;
+      return this;
+    }
+
+    public IdempotencyRecord build() {
+      IdempotencyRecord record = new IdempotencyRecord();
+      record.idempotencyKey = this.idempotencyKey;
+      record.expiresAt = this.expiresAt;
+      record.operation = this.operation;
+      record.requestHash = this.requestHash;
+      record.responseTransactionId = this.responseTransactionId;
+      record.createdAt = this.createdAt;
+      return record;
+    }
+  }
+
+  public static class Key implements Serializable {
+    private String idempotencyKey;
+    private LocalDateTime expiresAt;
+
+    public Key() {
+    }
+
+    public Key(String idempotencyKey, LocalDateTime expiresAt) {
+      this.idempotencyKey = idempotencyKey;
+      this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o)
+        return true;
+      if (!(o instanceof Key other))
+        return false;
+      return Objects.equals(idempotencyKey, other.idempotencyKey) && Objects.equals(expiresAt, other.expiresAt);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(idempotencyKey, expiresAt);
+    }
+  }
+}
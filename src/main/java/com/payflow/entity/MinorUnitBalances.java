@@ -0,0 +1,28 @@
+package com.payflow.entity;
+
+import com.payflow.value.Currency;
+
+/**
+ * Wallet balances read and written as long minor units of their currency,
+ * without materializing a BigDecimal per wallet_balances row. Implemented by
+ * BalanceMap and by PersistentBalanceMap, the Hibernate wrapper around it.
+ *
+ * Rows are rescaled to the currency's scale exactly; should a row hold
+ * digits finer than the minor unit, the amount is rounded HALF_EVEN like
+ * Money rounds it. Amounts that do not fit in a long number of minor units
+ * throw ArithmeticException.
+ */
+interface MinorUnitBalances {
+
+  /** Balance on the currency's home slot, 0 if it has none. */
+  long homeMinorUnits(Currency currency);
+
+  /** Balance of the currency summed over all its slots. */
+  long totalMinorUnits(Currency currency);
+
+  /** Stores the balance on the currency's home slot at the currency's scale. */
+  void putHomeMinorUnits(Currency currency, long minorUnits);
+
+  /** Removes every slot of the currency except the home slot. */
+  void removeOtherSlots(Currency currency);
+}
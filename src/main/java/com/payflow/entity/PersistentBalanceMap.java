@@ -0,0 +1,53 @@
+package com.payflow.entity;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.hibernate.collection.spi.PersistentMap;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import com.payflow.value.Currency;
+
+/**
+ * Hibernate's PersistentMap over a BalanceMap, passing the minor-unit
+ * operations through. Reads initialize the collection first and writes also
+ * mark it dirty, exactly as PersistentMap.get and put do.
+ */
+class PersistentBalanceMap extends PersistentMap<BalanceSlot, BigDecimal> implements MinorUnitBalances {
+
+  PersistentBalanceMap(SharedSessionContractImplementor session) {
+    super(session);
+  }
+
+  PersistentBalanceMap(SharedSessionContractImplementor session, Map<BalanceSlot, BigDecimal> balances) {
+    super(session, balances);
+  }
+
+  private BalanceMap balanceMap() {
+    return (BalanceMap) map;
+  }
+
+  @Override
+  public long homeMinorUnits(Currency currency) {
+    read();
+    return balanceMap().homeMinorUnits(currency);
+  }
+
+  @Override
+  public long totalMinorUnits(Currency currency) {
+    read();
+    return balanceMap().totalMinorUnits(currency);
+  }
+
+  @Override
+  public void putHomeMinorUnits(Currency currency, long minorUnits) {
+    write();
+    balanceMap().putHomeMinorUnits(currency, minorUnits);
+  }
+
+  @Override
+  public void removeOtherSlots(Currency currency) {
+    write();
+    balanceMap().removeOtherSlots(currency);
+  }
+}
@@ -0,0 +1,126 @@
+package com.payflow.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * A revoked refresh token, or with no token id every token of the user
+ * issued before revokedBefore. Rows with an expiry are deleted once it has
+ * passed.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(name = "token_id", length = 64)
+  private String tokenId;
+
+  @Column(name = "revoked_at", nullable = false, updatable = false)
+  private LocalDateTime revokedAt;
+
+  @Column(name = "expires_at")
+  private LocalDateTime expiresAt;
+
+  @Column(name = "revoked_before")
+  private LocalDateTime revokedBefore;
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Long userId) {
+    this.userId = userId;
+  }
+
+  public String getTokenId() {
+    return tokenId;
+  }
+
+  public void setTokenId(String tokenId) {
+    this.tokenId = tokenId;
+  }
+
+  public LocalDateTime getRevokedAt() {
+    return revokedAt;
+  }
+
+  public void setRevokedAt(LocalDateTime revokedAt) {
+    this.revokedAt = revokedAt;
+  }
+
+  public LocalDateTime getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(LocalDateTime expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  public LocalDateTime getRevokedBefore() {
+    return revokedBefore;
+  }
+
+  public void setRevokedBefore(LocalDateTime revokedBefore) {
+    this.revokedBefore = revokedBefore;
+  }
+
+  public static RevokedTokenBuilder builder() {
+    return new RevokedTokenBuilder();
+  }
+
+  public static class RevokedTokenBuilder {
+    private Long userId;
+    private String tokenId;
+    private LocalDateTime revokedAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime revokedBefore;
+
+    public RevokedTokenBuilder userId(Long userId) {
+      this.userId = userId;
+      return this;
+    }
+
+    public RevokedTokenBuilder tokenId(String tokenId) {
+      this.tokenId = tokenId;
+      return this;
+    }
+
+    public RevokedTokenBuilder revokedAt(LocalDateTime revokedAt) {
+      this.revokedAt = revokedAt;
+      return this;
+    }
+
+    public RevokedTokenBuilder expiresAt(LocalDateTime expiresAt) {
+      this.expiresAt = expiresAt;
+      return this;
+    }
+
+    public RevokedTokenBuilder revokedBefore(LocalDateTime revokedBefore) {
+      this.revokedBefore = revokedBefore;
+      return this;
+    }
+
+    public RevokedToken build() {
+      RevokedToken revokedToken = new RevokedToken();
+      revokedToken.userId = this.userId;
+      revokedToken.tokenId = this.tokenId;
+      revokedToken.revokedAt = this.revokedAt;
+      revokedToken.expiresAt = this.expiresAt;
+      revokedToken.revokedBefore = this.revokedBefore;
+      return revokedToken;
+    }
+  }
+}
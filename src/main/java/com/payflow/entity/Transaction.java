@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 public class Transaction {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_seq")
+  @SequenceGenerator(name = "transactions_id_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
@@ -43,7 +44,7 @@ public class Transaction {
   @Column(name = "recipient_currency", length = 3)
   private String recipientCurrency;
 
-  @Column(name = "exchange_rate", precision = 10, scale = 6)
+  @Column(name = "exchange_rate", precision = 24, scale = 12)
   private BigDecimal exchangeRate;
 
   @ManyToOne(optional = true)
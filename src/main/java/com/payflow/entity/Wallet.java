@@ -1,8 +1,11 @@
 package com.payflow.entity;
 
+import org.hibernate.annotations.CollectionType;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.payflow.value.Currency;
+import com.payflow.value.FixedPointMoney;
 import com.payflow.value.Money;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
@@ -15,7 +18,8 @@ import java.util.Map;
 public class Wallet {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallets_id_seq")
+  @SequenceGenerator(name = "wallets_id_seq", sequenceName = "wallets_id_seq", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
@@ -23,11 +27,23 @@ public class Wallet {
   @JoinColumn(name = "user_id", nullable = false, unique = true)
   private User user;
 
+  /**
+   * Number of balance slots per currency. Wallets with more than one slot are
+   * sharded: credits land on random slots and are never written through this
+   * entity, see WalletService#creditBalance.
+   */
+  @Column(name = "balance_slots", nullable = false)
+  private Integer balanceSlots = 1;
+
+  /**
+   * Backed by a BalanceMap, which keeps the rows in primitive arrays rather
+   * than hash nodes, so loaded and cached wallets stay small.
+   */
   @ElementCollection(fetch = FetchType.EAGER)
   @CollectionTable(name = "wallet_balances", joinColumns = @JoinColumn(name = "wallet_id"))
-  @MapKeyColumn(name = "currency")
   @Column(name = "balance")
-  private Map<String, BigDecimal> balances = new HashMap<>();
+  @CollectionType(type = BalanceMapType.class)
+  private Map<BalanceSlot, BigDecimal> balances = new BalanceMap();
 
   @CreationTimestamp
   @Column(name = "created_at", nullable = false, updatable = false)
@@ -37,6 +53,10 @@ public class Wallet {
   @Column(name = "updated_at", nullable = false)
   private LocalDateTime updatedAt;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL, orphanRemoval = true)
   private java.util.List<Transaction> transactions;
 
@@ -57,12 +77,40 @@ public class Wallet {
     this.user = user;
   }
 
+  public Integer getBalanceSlots() {
+    return balanceSlots;
+  }
+
+  public void setBalanceSlots(Integer balanceSlots) {
+    this.balanceSlots = balanceSlots;
+  }
+
+  public boolean isSharded() {
+    return balanceSlots != null && balanceSlots > 1;
+  }
+
+  /**
+   * Balances per currency, aggregated over all balance slots and reported at
+   * the currency's scale (the column holds three decimals for every
+   * currency).
+   */
   public Map<String, BigDecimal> getBalances() {
-    return balances;
+    Map<String, BigDecimal> totals = new HashMap<>();
+    balances.forEach((slot, amount) -> totals.merge(slot.getCurrency(), amount, BigDecimal::add));
+    totals.replaceAll((code, amount) -> {
+      Currency currency = Currency.find(code);
+      return currency != null ? Money.of(amount, code).getAmount() : amount;
+    });
+    return totals;
   }
 
+  /** Replaces all balances; every currency is stored on its home slot. */
   public void setBalances(Map<String, BigDecimal> balances) {
-    this.balances = balances;
+    this.balances = toHomeSlots(balances);
+  }
+
+  public Map<BalanceSlot, BigDecimal> getSlotBalances() {
+    return balances;
   }
 
   public LocalDateTime getCreatedAt() {
@@ -81,6 +129,14 @@ public class Wallet {
     this.updatedAt = updatedAt;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public java.util.List<Transaction> getTransactions() {
     return transactions;
   }
@@ -92,9 +148,11 @@ public class Wallet {
   public static class Fields {
     public static final String ID = "id";
     public static final String USER = "user";
+    public static final String BALANCE_SLOTS = "balanceSlots";
     public static final String BALANCES = "balances";
     public static final String CREATED_AT = "createdAt";
     public static final String UPDATED_AT = "updatedAt";
+    public static final String VERSION = "version";
     public static final String TRANSACTIONS = "transactions";
 
     private Fields() {
@@ -108,9 +166,11 @@ public class Wallet {
   public static class WalletBuilder {
     private Long id;
     private User user;
+    private Integer balanceSlots = 1;
     private Map<String, BigDecimal> balances = new HashMap<>();
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     private java.util.List<Transaction> transactions;
 
     public WalletBuilder id(Long id) {
@@ -123,6 +183,11 @@ public class Wallet {
       return this;
     }
 
+    public WalletBuilder balanceSlots(Integer balanceSlots) {
+      this.balanceSlots = balanceSlots;
+      return this;
+    }
+
     public WalletBuilder balances(Map<String, BigDecimal> balances) {
       this.balances = balances;
       return this;
@@ -138,6 +203,11 @@ public class Wallet {
       return this;
     }
 
+    public WalletBuilder version(Long version) {
+      this.version = version;
+      return this;
+    }
+
     public WalletBuilder transactions(java.util.List<Transaction> transactions) {
       this.transactions = transactions;
       return this;
@@ -147,42 +217,80 @@ public class Wallet {
       Wallet wallet = new Wallet();
       wallet.id = this.id;
       wallet.user = this.user;
-      wallet.balances = this.balances != null ? this.balances : new HashMap<>();
+      wallet.balanceSlots = this.balanceSlots != null ? this.balanceSlots : 1;
+      wallet.balances = toHomeSlots(this.balances);
       wallet.createdAt = this.createdAt;
       wallet.updatedAt = this.updatedAt;
+      wallet.version = this.version;
       wallet.transactions = this.transactions;
       return wallet;
     }
   }
 
+  private static Map<BalanceSlot, BigDecimal> toHomeSlots(Map<String, BigDecimal> balances) {
+    Map<BalanceSlot, BigDecimal> slots = new BalanceMap(balances != null ? balances.size() : 1);
+    if (balances != null) {
+      balances.forEach((currency, amount) -> slots.put(BalanceSlot.home(currency), amount));
+    }
+    return slots;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the currency is not a supported
+   *                                  ISO-4217 code
+   */
   public Money getBalance(String currency) {
-    BigDecimal amount = balances.getOrDefault(currency, BigDecimal.ZERO);
-    return Money.of(amount, currency);
+    return getBalance(Currency.of(currency));
   }
 
+  private Money getBalance(Currency currency) {
+    return FixedPointMoney.ofMinorUnits(minorUnitBalances().totalMinorUnits(currency), currency).toMoney();
+  }
+
+  /**
+   * Balance updates are applied in long minor units through
+   * MinorUnitBalances, so the wallet_balances row is rewritten in place
+   * instead of through a BigDecimal and Money per step.
+   */
   public void addBalance(Money money) {
     if (money == null) {
       throw new IllegalArgumentException("Money cannot be null");
     }
-    Money current = getBalance(money.getCurrency());
-    balances.put(money.getCurrency(), current.add(money).getAmount());
+    Currency currency = money.getCurrencyUnit();
+    MinorUnitBalances store = minorUnitBalances();
+    FixedPointMoney current = FixedPointMoney.ofMinorUnits(store.homeMinorUnits(currency), currency);
+    store.putHomeMinorUnits(currency, current.add(FixedPointMoney.from(money)).getMinorUnits());
   }
 
+  /**
+   * Sweeps the other slots of the currency into the home slot before
+   * subtracting, so the debit only ever fails on the aggregated balance.
+   */
   public void subtractBalance(Money money) {
     if (money == null) {
       throw new IllegalArgumentException("Money cannot be null");
     }
-    Money current = getBalance(money.getCurrency());
-    if (current.isLessThan(money)) {
+    Currency currency = money.getCurrencyUnit();
+    MinorUnitBalances store = minorUnitBalances();
+    FixedPointMoney current = FixedPointMoney.ofMinorUnits(store.totalMinorUnits(currency), currency);
+    FixedPointMoney debit = FixedPointMoney.from(money);
+    if (current.isLessThan(debit)) {
       throw new IllegalArgumentException("Insufficient balance");
     }
-    balances.put(money.getCurrency(), current.subtract(money).getAmount());
+    store.removeOtherSlots(currency);
+    store.putHomeMinorUnits(currency, current.subtract(debit).getMinorUnits());
   }
 
   public boolean hasSufficientBalance(Money money) {
     if (money == null) {
       throw new IllegalArgumentException("Money cannot be null");
     }
-    return getBalance(money.getCurrency()).isGreaterThanOrEqual(money);
+    Currency currency = money.getCurrencyUnit();
+    return minorUnitBalances().totalMinorUnits(currency) >= FixedPointMoney.from(money).getMinorUnits();
+  }
+
+  /** The balances map is always a BalanceMap or Hibernate's PersistentBalanceMap around one. */
+  private MinorUnitBalances minorUnitBalances() {
+    return (MinorUnitBalances) balances;
   }
 }
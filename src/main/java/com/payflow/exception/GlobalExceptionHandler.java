@@ -1,6 +1,7 @@
 package com.payflow.exception;
 
 import com.payflow.dto.v1.response.ErrorResponse;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -108,6 +109,18 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(response, HttpStatus.TOO_MANY_REQUESTS);
   }
 
+  @ExceptionHandler(ServiceBusyException.class)
+  public ResponseEntity<ErrorResponse> handleServiceBusyException(
+      ServiceBusyException ex, WebRequest request) {
+
+    ErrorResponse response = new ErrorResponse(
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        ex.getMessage(),
+        new HashMap<>());
+
+    return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
   @ExceptionHandler(UnauthorizedException.class)
   public ResponseEntity<ErrorResponse> handleUnauthorizedException(
       UnauthorizedException ex, WebRequest request) {
@@ -120,6 +133,18 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
   }
 
+  @ExceptionHandler(ConcurrencyFailureException.class)
+  public ResponseEntity<ErrorResponse> handleConcurrencyFailureException(
+      ConcurrencyFailureException ex, WebRequest request) {
+
+    ErrorResponse response = new ErrorResponse(
+        HttpStatus.CONFLICT.value(),
+        "Wallet is being updated concurrently, please retry",
+        new HashMap<>());
+
+    return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+  }
+
   @ExceptionHandler(DuplicateEmailException.class)
   public ResponseEntity<ErrorResponse> handleDuplicateEmailException(
       DuplicateEmailException ex, WebRequest request) {
@@ -132,4 +157,28 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(response, HttpStatus.CONFLICT);
   }
 
+  @ExceptionHandler(IdempotencyKeyReuseException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyReuseException(
+      IdempotencyKeyReuseException ex, WebRequest request) {
+
+    ErrorResponse response = new ErrorResponse(
+        HttpStatus.UNPROCESSABLE_ENTITY.value(),
+        ex.getMessage(),
+        new HashMap<>());
+
+    return new ResponseEntity<>(response, HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+
+  @ExceptionHandler(RequestInProgressException.class)
+  public ResponseEntity<ErrorResponse> handleRequestInProgressException(
+      RequestInProgressException ex, WebRequest request) {
+
+    ErrorResponse response = new ErrorResponse(
+        HttpStatus.CONFLICT.value(),
+        ex.getMessage(),
+        new HashMap<>());
+
+    return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+  }
+
 }
@@ -0,0 +1,15 @@
+package com.payflow.exception;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+  private final String idempotencyKey;
+
+  public IdempotencyKeyReuseException(String idempotencyKey) {
+    super("Idempotency key was already used for a different request: " + idempotencyKey);
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+}
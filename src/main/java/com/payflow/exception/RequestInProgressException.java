@@ -0,0 +1,15 @@
+package com.payflow.exception;
+
+public class RequestInProgressException extends RuntimeException {
+
+  private final String idempotencyKey;
+
+  public RequestInProgressException(String idempotencyKey) {
+    super("A request with this Idempotency-Key is still in progress, please retry later: " + idempotencyKey);
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+}
@@ -9,6 +9,7 @@ import org.springframework.security.core.Authentication;
 
 import com.payflow.RateLimitService;
 import com.payflow.exception.RateLimitExceededException;
+import com.payflow.security.AuthenticatedUser;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -32,8 +33,8 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
     if (authentication != null && authentication.isAuthenticated()
-        && authentication.getPrincipal() instanceof Long) {
-      Long userId = (Long) authentication.getPrincipal();
+        && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+      Long userId = principal.userId();
 
       logger.debug("Checking rate limit for user: {}", userId);
 
@@ -0,0 +1,28 @@
+package com.payflow.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.payflow.entity.IdempotencyRecord;
+
+@Repository
+public interface IIdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+  @Query("SELECT r FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt > :now")
+  Optional<IdempotencyRecord> findActive(@Param("key") String idempotencyKey, @Param("now") LocalDateTime now);
+
+  @Query("SELECT r FROM IdempotencyRecord r WHERE r.idempotencyKey IN :keys AND r.expiresAt > :now")
+  List<IdempotencyRecord> findActiveIn(@Param("keys") Collection<String> idempotencyKeys,
+      @Param("now") LocalDateTime now);
+
+  @Query("SELECT r.idempotencyKey FROM IdempotencyRecord r WHERE r.expiresAt > :now")
+  Stream<String> streamActiveKeys(@Param("now") LocalDateTime now);
+}
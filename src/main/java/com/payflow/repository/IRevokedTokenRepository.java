@@ -0,0 +1,26 @@
+package com.payflow.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.payflow.entity.RevokedToken;
+
+@Repository
+public interface IRevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+  @Query("SELECT r FROM RevokedToken r WHERE r.expiresAt IS NULL OR r.expiresAt > :now")
+  List<RevokedToken> findActive(@Param("now") LocalDateTime now);
+
+  @Query("SELECT r FROM RevokedToken r WHERE r.userId = :userId AND r.tokenId IS NULL")
+  List<RevokedToken> findUserRevocations(@Param("userId") Long userId);
+
+  @Modifying
+  @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+  int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,11 +1,15 @@
 package com.payflow.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.payflow.entity.User;
@@ -16,5 +20,8 @@ public interface IUserRepository extends JpaRepository<User, Long>, JpaSpecifica
 
   boolean existsByEmail(String email);
 
+  @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
   Page<User> findAll(Pageable pageable);
 }
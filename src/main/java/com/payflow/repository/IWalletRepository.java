@@ -1,5 +1,6 @@
 package com.payflow.repository;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 import jakarta.persistence.LockModeType;
@@ -28,4 +29,62 @@ public interface IWalletRepository extends JpaRepository<Wallet, Long>, JpaSpeci
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @Query("SELECT w FROM Wallet w WHERE w.user.id = :userId")
   Optional<Wallet> findByUserIdWithLock(@Param("userId") Long userId);
+
+  @Query("SELECT w.id FROM Wallet w WHERE w.user.id = :userId")
+  Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+  @Query("SELECT w.id AS id, w.balanceSlots AS balanceSlots FROM Wallet w WHERE w.user.id = :userId")
+  Optional<WalletSlots> findSlotsByUserId(@Param("userId") Long userId);
+
+  @Query(value = """
+      INSERT INTO wallet_balances (wallet_id, currency, slot, balance)
+      VALUES (:walletId, :currency, :slot, :amount)
+      ON CONFLICT (wallet_id, currency, slot)
+      DO UPDATE SET balance = wallet_balances.balance + EXCLUDED.balance
+      RETURNING balance
+      """, nativeQuery = true)
+  BigDecimal creditBalance(
+      @Param("walletId") Long walletId,
+      @Param("currency") String currency,
+      @Param("slot") int slot,
+      @Param("amount") BigDecimal amount);
+
+  /** Debits the home slot only; sharded wallets sweep their slots first when it falls short. */
+  @Query(value = """
+      UPDATE wallet_balances
+      SET balance = balance - :amount
+      WHERE wallet_id = :walletId AND currency = :currency AND slot = 0 AND balance - :amount >= 0
+      RETURNING balance
+      """, nativeQuery = true)
+  Optional<BigDecimal> debitBalance(
+      @Param("walletId") Long walletId,
+      @Param("currency") String currency,
+      @Param("amount") BigDecimal amount);
+
+  /**
+   * Moves the balances of all non-home slots of a currency into the home slot.
+   *
+   * @return the home slot balance after the sweep
+   */
+  @Query(value = """
+      WITH swept AS (
+        DELETE FROM wallet_balances
+        WHERE wallet_id = :walletId AND currency = :currency AND slot > 0
+        RETURNING balance
+      )
+      INSERT INTO wallet_balances (wallet_id, currency, slot, balance)
+      SELECT :walletId, :currency, 0, COALESCE(SUM(balance), 0) FROM swept
+      ON CONFLICT (wallet_id, currency, slot)
+      DO UPDATE SET balance = wallet_balances.balance + EXCLUDED.balance
+      RETURNING balance
+      """, nativeQuery = true)
+  BigDecimal sweepBalance(
+      @Param("walletId") Long walletId,
+      @Param("currency") String currency);
+
+  interface WalletSlots {
+    Long getId();
+
+    Integer getBalanceSlots();
+  }
 }
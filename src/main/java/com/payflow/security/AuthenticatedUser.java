@@ -0,0 +1,36 @@
+package com.payflow.security;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Principal of a request authenticated by JwtAuthenticationFilter: the user
+ * id, roles, issue time and expiry exactly as the verified token carries
+ * them (issuedAt and expiresAt are null for a token without them). Roles are kept as a
+ * RoleAuthorities mask, so roles() and authorities() return shared sets.
+ * Controllers take it with {@code @AuthenticationPrincipal} instead of
+ * loading the User, and Authentication.getName() still yields the user id.
+ */
+public record AuthenticatedUser(Long userId, int roleMask, Instant issuedAt, Instant expiresAt)
+    implements Principal {
+
+  public AuthenticatedUser {
+    RoleAuthorities.roleNames(roleMask);
+  }
+
+  public Set<String> roles() {
+    return RoleAuthorities.roleNames(roleMask);
+  }
+
+  public Set<GrantedAuthority> authorities() {
+    return RoleAuthorities.authorities(roleMask);
+  }
+
+  @Override
+  public String getName() {
+    return String.valueOf(userId);
+  }
+}
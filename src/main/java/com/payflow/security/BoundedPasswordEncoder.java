@@ -0,0 +1,140 @@
+package com.payflow.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.payflow.config.PasswordHashingProperties;
+import com.payflow.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * BCrypt password encoder that hashes on its own bounded pool instead of
+ * the request thread, so a burst of logins or registrations cannot occupy
+ * every servlet worker.
+ *
+ * app.security.password-hashing.threads hash at a time and at most
+ * queue-capacity more wait; anything beyond that, or a hash not done within
+ * timeout-millis, fails fast with ServiceBusyException (503). The cost is
+ * app.security.password-hashing.bcrypt-cost, and upgradeEncoding reports
+ * every stored hash made with a different cost, so it is rehashed on the
+ * user's next login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+  private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+  private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+  private final PasswordEncoder delegate;
+  private final int cost;
+  private final long timeoutMillis;
+  private final ThreadPoolExecutor executor;
+
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter rejections;
+
+  public BoundedPasswordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+    this(new BCryptPasswordEncoder(properties.getBcryptCost()), properties, meterRegistry);
+  }
+
+  BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingProperties properties,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.cost = properties.getBcryptCost();
+    this.timeoutMillis = properties.getTimeoutMillis();
+
+    AtomicInteger threadCount = new AtomicInteger();
+    BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+        0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+          Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+    this.encodeTimer = meterRegistry.timer("password.hash", "operation", "encode");
+    this.matchesTimer = meterRegistry.timer("password.hash", "operation", "matches");
+    this.rejections = meterRegistry.counter("password.hash.rejected");
+    meterRegistry.gauge("password.hash.queue.depth", queue, BlockingQueue::size);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return run(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+  }
+
+  /**
+   * True for a BCrypt hash whose cost differs from the configured one, in
+   * either direction.
+   */
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+    Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+    return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+  }
+
+  private <T> T run(Callable<T> hashing) {
+    Future<T> result;
+    try {
+      result = executor.submit(hashing);
+    } catch (RejectedExecutionException e) {
+      rejections.increment();
+      logger.warn("Password hashing rejected - Queue full: {}", executor.getQueue().size());
+      throw new ServiceBusyException("Too many concurrent authentication requests, try again later");
+    }
+    try {
+      return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      result.cancel(true);
+      rejections.increment();
+      logger.warn("Password hashing timed out after {} ms", timeoutMillis);
+      throw new ServiceBusyException("Too many concurrent authentication requests, try again later");
+    } catch (InterruptedException e) {
+      result.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceBusyException("Password hashing interrupted");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  int queueDepth() {
+    return executor.getQueue().size();
+  }
+}
@@ -4,22 +4,19 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-  private final JwtTokenProvider jwtTokenProvider;
+  private final VerifiedTokenCache verifiedTokenCache;
+  private final TokenRevocationList tokenRevocationList;
 
-  public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider) {
-    this.jwtTokenProvider = jwtTokenProvider;
+  public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, TokenRevocationList tokenRevocationList) {
+    this.verifiedTokenCache = verifiedTokenCache;
+    this.tokenRevocationList = tokenRevocationList;
   }
 
   @Override
@@ -29,18 +26,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     try {
       String jwt = getJwtFromRequest(request);
 
-      if (jwt != null && jwtTokenProvider.validateToken(jwt)) {
+      AuthenticatedUser principal = jwt != null ? verifiedTokenCache.verify(jwt) : null;
 
-        Long userId = jwtTokenProvider.getUserIdFromToken(jwt);
-        Set<String> roles = jwtTokenProvider.getRolesFromToken(jwt);
-
-        Set<GrantedAuthority> authorities = roles.stream()
-            .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-            .collect(Collectors.toSet());
-
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userId, null,
-            authorities);
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+      // checked on cache hits too, so a revoked user's cached token stops working
+      if (principal != null && !tokenRevocationList.isRevoked(principal)) {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(principal));
       }
     } catch (Exception ex) {
       // will be handled by Spring Security
@@ -0,0 +1,36 @@
+package com.payflow.security;
+
+import java.util.Collection;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Authentication set by JwtAuthenticationFilter. Its authorities are the
+ * principal's shared RoleAuthorities set rather than a per-request copy.
+ */
+public class JwtAuthenticationToken extends AbstractAuthenticationToken {
+
+  private final AuthenticatedUser principal;
+
+  public JwtAuthenticationToken(AuthenticatedUser principal) {
+    super(null);
+    this.principal = principal;
+    setAuthenticated(true);
+  }
+
+  @Override
+  public Collection<GrantedAuthority> getAuthorities() {
+    return principal.authorities();
+  }
+
+  @Override
+  public Object getCredentials() {
+    return null;
+  }
+
+  @Override
+  public AuthenticatedUser getPrincipal() {
+    return principal;
+  }
+}
@@ -3,7 +3,9 @@ package com.payflow.security;
 import com.payflow.config.JwtProperties;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,19 +17,31 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
   private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+  /** Roles as a RoleAuthorities bit mask. */
+  private static final String ROLE_MASK_CLAIM = "rm";
+  private static final String LEGACY_ROLES_CLAIM = "roles";
+  /** Set to REFRESH_TOKEN_TYPE on refresh tokens, absent on access tokens. */
+  private static final String TOKEN_TYPE_CLAIM = "typ";
+  private static final String REFRESH_TOKEN_TYPE = "refresh";
+
   private final JwtProperties jwtProperties;
   private final SecretKey secretKey;
+  private final JwtParser parser;
 
   public JwtTokenProvider(JwtProperties jwtProperties) {
     this.jwtProperties = jwtProperties;
     this.secretKey = Keys.hmacShaKeyFor(
         jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+    this.parser = Jwts.parser()
+        .verifyWith(secretKey)
+        .build();
     logger.info("JwtTokenProvider initialized with expiration: {} ms",
         jwtProperties.getExpiration());
   }
@@ -43,43 +57,95 @@ public class JwtTokenProvider {
         .issuedAt(now)
         .expiration(expiryDate)
         .signWith(secretKey)
-        .claim("roles", roles)
+        .claim(ROLE_MASK_CLAIM, RoleAuthorities.toMask(roles))
         .compact();
   }
 
-  public Long getUserIdFromToken(String token) {
-    Claims claims = Jwts.parser()
-        .verifyWith(secretKey)
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
+  /**
+   * A refresh token for the user, valid for app.jwt.refresh-expiration. It
+   * carries no roles and is only accepted by {@link #parseRefreshToken}.
+   */
+  public String generateRefreshToken(Long userId) {
+    Date now = new Date();
+    Date expiryDate = new Date(now.getTime() + jwtProperties.getRefreshExpiration());
+
+    logger.debug("Generating refresh token for user ID: {}", userId);
 
-    return Long.parseLong(claims.getSubject());
+    return Jwts.builder()
+        .id(UUID.randomUUID().toString())
+        .subject(String.valueOf(userId))
+        .issuedAt(now)
+        .expiration(expiryDate)
+        .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
+        .signWith(secretKey)
+        .compact();
   }
 
-  public Set<String> getRolesFromToken(String token) {
-    Claims claims = Jwts.parser()
-        .verifyWith(secretKey)
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
+  /**
+   * Verifies the token's signature and expiry and reads the principal from
+   * it, in a single pass.
+   *
+   * @throws JwtException             if the token is malformed, forged,
+   *                                  expired or a refresh token
+   * @throws IllegalArgumentException if the token is blank or its subject
+   *                                  is not a user id
+   */
+  public AuthenticatedUser parseToken(String token) {
+    Claims claims = parser.parseSignedClaims(token).getPayload();
+    if (REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM))) {
+      throw new UnsupportedJwtException("Refresh token used as access token");
+    }
+
+    Integer roleMask = claims.get(ROLE_MASK_CLAIM, Integer.class);
+    if (roleMask == null) {
+      roleMask = legacyRoleMask(claims);
+    }
+    Date issuedAt = claims.getIssuedAt();
+    Date expiration = claims.getExpiration();
+
+    return new AuthenticatedUser(Long.parseLong(claims.getSubject()), roleMask,
+        issuedAt != null ? issuedAt.toInstant() : null, expiration != null ? expiration.toInstant() : null);
+  }
 
-    List<String> rolesList = claims.get("roles", List.class);
+  /**
+   * @throws JwtException             if the token is malformed, forged,
+   *                                  expired or not a refresh token
+   * @throws IllegalArgumentException if the token is blank or its subject
+   *                                  is not a user id
+   */
+  public RefreshToken parseRefreshToken(String token) {
+    Claims claims = parser.parseSignedClaims(token).getPayload();
+    if (!REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM)) || claims.getId() == null
+        || claims.getExpiration() == null) {
+      throw new UnsupportedJwtException("Not a refresh token");
+    }
+    Date issuedAt = claims.getIssuedAt();
+    return new RefreshToken(claims.getId(), Long.parseLong(claims.getSubject()),
+        issuedAt != null ? issuedAt.toInstant() : null, claims.getExpiration().toInstant());
+  }
 
-    if (rolesList == null) {
-      return Set.of();
+  /** Tokens issued before the role mask claim list the role names instead. */
+  private static int legacyRoleMask(Claims claims) {
+    List<?> roles = claims.get(LEGACY_ROLES_CLAIM, List.class);
+    if (roles == null) {
+      return 0;
     }
+    Set<String> roleNames = new HashSet<>();
+    roles.forEach(role -> roleNames.add(String.valueOf(role)));
+    return RoleAuthorities.toMask(roleNames);
+  }
 
-    return new HashSet<>(rolesList);
+  public Long getUserIdFromToken(String token) {
+    return parseToken(token).userId();
+  }
 
+  public Set<String> getRolesFromToken(String token) {
+    return parseToken(token).roles();
   }
 
   public boolean validateToken(String token) {
     try {
-      Jwts.parser()
-          .verifyWith(secretKey)
-          .build()
-          .parseSignedClaims(token);
+      parseToken(token);
       return true;
     } catch (JwtException e) {
       logger.warn("Invalid JWT token: {}", e.getMessage());
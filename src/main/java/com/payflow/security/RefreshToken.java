@@ -0,0 +1,10 @@
+package com.payflow.security;
+
+import java.time.Instant;
+
+/**
+ * The verified claims of a refresh token. tokenId is the token's jti, the
+ * key under which it is revoked once used.
+ */
+public record RefreshToken(String tokenId, Long userId, Instant issuedAt, Instant expiresAt) {
+}
@@ -0,0 +1,87 @@
+package com.payflow.security;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * The roles seeded in the roles table, encoded as one bit each so a token
+ * can carry them as a single integer claim.
+ *
+ * Every combination of roles maps to a shared immutable set of role names
+ * and of ROLE_ authorities built once at class load, so authenticating a
+ * request does not build authority objects.
+ */
+public final class RoleAuthorities {
+
+  /** Bit i of a role mask stands for ROLES.get(i); append only. */
+  static final List<String> ROLES = List.of("USER", "AUDITOR", "ADMIN");
+
+  private static final Set<String>[] ROLE_NAMES;
+  private static final Set<GrantedAuthority>[] AUTHORITIES;
+
+  static {
+    int combinations = 1 << ROLES.size();
+    @SuppressWarnings("unchecked")
+    Set<String>[] roleNames = new Set[combinations];
+    @SuppressWarnings("unchecked")
+    Set<GrantedAuthority>[] authorities = new Set[combinations];
+    for (int mask = 0; mask < combinations; mask++) {
+      Set<String> names = new HashSet<>();
+      Set<GrantedAuthority> granted = new HashSet<>();
+      for (int bit = 0; bit < ROLES.size(); bit++) {
+        if ((mask & (1 << bit)) != 0) {
+          names.add(ROLES.get(bit));
+          granted.add(new SimpleGrantedAuthority("ROLE_" + ROLES.get(bit)));
+        }
+      }
+      roleNames[mask] = Set.copyOf(names);
+      authorities[mask] = Set.copyOf(granted);
+    }
+    ROLE_NAMES = roleNames;
+    AUTHORITIES = authorities;
+  }
+
+  private RoleAuthorities() {
+  }
+
+  /**
+   * @throws IllegalArgumentException if a role is not one of ROLES
+   */
+  public static int toMask(Collection<String> roles) {
+    int mask = 0;
+    for (String role : roles) {
+      int bit = ROLES.indexOf(role);
+      if (bit < 0) {
+        throw new IllegalArgumentException("Unknown role: " + role);
+      }
+      mask |= 1 << bit;
+    }
+    return mask;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the mask has bits for unknown roles
+   */
+  public static Set<String> roleNames(int mask) {
+    return ROLE_NAMES[checked(mask)];
+  }
+
+  /**
+   * @throws IllegalArgumentException if the mask has bits for unknown roles
+   */
+  public static Set<GrantedAuthority> authorities(int mask) {
+    return AUTHORITIES[checked(mask)];
+  }
+
+  private static int checked(int mask) {
+    if (mask < 0 || mask >= AUTHORITIES.length) {
+      throw new IllegalArgumentException("Invalid role mask: " + mask);
+    }
+    return mask;
+  }
+}
@@ -0,0 +1,285 @@
+package com.payflow.security;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.payflow.config.JwtProperties;
+import com.payflow.entity.RevokedToken;
+import com.payflow.repository.IRevokedTokenRepository;
+import com.payflow.util.BloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory copy of the revoked_tokens table, consulted by
+ * JwtAuthenticationFilter on every request and by AuthTokenService on
+ * refresh.
+ *
+ * A user-wide revocation rejects every token of the user issued before its
+ * cutoff, and survives the user being enabled again, so tokens handed out
+ * before a disable never come back. Its row expires once the longest-lived
+ * of those tokens would have.
+ *
+ * Revocation cutoffs per user id and revoked refresh token ids are held in
+ * exact collections behind a Bloom filter, so the common case - a token
+ * nobody revoked - is answered by a few bit probes without touching them or
+ * the database. Changes
+ * made on this node apply once their transaction commits; changes made on
+ * other nodes are picked up when the table is reloaded every
+ * app.jwt.revocation-refresh-seconds, which also deletes expired rows.
+ */
+@Component
+public class TokenRevocationList {
+
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final IRevokedTokenRepository revokedTokenRepository;
+  private final JwtProperties jwtProperties;
+  private final TransactionTemplate transactionTemplate;
+  private final Clock clock;
+  private final Object lock = new Object();
+
+  private final Counter clear;
+  private final Counter falsePositives;
+  private final Counter revoked;
+
+  private volatile Snapshot snapshot;
+  private ScheduledExecutorService scheduler;
+
+  public TokenRevocationList(IRevokedTokenRepository revokedTokenRepository,
+      JwtProperties jwtProperties,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this(revokedTokenRepository, jwtProperties, transactionManager, meterRegistry, Clock.systemDefaultZone());
+  }
+
+  TokenRevocationList(IRevokedTokenRepository revokedTokenRepository,
+      JwtProperties jwtProperties,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.jwtProperties = jwtProperties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.clock = clock;
+    this.snapshot = new Snapshot(jwtProperties.getRevocationExpectedEntries());
+
+    this.clear = meterRegistry.counter("jwt.revocation.check", "result", "clear");
+    this.falsePositives = meterRegistry.counter("jwt.revocation.check", "result", "false_positive");
+    this.revoked = meterRegistry.counter("jwt.revocation.check", "result", "revoked");
+    meterRegistry.gauge("jwt.revocation.size", this, TokenRevocationList::size);
+  }
+
+  /**
+   * Loads the table before the first request is served, then reloads it in
+   * the background.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    reload();
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "token-revocation-reload");
+      thread.setDaemon(true);
+      return thread;
+    });
+    int interval = jwtProperties.getRevocationRefreshSeconds();
+    scheduler.scheduleWithFixedDelay(this::reloadQuietly, interval, interval, TimeUnit.SECONDS);
+    logger.info("Token revocation list loaded - Entries: {}, Reload interval: {} s", size(), interval);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /** True if the principal's token was issued before its user's tokens were revoked. */
+  public boolean isRevoked(AuthenticatedUser principal) {
+    return isRevoked(principal.userId(), principal.issuedAt(), null);
+  }
+
+  /**
+   * True if the refresh token has been revoked, or was issued before its
+   * user's tokens were.
+   */
+  public boolean isRevoked(RefreshToken refreshToken) {
+    return isRevoked(refreshToken.userId(), refreshToken.issuedAt(), refreshToken.tokenId());
+  }
+
+  private boolean isRevoked(long userId, Instant issuedAt, String tokenId) {
+    Snapshot current = snapshot;
+    boolean userMaybe = current.bloomFilter.mightContain(userId);
+    boolean tokenMaybe = tokenId != null && current.bloomFilter.mightContain(tokenId);
+    if (!userMaybe && !tokenMaybe) {
+      clear.increment();
+      return false;
+    }
+    if ((userMaybe && current.issuedBeforeCutoff(userId, issuedAt))
+        || (tokenMaybe && current.tokenIds.contains(tokenId))) {
+      revoked.increment();
+      return true;
+    }
+    falsePositives.increment();
+    return false;
+  }
+
+  /**
+   * Revokes every token issued to the user so far, including after the user
+   * is enabled again; tokens issued later are not affected. Must be called
+   * in the transaction that disables the user.
+   */
+  public void revokeUser(Long userId) {
+    LocalDateTime now = LocalDateTime.now(clock);
+    LocalDateTime expiresAt = now.plus(
+        Math.max(jwtProperties.getExpiration(), jwtProperties.getRefreshExpiration()), ChronoUnit.MILLIS);
+    List<RevokedToken> existing = revokedTokenRepository.findUserRevocations(userId);
+    if (existing.isEmpty()) {
+      revokedTokenRepository.save(RevokedToken.builder()
+          .userId(userId)
+          .revokedAt(now)
+          .revokedBefore(now)
+          .expiresAt(expiresAt)
+          .build());
+    } else {
+      for (RevokedToken row : existing) {
+        row.setRevokedBefore(now);
+        row.setExpiresAt(expiresAt);
+      }
+    }
+    long cutoff = now.atZone(clock.getZone()).toInstant().toEpochMilli();
+    afterCommit(current -> current.addUser(userId, cutoff));
+  }
+
+  /**
+   * Revokes a single refresh token until it expires. Fails with a
+   * DataIntegrityViolationException if it was already revoked, so of two
+   * concurrent refreshes with the same token only one succeeds.
+   */
+  public void revokeToken(RefreshToken refreshToken) {
+    revokedTokenRepository.saveAndFlush(RevokedToken.builder()
+        .userId(refreshToken.userId())
+        .tokenId(refreshToken.tokenId())
+        .revokedAt(LocalDateTime.now(clock))
+        .expiresAt(LocalDateTime.ofInstant(refreshToken.expiresAt(), clock.getZone()))
+        .build());
+    afterCommit(current -> current.addToken(refreshToken.tokenId()));
+  }
+
+  /**
+   * Rebuilds the list from the table, deleting expired rows first. Local
+   * changes wait for a reload in progress and apply to its result, so none
+   * committed while the table was being read is lost.
+   */
+  public void reload() {
+    synchronized (lock) {
+      LocalDateTime now = LocalDateTime.now(clock);
+      List<RevokedToken> rows = transactionTemplate.execute(status -> {
+        revokedTokenRepository.deleteExpired(now);
+        return revokedTokenRepository.findActive(now);
+      });
+      Snapshot loaded = new Snapshot(Math.max(jwtProperties.getRevocationExpectedEntries(), rows.size() * 2));
+      for (RevokedToken row : rows) {
+        if (row.getTokenId() == null) {
+          LocalDateTime cutoff = row.getRevokedBefore() != null ? row.getRevokedBefore() : row.getRevokedAt();
+          loaded.addUser(row.getUserId(), cutoff.atZone(clock.getZone()).toInstant().toEpochMilli());
+        } else {
+          loaded.addToken(row.getTokenId());
+        }
+      }
+      snapshot = loaded;
+      logger.debug("Token revocation list reloaded - Users: {}, Tokens: {}",
+          loaded.revokedBefore.size(), loaded.tokenIds.size());
+    }
+  }
+
+  private void reloadQuietly() {
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      logger.error("Token revocation list reload failed", e);
+    }
+  }
+
+  private void afterCommit(Consumer<Snapshot> change) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          apply(change);
+        }
+      });
+    } else {
+      apply(change);
+    }
+  }
+
+  private void apply(Consumer<Snapshot> change) {
+    synchronized (lock) {
+      change.accept(snapshot);
+    }
+  }
+
+  public int size() {
+    Snapshot current = snapshot;
+    return current.revokedBefore.size() + current.tokenIds.size();
+  }
+
+  /**
+   * One generation of the list: the epoch-milli cutoff per revoked user and
+   * the revoked refresh token ids.
+   */
+  private static final class Snapshot {
+    private final BloomFilter bloomFilter;
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+    private final Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+
+    private Snapshot(int expectedEntries) {
+      this.bloomFilter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    private void addUser(long userId, long cutoff) {
+      bloomFilter.put(userId);
+      revokedBefore.merge(userId, cutoff, Math::max);
+    }
+
+    /**
+     * A token without an issue time counts as issued before any cutoff. JWT
+     * issue times are whole seconds, so a token issued in the second of the
+     * cutoff but before it is still caught.
+     */
+    private boolean issuedBeforeCutoff(long userId, Instant issuedAt) {
+      Long cutoff = revokedBefore.get(userId);
+      return cutoff != null && (issuedAt == null || issuedAt.toEpochMilli() < cutoff);
+    }
+
+    private void addToken(String tokenId) {
+      bloomFilter.put(tokenId);
+      tokenIds.add(tokenId);
+    }
+  }
+}
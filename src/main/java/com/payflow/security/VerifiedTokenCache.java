@@ -0,0 +1,132 @@
+package com.payflow.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.payflow.config.JwtProperties;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Verifies bearer tokens for JwtAuthenticationFilter and remembers the
+ * result, so a client sending the same token on every request pays for the
+ * signature check once.
+ *
+ * Entries are keyed by the SHA-256 digest of the token, never the token
+ * itself, and are dropped when the token expires or when more than
+ * app.jwt.verified-token-cache-max-entries tokens are cached (least recently
+ * used first). Setting the size to 0 verifies every request.
+ */
+@Component
+public class VerifiedTokenCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  });
+
+  private final JwtTokenProvider jwtTokenProvider;
+  private final Clock clock;
+  private final int maxEntries;
+  private final Map<ByteBuffer, AuthenticatedUser> entries;
+
+  private final Counter hits;
+  private final Counter misses;
+
+  public VerifiedTokenCache(JwtTokenProvider jwtTokenProvider, JwtProperties jwtProperties,
+      MeterRegistry meterRegistry) {
+    this(jwtTokenProvider, jwtProperties, meterRegistry, Clock.systemUTC());
+  }
+
+  VerifiedTokenCache(JwtTokenProvider jwtTokenProvider, JwtProperties jwtProperties,
+      MeterRegistry meterRegistry, Clock clock) {
+    this.jwtTokenProvider = jwtTokenProvider;
+    this.clock = clock;
+    this.maxEntries = jwtProperties.getVerifiedTokenCacheMaxEntries();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ByteBuffer, AuthenticatedUser> eldest) {
+        return size() > maxEntries;
+      }
+    };
+
+    this.hits = meterRegistry.counter("jwt.verification.cache", "result", "hit");
+    this.misses = meterRegistry.counter("jwt.verification.cache", "result", "miss");
+    meterRegistry.gauge("jwt.verification.cache.size", this, VerifiedTokenCache::size);
+  }
+
+  /**
+   * @return the token's principal, or null if the token is invalid or has
+   *         expired
+   */
+  public AuthenticatedUser verify(String token) {
+    if (token == null || token.isEmpty()) {
+      return null;
+    }
+    if (maxEntries == 0) {
+      return parse(token);
+    }
+
+    ByteBuffer key = digest(token);
+    AuthenticatedUser cached;
+    synchronized (entries) {
+      cached = entries.get(key);
+      if (cached != null && isExpired(cached)) {
+        entries.remove(key);
+        cached = null;
+      }
+    }
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+
+    misses.increment();
+    AuthenticatedUser principal = parse(token);
+    if (principal != null) {
+      synchronized (entries) {
+        entries.put(key, principal);
+      }
+    }
+    return principal;
+  }
+
+  private AuthenticatedUser parse(String token) {
+    try {
+      return jwtTokenProvider.parseToken(token);
+    } catch (JwtException | IllegalArgumentException e) {
+      logger.warn("Invalid JWT token: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private boolean isExpired(AuthenticatedUser principal) {
+    return principal.expiresAt() != null && !principal.expiresAt().isAfter(clock.instant());
+  }
+
+  private static ByteBuffer digest(String token) {
+    return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.payflow.services;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.payflow.entity.Role;
+import com.payflow.entity.User;
+import com.payflow.exception.UnauthorizedException;
+import com.payflow.security.JwtTokenProvider;
+import com.payflow.security.RefreshToken;
+import com.payflow.security.TokenRevocationList;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.transaction.Transactional;
+
+/**
+ * Issues access and refresh tokens and rotates refresh tokens.
+ *
+ * Access tokens live for app.jwt.expiration and are never stored. A refresh
+ * token can be used once: refreshing revokes it and issues a new pair, so a
+ * replayed or stolen refresh token is rejected, and a disabled user cannot
+ * refresh at all.
+ */
+@Service
+@Transactional
+public class AuthTokenService {
+
+  private static final Logger logger = LoggerFactory.getLogger(AuthTokenService.class);
+
+  private final UserService userService;
+  private final JwtTokenProvider jwtTokenProvider;
+  private final TokenRevocationList tokenRevocationList;
+
+  public AuthTokenService(UserService userService,
+      JwtTokenProvider jwtTokenProvider,
+      TokenRevocationList tokenRevocationList) {
+    this.userService = userService;
+    this.jwtTokenProvider = jwtTokenProvider;
+    this.tokenRevocationList = tokenRevocationList;
+  }
+
+  @Transactional(Transactional.TxType.SUPPORTS)
+  public AuthTokens issue(User user) {
+    Set<String> roles = user.getRoles().stream().map(Role::getRole).collect(Collectors.toSet());
+    return new AuthTokens(user,
+        jwtTokenProvider.generateToken(user.getId(), roles),
+        jwtTokenProvider.generateRefreshToken(user.getId()));
+  }
+
+  public AuthTokens refresh(String refreshToken) {
+    RefreshToken token;
+    try {
+      token = jwtTokenProvider.parseRefreshToken(refreshToken);
+    } catch (JwtException | IllegalArgumentException e) {
+      logger.warn("Refresh failed: invalid refresh token: {}", e.getMessage());
+      throw new UnauthorizedException("Invalid refresh token");
+    }
+
+    if (tokenRevocationList.isRevoked(token)) {
+      logger.warn("Refresh failed: revoked refresh token for user ID: {}", token.userId());
+      throw new UnauthorizedException("Invalid refresh token");
+    }
+
+    User user = userService.findById(token.userId())
+        .filter(u -> Boolean.TRUE.equals(u.getEnabled()))
+        .orElseThrow(() -> {
+          logger.warn("Refresh failed: user ID {} not found or disabled", token.userId());
+          return new UnauthorizedException("Invalid refresh token");
+        });
+
+    try {
+      tokenRevocationList.revokeToken(token);
+    } catch (DataIntegrityViolationException e) {
+      logger.warn("Refresh failed: refresh token reused concurrently for user ID: {}", token.userId());
+      throw new UnauthorizedException("Invalid refresh token");
+    }
+
+    logger.info("Tokens refreshed for user ID: {}", user.getId());
+    return issue(user);
+  }
+}
@@ -0,0 +1,10 @@
+package com.payflow.services;
+
+import com.payflow.entity.User;
+
+/**
+ * What a login or a refresh hands back: a short-lived access token for the
+ * Authorization header and the refresh token that replaces it.
+ */
+public record AuthTokens(User user, String accessToken, String refreshToken) {
+}
@@ -0,0 +1,241 @@
+package com.payflow.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.config.BulkDepositProperties;
+import com.payflow.dto.v1.request.BulkDepositLine;
+import com.payflow.dto.v1.response.BulkDepositResult;
+import com.payflow.entity.Transaction;
+import com.payflow.entity.User;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Applies a newline-delimited stream of deposits for one user.
+ *
+ * Lines are read and applied app.bulk-deposit.chunk-size at a time, each
+ * chunk in one transaction, and the chunk's results are handed to the sink
+ * before the next chunk is read. The sink writes to the response, so a slow
+ * client slows down ingestion instead of results piling up in memory.
+ *
+ * The request's open-in-view EntityManager is cleared after every chunk, so
+ * the next chunk re-reads the wallet instead of overwriting changes committed
+ * in between, and the persistence context does not grow with the file.
+ */
+@Service
+public class BulkDepositService {
+
+  private static final Logger logger = LoggerFactory.getLogger(BulkDepositService.class);
+
+  private final TransactionService transactionService;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final BulkDepositProperties bulkDepositProperties;
+  private final EntityManager entityManager;
+
+  public BulkDepositService(TransactionService transactionService,
+      PlatformTransactionManager transactionManager,
+      ObjectMapper objectMapper,
+      BulkDepositProperties bulkDepositProperties,
+      EntityManager entityManager) {
+    this.transactionService = transactionService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.bulkDepositProperties = bulkDepositProperties;
+    this.entityManager = entityManager;
+  }
+
+  @FunctionalInterface
+  public interface ResultSink {
+    void accept(List<BulkDepositResult> results) throws IOException;
+  }
+
+  /**
+   * @return the number of lines processed
+   */
+  public long ingest(User user, Reader body, ResultSink sink) throws IOException {
+    logger.info("Bulk deposit started - User ID: {}", user.getId());
+    int chunkSize = bulkDepositProperties.getChunkSize();
+    LineReader reader = new LineReader(body, bulkDepositProperties.getMaxLineLength());
+
+    long lineNumber = 0;
+    long completed = 0;
+    List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+    String raw;
+    while ((raw = reader.next()) != null) {
+      lineNumber++;
+      if (raw.isBlank()) {
+        continue;
+      }
+      chunk.add(parse(lineNumber, raw, reader.wasTruncated()));
+      if (chunk.size() == chunkSize) {
+        completed += flush(user, chunk, sink);
+      }
+    }
+    if (!chunk.isEmpty()) {
+      completed += flush(user, chunk, sink);
+    }
+
+    logger.info("Bulk deposit finished - User ID: {}, Lines: {}, Completed: {}", user.getId(), lineNumber, completed);
+    return lineNumber;
+  }
+
+  private long flush(User user, List<ParsedLine> chunk, ResultSink sink) throws IOException {
+    List<BulkDepositResult> results;
+    try {
+      results = applyChunk(user, chunk);
+    } finally {
+      entityManager.clear();
+    }
+    chunk.clear();
+    sink.accept(results);
+    return results.stream().filter(result -> result.error() == null).count();
+  }
+
+  private ParsedLine parse(long lineNumber, String raw, boolean truncated) {
+    if (truncated) {
+      return ParsedLine.invalid(lineNumber, null, "Line exceeds maximum length");
+    }
+    BulkDepositLine line;
+    try {
+      line = objectMapper.readValue(raw, BulkDepositLine.class);
+    } catch (JsonProcessingException e) {
+      return ParsedLine.invalid(lineNumber, null, "Malformed line");
+    }
+    if (line.idempotencyKey() == null || line.idempotencyKey().isBlank()) {
+      return ParsedLine.invalid(lineNumber, null, "Idempotency key is required");
+    }
+    if (line.currency() == null || line.currency().isBlank()) {
+      return ParsedLine.invalid(lineNumber, line.idempotencyKey(), "Currency is required");
+    }
+    if (line.amount() == null || line.amount().signum() <= 0) {
+      return ParsedLine.invalid(lineNumber, line.idempotencyKey(), "Amount must be greater than zero");
+    }
+    return new ParsedLine(lineNumber, line, null);
+  }
+
+  /**
+   * Valid lines of a chunk are applied in one transaction. If any of them
+   * fails the chunk is rolled back and its lines are applied one by one, so
+   * the error is reported on the offending line only.
+   */
+  private List<BulkDepositResult> applyChunk(User user, List<ParsedLine> chunk) {
+    List<ParsedLine> valid = chunk.stream().filter(line -> line.error() == null).toList();
+    List<Transaction> applied = null;
+    if (!valid.isEmpty()) {
+      try {
+        applied = transactionTemplate.execute(status -> valid.stream()
+            .map(line -> deposit(user, line))
+            .toList());
+      } catch (RuntimeException e) {
+        logger.warn("Bulk deposit chunk of {} lines failed - Applying lines individually: {}",
+            valid.size(), e.getMessage());
+      }
+    }
+
+    List<BulkDepositResult> results = new ArrayList<>(chunk.size());
+    int next = 0;
+    for (ParsedLine line : chunk) {
+      if (line.error() != null) {
+        results.add(failed(line.lineNumber(), line.idempotencyKey(), line.error()));
+      } else if (applied != null) {
+        results.add(completed(line, applied.get(next++)));
+      } else {
+        results.add(applyLine(user, line));
+      }
+    }
+    return results;
+  }
+
+  private BulkDepositResult applyLine(User user, ParsedLine line) {
+    try {
+      Transaction transaction = transactionTemplate.execute(status -> deposit(user, line));
+      return completed(line, transaction);
+    } catch (IllegalArgumentException e) {
+      return failed(line.lineNumber(), line.idempotencyKey(), e.getMessage());
+    } catch (RuntimeException e) {
+      logger.error("Bulk deposit line {} failed", line.lineNumber(), e);
+      return failed(line.lineNumber(), line.idempotencyKey(), "Deposit failed");
+    }
+  }
+
+  private Transaction deposit(User user, ParsedLine line) {
+    return transactionService.deposit(user, line.line().currency(), line.line().amount(),
+        line.line().idempotencyKey());
+  }
+
+  private static BulkDepositResult completed(ParsedLine line, Transaction transaction) {
+    return new BulkDepositResult(line.lineNumber(), line.idempotencyKey(), transaction.getStatus().toString(),
+        transaction.getTransactionId(), null);
+  }
+
+  private static BulkDepositResult failed(long lineNumber, String idempotencyKey, String error) {
+    return new BulkDepositResult(lineNumber, idempotencyKey, Transaction.TransactionStatus.FAILED.toString(), null,
+        error);
+  }
+
+  private record ParsedLine(long lineNumber, BulkDepositLine line, String error) {
+
+    static ParsedLine invalid(long lineNumber, String idempotencyKey, String error) {
+      return new ParsedLine(lineNumber, new BulkDepositLine(idempotencyKey, null, null), error);
+    }
+
+    String idempotencyKey() {
+      return line.idempotencyKey();
+    }
+  }
+
+  /**
+   * Reads lines of at most maxLength characters; the rest of a longer line is
+   * skipped so a single oversized line cannot exhaust memory.
+   */
+  private static final class LineReader {
+    private final Reader reader;
+    private final int maxLength;
+    private final StringBuilder buffer = new StringBuilder();
+    private boolean truncated;
+
+    private LineReader(Reader reader, int maxLength) {
+      this.reader = new BufferedReader(reader);
+      this.maxLength = maxLength;
+    }
+
+    String next() throws IOException {
+      buffer.setLength(0);
+      truncated = false;
+      int c = reader.read();
+      if (c == -1) {
+        return null;
+      }
+      while (c != -1 && c != '\n') {
+        if (buffer.length() < maxLength) {
+          buffer.append((char) c);
+        } else {
+          truncated = true;
+        }
+        c = reader.read();
+      }
+      int end = buffer.length();
+      if (end > 0 && buffer.charAt(end - 1) == '\r') {
+        buffer.setLength(end - 1);
+      }
+      return buffer.toString();
+    }
+
+    boolean wasTruncated() {
+      return truncated;
+    }
+  }
+}
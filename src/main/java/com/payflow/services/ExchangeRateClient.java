@@ -0,0 +1,73 @@
+package com.payflow.services;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.payflow.config.ExchangeRateProperties;
+
+/**
+ * Fetches the latest rates for one base currency from app.exchange-rate.api-url.
+ *
+ * Requests GET {api-url}/{base} and accepts both the "rates" (v4) and
+ * "conversion_rates" (v6) response shapes. The API key, when configured, is
+ * sent as a bearer token.
+ */
+@Component
+public class ExchangeRateClient {
+
+  private final ExchangeRateProperties exchangeRateProperties;
+  private final RestClient restClient;
+
+  public ExchangeRateClient(ExchangeRateProperties exchangeRateProperties, RestClient.Builder restClientBuilder) {
+    this.exchangeRateProperties = exchangeRateProperties;
+
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(exchangeRateProperties.getTimeoutMillis());
+    requestFactory.setReadTimeout(exchangeRateProperties.getTimeoutMillis());
+    this.restClient = restClientBuilder
+        .requestFactory(requestFactory)
+        .build();
+  }
+
+  /**
+   * @return rates from the base currency to every currency the provider quotes
+   * @throws RestClientException if the provider cannot be reached, answers
+   *                             with an error status or returns no rates
+   */
+  public Map<String, BigDecimal> fetchLatest(String baseCurrency) {
+    String apiKey = exchangeRateProperties.getApiKey();
+    LatestRatesResponse response = restClient.get()
+        .uri(exchangeRateProperties.getApiUrl() + "/{base}", baseCurrency)
+        .headers(headers -> {
+          if (apiKey != null && !apiKey.isBlank()) {
+            headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
+          }
+        })
+        .retrieve()
+        .body(LatestRatesResponse.class);
+
+    Map<String, BigDecimal> rates = response == null ? null : response.ratesOrConversionRates();
+    if (rates == null || rates.isEmpty()) {
+      throw new RestClientException("Exchange rate provider returned no rates for " + baseCurrency);
+    }
+    return rates;
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  record LatestRatesResponse(
+      Map<String, BigDecimal> rates,
+      @JsonProperty("conversion_rates") Map<String, BigDecimal> conversionRates) {
+
+    Map<String, BigDecimal> ratesOrConversionRates() {
+      return rates != null ? rates : conversionRates;
+    }
+  }
+}
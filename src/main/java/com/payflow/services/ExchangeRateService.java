@@ -1,33 +1,188 @@
 package com.payflow.services;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import com.payflow.config.ExchangeRateProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves exchange rates from an in-memory snapshot per base currency.
+ *
+ * With app.exchange-rate.provider-enabled the snapshots are loaded from
+ * ExchangeRateClient and refreshed ahead of time by a background thread:
+ * a base is refetched once its rates are three quarters of
+ * cache-duration-minutes old, so lookups never wait on the provider. If a
+ * refresh fails the previous rates keep being served until they are
+ * max-stale-minutes old, after which the pair reports no rate. With the
+ * provider disabled a fixed rate table is served instead.
+ *
+ * Lookups read an ExchangeRateTable that is rebuilt from the snapshots and
+ * swapped in after every refresh; pairs without a quote are triangulated
+ * through app.exchange-rate.pivot-currency. Every published table is
+ * versioned so a quote can report which table it was priced from.
+ */
 @Service
 public class ExchangeRateService implements IExchangeRateService {
 
-  private final Map<String, BigDecimal> exchangeRates;
+  private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
+
+  private final ExchangeRateProperties exchangeRateProperties;
+  private final ExchangeRateClient exchangeRateClient;
+  private final Clock clock;
+  private final Map<String, ExchangeRateTable.Snapshot> snapshots = new ConcurrentHashMap<>();
+  private volatile ExchangeRateTable table = ExchangeRateTable.EMPTY;
+  private long nextVersion = 1;
 
-  public ExchangeRateService() {
-    this.exchangeRates = initializeExchangeRates();
+  private final Counter refreshSuccesses;
+  private final Counter refreshFailures;
+  private final Counter staleReads;
+
+  private ScheduledExecutorService refresher;
+
+  public ExchangeRateService(ExchangeRateProperties exchangeRateProperties,
+      ExchangeRateClient exchangeRateClient,
+      MeterRegistry meterRegistry) {
+    this(exchangeRateProperties, exchangeRateClient, meterRegistry, Clock.systemUTC());
   }
 
-  private Map<String, BigDecimal> initializeExchangeRates() {
-    Map<String, BigDecimal> rates = new HashMap<>();
+  ExchangeRateService(ExchangeRateProperties exchangeRateProperties,
+      ExchangeRateClient exchangeRateClient,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.exchangeRateProperties = exchangeRateProperties;
+    this.exchangeRateClient = exchangeRateClient;
+    this.clock = clock;
+    this.refreshSuccesses = meterRegistry.counter("exchange.rate.refresh", "result", "success");
+    this.refreshFailures = meterRegistry.counter("exchange.rate.refresh", "result", "failure");
+    this.staleReads = meterRegistry.counter("exchange.rate.stale");
+
+    if (!exchangeRateProperties.getProviderEnabled()) {
+      loadFixedRates();
+    }
+  }
 
-    rates.put("USD-EUR", new BigDecimal("0.92"));
-    rates.put("USD-MXN", new BigDecimal("17.50"));
+  private void loadFixedRates() {
+    snapshots.put("USD", new ExchangeRateTable.Snapshot(Map.of(
+        "EUR", new BigDecimal("0.92"),
+        "MXN", new BigDecimal("17.50")), ExchangeRateTable.NEVER_EXPIRES));
+    snapshots.put("EUR", new ExchangeRateTable.Snapshot(Map.of(
+        "USD", new BigDecimal("1.09"),
+        "MXN", new BigDecimal("19.02")), ExchangeRateTable.NEVER_EXPIRES));
+    snapshots.put("MXN", new ExchangeRateTable.Snapshot(Map.of(
+        "USD", new BigDecimal("0.057"),
+        "EUR", new BigDecimal("0.053")), ExchangeRateTable.NEVER_EXPIRES));
+    rebuildTable();
+  }
 
-    rates.put("EUR-USD", new BigDecimal("1.09"));
-    rates.put("EUR-MXN", new BigDecimal("19.02"));
+  /**
+   * Publishes a new rate matrix built from the current snapshots. Only
+   * called from the constructor and the refresh thread, so builds never race.
+   */
+  private void rebuildTable() {
+    table = ExchangeRateTable.build(Map.copyOf(snapshots), exchangeRateProperties.getPivotCurrency(),
+        nextVersion++, clock.millis());
+  }
 
-    rates.put("MXN-USD", new BigDecimal("0.057"));
-    rates.put("MXN-EUR", new BigDecimal("0.053"));
+  ExchangeRateTable currentTable() {
+    return table;
+  }
 
-    return rates;
+  /**
+   * Loads every configured base currency once, then keeps them fresh on a
+   * daemon thread that wakes up every quarter of the cache duration.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!exchangeRateProperties.getProviderEnabled()) {
+      return;
+    }
+    refreshDue();
+
+    long period = TimeUnit.MINUTES.toSeconds(exchangeRateProperties.getCacheDurationMinutes()) / 4;
+    refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "exchange-rate-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    refresher.scheduleWithFixedDelay(this::refreshDue, period, Math.max(period, 1), TimeUnit.SECONDS);
+    logger.info("Exchange rate refresh started - Currencies: {}, Cache duration: {} min, Max stale: {} min",
+        exchangeRateProperties.getCurrencies(), exchangeRateProperties.getCacheDurationMinutes(),
+        exchangeRateProperties.getMaxStaleMinutes());
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (refresher != null) {
+      refresher.shutdownNow();
+    }
+  }
+
+  /**
+   * Refetches every base currency that has no rates yet or whose rates are
+   * due for refresh-ahead. A failure leaves the previous snapshot in place.
+   */
+  void refreshDue() {
+    long refreshAfter = TimeUnit.MINUTES.toMillis(exchangeRateProperties.getCacheDurationMinutes()) * 3 / 4;
+    boolean refreshed = false;
+    for (String base : exchangeRateProperties.getCurrencies()) {
+      ExchangeRateTable.Snapshot snapshot = snapshots.get(base);
+      if (snapshot != null && clock.millis() - snapshot.quotedAt() < refreshAfter) {
+        continue;
+      }
+      try {
+        snapshots.put(base, new ExchangeRateTable.Snapshot(Map.copyOf(exchangeRateClient.fetchLatest(base)),
+            clock.millis()));
+        refreshed = true;
+        refreshSuccesses.increment();
+        logger.debug("Exchange rates refreshed - Base: {}", base);
+      } catch (RuntimeException e) {
+        refreshFailures.increment();
+        logger.warn("Exchange rate refresh failed - Base: {}, Serving rates from: {}", base,
+            snapshot != null ? Instant.ofEpochMilli(snapshot.quotedAt()) : "none", e);
+      }
+    }
+    if (refreshed) {
+      rebuildTable();
+    }
+  }
+
+  private BigDecimal findRate(String fromCurrency, String toCurrency) {
+    return findRate(table, fromCurrency, toCurrency);
+  }
+
+  /**
+   * Rate for the pair in the given table, or null if it has none or it is
+   * older than app.exchange-rate.max-stale-minutes.
+   */
+  BigDecimal findRate(ExchangeRateTable current, String fromCurrency, String toCurrency) {
+    int cell = current.cell(fromCurrency, toCurrency);
+    if (cell < 0) {
+      return null;
+    }
+    long age = clock.millis() - current.quotedAt(cell);
+    if (age > TimeUnit.MINUTES.toMillis(exchangeRateProperties.getMaxStaleMinutes())) {
+      return null;
+    }
+    if (age > TimeUnit.MINUTES.toMillis(exchangeRateProperties.getCacheDurationMinutes())) {
+      staleReads.increment();
+    }
+    return current.rate(cell);
   }
 
   @Override
@@ -36,8 +191,7 @@ public class ExchangeRateService implements IExchangeRateService {
       return BigDecimal.ONE;
     }
 
-    String key = fromCurrency + "-" + toCurrency;
-    BigDecimal rate = exchangeRates.get(key);
+    BigDecimal rate = findRate(fromCurrency, toCurrency);
 
     if (rate == null) {
       throw new IllegalArgumentException(
@@ -53,7 +207,7 @@ public class ExchangeRateService implements IExchangeRateService {
       return true;
     }
 
-    String key = fromCurrency + "-" + toCurrency;
-    return exchangeRates.containsKey(key);
+    return findRate(fromCurrency, toCurrency) != null;
   }
+
 }
@@ -0,0 +1,190 @@
+package com.payflow.services;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.payflow.value.Currency;
+
+/**
+ * Immutable rate matrix used by ExchangeRateService.
+ *
+ * Every registered Currency that appears in a snapshot gets a small index,
+ * found through an array slot per Currency, and the rate from currency i to
+ * currency j lives at i * size + j of a flat array, next to the time it was
+ * quoted. A lookup is a registry probe per code plus array reads, with no
+ * allocation; codes outside the ISO-4217 registry are dropped. Every rate
+ * is rounded to RATE_SCALE when the table is built, so the rate a transfer
+ * converts with is exactly the one stored with it. Pairs the
+ * provider does not quote directly are triangulated through the pivot
+ * currency when the table is built, using the inverse of a quoted leg where
+ * needed; such a cross rate is as old as its older leg.
+ *
+ * Each published table carries a version, so a quote can be executed later
+ * against exactly the rates it was priced from.
+ */
+final class ExchangeRateTable {
+
+  /** Quote time of rates that never age, such as the fixed rate table. */
+  static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+  static final ExchangeRateTable EMPTY = build(Map.of(), null, 0L, 0L);
+
+  /** Scale of transactions.exchange_rate. */
+  static final int RATE_SCALE = 12;
+
+  private final long version;
+  private final long publishedAt;
+  /** Table index by Currency index, -1 for currencies without rates. */
+  private final int[] indexes;
+  private final int size;
+  private final BigDecimal[] rates;
+  private final long[] quotedAt;
+
+  private ExchangeRateTable(long version, long publishedAt, int[] indexes, int size, BigDecimal[] rates,
+      long[] quotedAt) {
+    this.version = version;
+    this.publishedAt = publishedAt;
+    this.indexes = indexes;
+    this.size = size;
+    this.rates = rates;
+    this.quotedAt = quotedAt;
+  }
+
+  /**
+   * @param snapshots quoted rates by base currency
+   * @param pivot     currency used to triangulate pairs without a quote, or
+   *                  null to only serve quoted pairs
+   */
+  static ExchangeRateTable build(Map<String, Snapshot> snapshots, String pivot, long version, long publishedAt) {
+    TreeSet<String> codes = new TreeSet<>(snapshots.keySet());
+    snapshots.values().forEach(snapshot -> codes.addAll(snapshot.rates().keySet()));
+    int[] indexes = new int[Currency.count()];
+    Arrays.fill(indexes, -1);
+    int registered = 0;
+    for (String code : codes) {
+      Currency currency = Currency.find(code);
+      if (currency != null && indexes[currency.getIndex()] < 0) {
+        indexes[currency.getIndex()] = registered++;
+      }
+    }
+
+    int size = registered;
+    BigDecimal[] rates = new BigDecimal[size * size];
+    long[] quotedAt = new long[size * size];
+    snapshots.forEach((base, snapshot) -> {
+      int from = indexOf(indexes, base);
+      snapshot.rates().forEach((currency, rate) -> {
+        int to = indexOf(indexes, currency);
+        if (from >= 0 && to >= 0 && from != to) {
+          rates[from * size + to] = toRateScale(rate);
+          quotedAt[from * size + to] = snapshot.quotedAt();
+        }
+      });
+    });
+
+    int pivotIndex = indexOf(indexes, pivot);
+    if (pivotIndex >= 0) {
+      triangulate(rates, quotedAt, size, pivotIndex);
+    }
+    return new ExchangeRateTable(version, publishedAt, indexes, size, rates, quotedAt);
+  }
+
+  private static int indexOf(int[] indexes, String code) {
+    Currency currency = Currency.find(code);
+    return currency != null ? indexes[currency.getIndex()] : -1;
+  }
+
+  private static BigDecimal toRateScale(BigDecimal rate) {
+    return rate.scale() > RATE_SCALE ? rate.setScale(RATE_SCALE, RoundingMode.HALF_EVEN) : rate;
+  }
+
+  private static void triangulate(BigDecimal[] rates, long[] quotedAt, int size, int pivot) {
+    BigDecimal[] toPivot = new BigDecimal[size];
+    BigDecimal[] fromPivot = new BigDecimal[size];
+    long[] toPivotAt = new long[size];
+    long[] fromPivotAt = new long[size];
+    for (int i = 0; i < size; i++) {
+      if (i == pivot) {
+        continue;
+      }
+      int direct = i * size + pivot;
+      int reverse = pivot * size + i;
+      if (rates[direct] != null) {
+        toPivot[i] = rates[direct];
+        toPivotAt[i] = quotedAt[direct];
+      } else if (rates[reverse] != null && rates[reverse].signum() > 0) {
+        toPivot[i] = BigDecimal.ONE.divide(rates[reverse], MathContext.DECIMAL64);
+        toPivotAt[i] = quotedAt[reverse];
+      }
+      if (rates[reverse] != null) {
+        fromPivot[i] = rates[reverse];
+        fromPivotAt[i] = quotedAt[reverse];
+      } else if (rates[direct] != null && rates[direct].signum() > 0) {
+        fromPivot[i] = BigDecimal.ONE.divide(rates[direct], MathContext.DECIMAL64);
+        fromPivotAt[i] = quotedAt[direct];
+      }
+    }
+
+    for (int from = 0; from < size; from++) {
+      for (int to = 0; to < size; to++) {
+        int cell = from * size + to;
+        if (from == to || rates[cell] != null) {
+          continue;
+        }
+        BigDecimal first = from == pivot ? BigDecimal.ONE : toPivot[from];
+        BigDecimal second = to == pivot ? BigDecimal.ONE : fromPivot[to];
+        if (first == null || second == null) {
+          continue;
+        }
+        rates[cell] = toRateScale(first.multiply(second));
+        quotedAt[cell] = Math.min(
+            from == pivot ? NEVER_EXPIRES : toPivotAt[from],
+            to == pivot ? NEVER_EXPIRES : fromPivotAt[to]);
+      }
+    }
+  }
+
+  /**
+   * @return the cell holding the rate from one currency to another, or -1
+   *         if either currency is unknown or the pair has no rate
+   */
+  int cell(String fromCurrency, String toCurrency) {
+    int from = indexOf(indexes, fromCurrency);
+    int to = indexOf(indexes, toCurrency);
+    if (from < 0 || to < 0) {
+      return -1;
+    }
+    int cell = from * size + to;
+    return rates[cell] != null ? cell : -1;
+  }
+
+  BigDecimal rate(int cell) {
+    return rates[cell];
+  }
+
+  long quotedAt(int cell) {
+    return quotedAt[cell];
+  }
+
+  long version() {
+    return version;
+  }
+
+  long publishedAt() {
+    return publishedAt;
+  }
+
+  int currencyCount() {
+    return size;
+  }
+
+  /**
+   * Rates quoted from one base currency, and when they were fetched.
+   */
+  record Snapshot(Map<String, BigDecimal> rates, long quotedAt) {
+  }
+}
@@ -0,0 +1,202 @@
+package com.payflow.services;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.payflow.config.IdempotencyProperties;
+import com.payflow.entity.Transaction;
+import com.payflow.repository.IIdempotencyRecordRepository;
+import com.payflow.util.BloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sits in front of the idempotency record lookup in TransactionService.
+ *
+ * Recently completed transactions are kept in a bounded LRU cache with a
+ * time-to-live, so client retries are answered without touching the
+ * database. With app.idempotency.bloom-filter-enabled, a Bloom filter of
+ * every key seen (seeded from the unexpired idempotency records at startup)
+ * also answers "definitely new" for fresh keys so they skip the lookup too. A stale or missing entry
+ * is never a correctness problem: the unique constraint on
+ * transactions.idempotency_key still rejects a second insert.
+ */
+@Component
+public class IdempotencyCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+
+  private final IdempotencyProperties idempotencyProperties;
+  private final IIdempotencyRecordRepository recordRepository;
+  private final TransactionTemplate readOnlyTemplate;
+  private final Clock clock;
+  private final Map<String, CachedTransaction> entries;
+  private final BloomFilter bloomFilter;
+  private volatile boolean bloomReady;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter bloomSkips;
+  private final Counter bloomProbes;
+
+  public IdempotencyCache(IdempotencyProperties idempotencyProperties,
+      IIdempotencyRecordRepository recordRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this(idempotencyProperties, recordRepository, transactionManager, meterRegistry, Clock.systemUTC());
+  }
+
+  IdempotencyCache(IdempotencyProperties idempotencyProperties,
+      IIdempotencyRecordRepository recordRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.idempotencyProperties = idempotencyProperties;
+    this.recordRepository = recordRepository;
+    this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTemplate.setReadOnly(true);
+    this.clock = clock;
+
+    int maxEntries = idempotencyProperties.getCacheMaxEntries();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedTransaction> eldest) {
+        return size() > maxEntries;
+      }
+    };
+    this.bloomFilter = idempotencyProperties.getBloomFilterEnabled()
+        ? new BloomFilter(idempotencyProperties.getBloomExpectedKeys(),
+            idempotencyProperties.getBloomFalsePositiveRate())
+        : null;
+
+    this.hits = meterRegistry.counter("idempotency.cache", "result", "hit");
+    this.misses = meterRegistry.counter("idempotency.cache", "result", "miss");
+    this.bloomSkips = meterRegistry.counter("idempotency.bloom", "result", "definitely_new");
+    this.bloomProbes = meterRegistry.counter("idempotency.bloom", "result", "probe");
+    meterRegistry.gauge("idempotency.cache.size", this, IdempotencyCache::size);
+  }
+
+  /**
+   * Seeds the Bloom filter with every idempotency key that can still replay.
+   * Until it completes the filter is not consulted; keys committed meanwhile
+   * are added by {@link #put} so none is missed.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (bloomFilter == null) {
+      return;
+    }
+    long start = System.nanoTime();
+    AtomicLong count = new AtomicLong();
+    readOnlyTemplate.executeWithoutResult(status -> {
+      try (Stream<String> keys = recordRepository.streamActiveKeys(LocalDateTime.now())) {
+        keys.forEach(key -> {
+          bloomFilter.put(key);
+          count.incrementAndGet();
+        });
+      }
+    });
+    bloomReady = true;
+    logger.info("Idempotency bloom filter seeded - Keys: {}, Bits: {}, Hashes: {}, Took: {} ms",
+        count.get(), bloomFilter.bitSize(), bloomFilter.hashFunctions(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /** The cached transaction together with the hash of the request that created it. */
+  public Optional<CachedTransaction> get(String idempotencyKey) {
+    if (!idempotencyProperties.getCacheEnabled()) {
+      return Optional.empty();
+    }
+    CachedTransaction cached;
+    synchronized (entries) {
+      cached = entries.get(idempotencyKey);
+      if (cached != null && cached.expiresAt() <= clock.millis()) {
+        entries.remove(idempotencyKey);
+        cached = null;
+      }
+    }
+    if (cached == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+    hits.increment();
+    return Optional.of(cached);
+  }
+
+  /**
+   * Whether the key has certainly never been used, in which case the
+   * database lookup can be skipped. Always false while the Bloom filter is
+   * disabled or still warming up.
+   */
+  public boolean isDefinitelyNew(String idempotencyKey) {
+    if (!bloomReady) {
+      return false;
+    }
+    if (bloomFilter.mightContain(idempotencyKey)) {
+      bloomProbes.increment();
+      return false;
+    }
+    bloomSkips.increment();
+    return true;
+  }
+
+  /**
+   * Caches the transaction under its idempotency key once the surrounding
+   * transaction commits, so a rolled back operation is never replayed.
+   */
+  public void put(Transaction transaction, String requestHash) {
+    String idempotencyKey = transaction.getIdempotencyKey();
+    if (idempotencyKey == null) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          store(idempotencyKey, transaction, requestHash);
+        }
+      });
+    } else {
+      store(idempotencyKey, transaction, requestHash);
+    }
+  }
+
+  private void store(String idempotencyKey, Transaction transaction, String requestHash) {
+    if (bloomFilter != null) {
+      bloomFilter.put(idempotencyKey);
+    }
+    if (!idempotencyProperties.getCacheEnabled()) {
+      return;
+    }
+    long expiresAt = clock.millis() + TimeUnit.MINUTES.toMillis(idempotencyProperties.getCacheTtlMinutes());
+    synchronized (entries) {
+      entries.put(idempotencyKey, new CachedTransaction(transaction, requestHash, expiresAt));
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public record CachedTransaction(Transaction transaction, String requestHash, long expiresAt) {
+  }
+}
@@ -0,0 +1,179 @@
+package com.payflow.services;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.payflow.config.IdempotencyProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the partitions of idempotency_keys in step with the record TTL.
+ *
+ * Every app.idempotency.purge-interval-minutes it drops the daily partitions
+ * whose whole range has expired, which frees their rows and index pages at
+ * once instead of through a DELETE, deletes expired rows from the default
+ * partition, and creates the partitions the next TTL window will write to.
+ * Rows that reached the default partition because their day did not exist
+ * yet are moved into the new partition before it is attached.
+ */
+@Component
+public class IdempotencyRecordPurgeJob {
+
+  private static final Logger logger = LoggerFactory.getLogger(IdempotencyRecordPurgeJob.class);
+
+  static final String TABLE = "idempotency_keys";
+  static final String DEFAULT_PARTITION = TABLE + "_default";
+  private static final String PARTITION_PREFIX = TABLE + "_p";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+  private final IdempotencyProperties idempotencyProperties;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final Clock clock;
+  private final Counter rowsPurged;
+  private final Counter partitionsDropped;
+  private final Counter partitionsCreated;
+
+  private ScheduledExecutorService scheduler;
+
+  public IdempotencyRecordPurgeJob(IdempotencyProperties idempotencyProperties,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this(idempotencyProperties, jdbcTemplate, transactionManager, meterRegistry, Clock.systemDefaultZone());
+  }
+
+  IdempotencyRecordPurgeJob(IdempotencyProperties idempotencyProperties,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.idempotencyProperties = idempotencyProperties;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.clock = clock;
+    this.rowsPurged = meterRegistry.counter("idempotency.purge.rows");
+    this.partitionsDropped = meterRegistry.counter("idempotency.purge.partitions", "action", "dropped");
+    this.partitionsCreated = meterRegistry.counter("idempotency.purge.partitions", "action", "created");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!idempotencyProperties.getPurgeEnabled()) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "idempotency-purge");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::runQuietly, 0, idempotencyProperties.getPurgeIntervalMinutes(),
+        TimeUnit.MINUTES);
+    logger.info("Idempotency purge job started - TTL: {} h, Interval: {} min",
+        idempotencyProperties.getRecordTtlHours(), idempotencyProperties.getPurgeIntervalMinutes());
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private void runQuietly() {
+    try {
+      purge();
+    } catch (RuntimeException e) {
+      logger.error("Idempotency purge failed", e);
+    }
+  }
+
+  public void purge() {
+    LocalDateTime now = LocalDateTime.now(clock);
+    LocalDate today = now.toLocalDate();
+    List<String> partitions = findPartitions();
+
+    int dropped = 0;
+    for (String partition : partitions) {
+      LocalDate day = partitionDay(partition);
+      if (day != null && !day.plusDays(1).isAfter(today)) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        dropped++;
+      }
+    }
+    partitionsDropped.increment(dropped);
+
+    int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE expires_at <= ?", now);
+    rowsPurged.increment(deleted);
+
+    int created = 0;
+    LocalDate last = now.plusHours(idempotencyProperties.getRecordTtlHours()).toLocalDate().plusDays(1);
+    for (LocalDate day = today; !day.isAfter(last); day = day.plusDays(1)) {
+      String partition = partitionName(day);
+      if (!partitions.contains(partition)) {
+        createPartition(partition, day);
+        created++;
+      }
+    }
+    partitionsCreated.increment(created);
+
+    logger.info("Idempotency records purged - Partitions dropped: {}, Rows deleted: {}, Partitions created: {}",
+        dropped, deleted, created);
+  }
+
+  private List<String> findPartitions() {
+    return jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "JOIN pg_class p ON p.oid = i.inhparent "
+            + "WHERE p.relname = ?",
+        String.class, TABLE);
+  }
+
+  private void createPartition(String partition, LocalDate day) {
+    String from = day.toString();
+    String to = day.plusDays(1).toString();
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+      jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+          + " WHERE expires_at >= ?::timestamp AND expires_at < ?::timestamp RETURNING *) "
+          + "INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+      jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition
+          + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    });
+  }
+
+  static String partitionName(LocalDate day) {
+    return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+  }
+
+  static LocalDate partitionDay(String partition) {
+    if (!partition.startsWith(PARTITION_PREFIX)) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.payflow.services;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.payflow.config.IdempotencyProperties;
+import com.payflow.entity.IdempotencyRecord;
+import com.payflow.entity.Transaction;
+import com.payflow.entity.User;
+import com.payflow.entity.Wallet;
+import com.payflow.exception.IdempotencyKeyReuseException;
+import com.payflow.repository.IIdempotencyRecordRepository;
+
+/**
+ * Reads and writes the idempotency_keys table that TransactionService checks
+ * before executing a request.
+ *
+ * Each record holds a SHA-256 of the caller and the request fields that
+ * define the operation, so a key replayed with a different payload, or by a
+ * different user, is rejected instead of silently returning the first
+ * response. Records are only visible until
+ * they expire; IdempotencyRecordPurgeJob reclaims them afterwards.
+ */
+@Component
+public class IdempotencyRecordStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(IdempotencyRecordStore.class);
+
+  private final IIdempotencyRecordRepository recordRepository;
+  private final IdempotencyProperties idempotencyProperties;
+  private final Clock clock;
+
+  public IdempotencyRecordStore(IIdempotencyRecordRepository recordRepository,
+      IdempotencyProperties idempotencyProperties) {
+    this(recordRepository, idempotencyProperties, Clock.systemDefaultZone());
+  }
+
+  IdempotencyRecordStore(IIdempotencyRecordRepository recordRepository,
+      IdempotencyProperties idempotencyProperties,
+      Clock clock) {
+    this.recordRepository = recordRepository;
+    this.idempotencyProperties = idempotencyProperties;
+    this.clock = clock;
+  }
+
+  public Optional<IdempotencyRecord> findActive(String idempotencyKey) {
+    return recordRepository.findActive(idempotencyKey, LocalDateTime.now(clock));
+  }
+
+  public Map<String, IdempotencyRecord> findActive(Collection<String> idempotencyKeys) {
+    return recordRepository.findActiveIn(idempotencyKeys, LocalDateTime.now(clock)).stream()
+        .collect(Collectors.toMap(IdempotencyRecord::getIdempotencyKey, Function.identity(), (a, b) -> a));
+  }
+
+  /**
+   * Records the transaction as the response to its idempotency key, under
+   * the hash of the request that created it. Must be called in the
+   * transaction that saved it, after its id is assigned.
+   */
+  public void record(Transaction transaction, String requestHash) {
+    if (transaction.getIdempotencyKey() == null) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now(clock);
+    recordRepository.save(IdempotencyRecord.builder()
+        .idempotencyKey(transaction.getIdempotencyKey())
+        .operation(transaction.getType())
+        .requestHash(requestHash)
+        .responseTransactionId(transaction.getId())
+        .createdAt(now)
+        .expiresAt(now.plusHours(idempotencyProperties.getRecordTtlHours()))
+        .build());
+  }
+
+  /**
+   * @throws IdempotencyKeyReuseException if the key was first used for a
+   *                                      request with a different hash
+   */
+  public void verify(String idempotencyKey, String recordedHash, String requestHash) {
+    if (recordedHash != null && !recordedHash.equals(requestHash)) {
+      logger.warn("Idempotency key reused with a different request - Idempotency Key: {}", idempotencyKey);
+      throw new IdempotencyKeyReuseException(idempotencyKey);
+    }
+  }
+
+  /**
+   * Hash of the request a loaded transaction answers. Reads the owner of its
+   * wallet, so the wallet must not be an uninitialized detached proxy.
+   */
+  public static String requestHash(Transaction transaction) {
+    Wallet wallet = transaction.getWallet();
+    User recipient = transaction.getRecipientUser();
+    return requestHash(transaction.getType(), wallet != null ? wallet.getUser().getId() : null,
+        transaction.getCurrency(), transaction.getAmount(), recipient != null ? recipient.getId() : null,
+        transaction.getRecipientCurrency());
+  }
+
+  /**
+   * Hash of the caller and the client-supplied fields of a request. The
+   * exchange rate is left out on purpose: it is looked up by the server and
+   * may move between a request and its retry.
+   */
+  public static String requestHash(Transaction.TransactionType type, Long userId, String currency,
+      BigDecimal amount, Long recipientUserId, String recipientCurrency) {
+    String canonical = String.join("|",
+        type.name(),
+        String.valueOf(userId),
+        String.valueOf(currency),
+        amount != null ? amount.stripTrailingZeros().toPlainString() : "null",
+        String.valueOf(recipientUserId),
+        String.valueOf(recipientCurrency));
+    return sha256(canonical);
+  }
+
+  /** Hash of a batch request, from the request hashes of its items in order. */
+  public static String requestHash(List<String> itemHashes) {
+    return sha256(String.join("|", itemHashes));
+  }
+
+  private static String sha256(String canonical) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.payflow.services;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.payflow.config.IdempotencyProperties;
+import com.payflow.exception.IdempotencyKeyReuseException;
+import com.payflow.exception.RequestInProgressException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent requests that carry the same Idempotency-Key.
+ *
+ * The first request for a key runs the operation; a client retry that
+ * arrives while it is still running parks on the first request's future and
+ * returns its result (or rethrows its failure) instead of taking the wallet
+ * locks again and losing the race on the unique constraint. Parked requests
+ * wait at most app.idempotency.in-flight-wait-millis and then fail with
+ * RequestInProgressException, leaving the first request running. A request
+ * whose hash
+ * differs from the running one's is rejected with
+ * IdempotencyKeyReuseException, as it would be once the first one committed.
+ */
+@Component
+public class InFlightRequestRegistry {
+
+  private static final Logger logger = LoggerFactory.getLogger(InFlightRequestRegistry.class);
+
+  private final IdempotencyProperties idempotencyProperties;
+  private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+  private final Counter coalesced;
+
+  public InFlightRequestRegistry(IdempotencyProperties idempotencyProperties, MeterRegistry meterRegistry) {
+    this.idempotencyProperties = idempotencyProperties;
+    this.coalesced = meterRegistry.counter("idempotency.inflight.coalesced");
+    meterRegistry.gaugeMapSize("idempotency.inflight.size", List.of(), inFlight);
+  }
+
+  /**
+   * Runs the action unless a request with the same operation and key is
+   * already running, in which case that request's outcome is returned.
+   *
+   * @param requestHash hash of the request, as computed by
+   *                    IdempotencyRecordStore.requestHash
+   * @throws IdempotencyKeyReuseException if the running request has a
+   *                                      different hash
+   * @throws RequestInProgressException   if the running request does not
+   *                                      finish within the wait
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(String operation, String idempotencyKey, String requestHash, Supplier<T> action) {
+    String key = operation + ":" + idempotencyKey;
+    InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+    InFlight running = inFlight.putIfAbsent(key, mine);
+    if (running != null) {
+      if (!running.requestHash().equals(requestHash)) {
+        logger.warn("Idempotency key reused with a different in-flight request - Idempotency Key: {}",
+            idempotencyKey);
+        throw new IdempotencyKeyReuseException(idempotencyKey);
+      }
+      coalesced.increment();
+      logger.info("Concurrent {} request coalesced - Idempotency Key: {}", operation, idempotencyKey);
+      return (T) await(idempotencyKey, running.future());
+    }
+
+    try {
+      T result = action.get();
+      mine.future().complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      mine.future().completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  public int size() {
+    return inFlight.size();
+  }
+
+  private Object await(String idempotencyKey, CompletableFuture<Object> running) {
+    try {
+      return running.get(idempotencyProperties.getInFlightWaitMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new RequestInProgressException(idempotencyKey);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for in-flight request", e);
+    }
+  }
+
+  private record InFlight(String requestHash, CompletableFuture<Object> future) {
+  }
+}
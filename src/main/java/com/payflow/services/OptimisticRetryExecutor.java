@@ -0,0 +1,72 @@
+package com.payflow.services;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import com.payflow.config.WalletProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs a wallet operation and, in OPTIMISTIC concurrency mode, retries it with
+ * exponential backoff when the wallet version check fails on commit.
+ *
+ * Must be invoked outside the transactional boundary: every attempt has to
+ * start a new transaction so the wallet is re-read at its latest version.
+ * The wallet.optimistic.retries counter (tagged by operation) shows how often
+ * contention makes pessimistic mode the better choice.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+  private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+  private final WalletProperties walletProperties;
+  private final MeterRegistry meterRegistry;
+
+  public OptimisticRetryExecutor(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+    this.walletProperties = walletProperties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public <T> T execute(String operation, Supplier<T> action) {
+    if (walletProperties.getConcurrencyMode() != WalletProperties.ConcurrencyMode.OPTIMISTIC) {
+      return action.get();
+    }
+
+    int maxRetries = walletProperties.getOptimisticMaxRetries();
+    for (int attempt = 0;; attempt++) {
+      try {
+        return action.get();
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt >= maxRetries) {
+          meterRegistry.counter("wallet.optimistic.exhausted", "operation", operation).increment();
+          logger.warn("Optimistic {} gave up after {} retries", operation, attempt);
+          throw e;
+        }
+        meterRegistry.counter("wallet.optimistic.retries", "operation", operation).increment();
+        logger.debug("Optimistic {} conflict on attempt {} - Retrying", operation, attempt + 1);
+        backoff(attempt);
+      }
+    }
+  }
+
+  private void backoff(int attempt) {
+    long base = walletProperties.getOptimisticBackoffMillis() << Math.min(attempt, 10);
+    if (base <= 0) {
+      return;
+    }
+    long delay = base + ThreadLocalRandom.current().nextLong(base);
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while backing off optimistic retry", e);
+    }
+  }
+}
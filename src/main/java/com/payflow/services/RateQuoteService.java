@@ -0,0 +1,155 @@
+package com.payflow.services;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.payflow.config.ExchangeRateProperties;
+import com.payflow.config.JwtProperties;
+
+/**
+ * Issues and redeems quote tokens priced from a versioned rate table.
+ *
+ * A token carries the table version, the currency pair, the user it was
+ * issued to, its expiry and the quoted rate itself, and is signed with
+ * HMAC-SHA256 under a key derived from the JWT secret (so it can never be
+ * mistaken for an access token). Clients can price a transfer ahead of time
+ * and submit the token with it; the transfer then executes at the signed
+ * rate for up to app.exchange-rate.quote-ttl-seconds. Redemption does not
+ * look the version up, since table versions are only unique per node and
+ * per run: any node, before or after a restart, executes at the rate the
+ * client was shown.
+ */
+@Service
+public class RateQuoteService {
+
+  private static final Logger logger = LoggerFactory.getLogger(RateQuoteService.class);
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+  private static final String INVALID_QUOTE = "Quote token is invalid or has expired";
+
+  private final ExchangeRateService exchangeRateService;
+  private final ExchangeRateProperties exchangeRateProperties;
+  private final SecretKeySpec signingKey;
+  private final Clock clock;
+
+  public RateQuoteService(ExchangeRateService exchangeRateService,
+      ExchangeRateProperties exchangeRateProperties,
+      JwtProperties jwtProperties) {
+    this(exchangeRateService, exchangeRateProperties, jwtProperties, Clock.systemUTC());
+  }
+
+  RateQuoteService(ExchangeRateService exchangeRateService,
+      ExchangeRateProperties exchangeRateProperties,
+      JwtProperties jwtProperties,
+      Clock clock) {
+    this.exchangeRateService = exchangeRateService;
+    this.exchangeRateProperties = exchangeRateProperties;
+    this.clock = clock;
+    try {
+      byte[] key = MessageDigest.getInstance("SHA-256")
+          .digest(("quote-token:" + jwtProperties.getSecret()).getBytes(StandardCharsets.UTF_8));
+      this.signingKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Prices the pair from the current rate table.
+   *
+   * @throws IllegalArgumentException if no rate is available for the pair
+   */
+  public Quote quote(Long userId, String fromCurrency, String toCurrency) {
+    ExchangeRateTable table = exchangeRateService.currentTable();
+    BigDecimal rate = rateIn(table, fromCurrency, toCurrency);
+    if (rate == null) {
+      throw new IllegalArgumentException(
+          String.format("Exchange rate not available for %s to %s", fromCurrency, toCurrency));
+    }
+
+    long expiresAt = clock.millis() + TimeUnit.SECONDS.toMillis(exchangeRateProperties.getQuoteTtlSeconds());
+    String payload = String.join(":", Long.toString(table.version()), fromCurrency, toCurrency,
+        Long.toString(userId), Long.toString(expiresAt), rate.toPlainString());
+    String token = encode(payload.getBytes(StandardCharsets.UTF_8)) + "." + encode(sign(payload));
+    return new Quote(token, table.version(), Instant.ofEpochMilli(table.publishedAt()), rate,
+        Instant.ofEpochMilli(expiresAt));
+  }
+
+  /**
+   * Returns the rate a quote token was issued for.
+   *
+   * @throws IllegalArgumentException if the token is malformed, forged,
+   *                                  expired, or issued to another user or
+   *                                  for another pair
+   */
+  public BigDecimal redeem(String token, Long userId, String fromCurrency, String toCurrency) {
+    int separator = token.indexOf('.');
+    if (separator < 0) {
+      throw new IllegalArgumentException(INVALID_QUOTE);
+    }
+    String payload;
+    byte[] signature;
+    try {
+      payload = new String(Base64.getUrlDecoder().decode(token.substring(0, separator)), StandardCharsets.UTF_8);
+      signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(INVALID_QUOTE);
+    }
+    if (!MessageDigest.isEqual(sign(payload), signature)) {
+      logger.warn("Quote token rejected - Bad signature for User ID: {}", userId);
+      throw new IllegalArgumentException(INVALID_QUOTE);
+    }
+
+    String[] fields = payload.split(":");
+    if (fields.length != 6
+        || !fields[1].equals(fromCurrency)
+        || !fields[2].equals(toCurrency)
+        || !fields[3].equals(Long.toString(userId))
+        || Long.parseLong(fields[4]) < clock.millis()) {
+      throw new IllegalArgumentException(INVALID_QUOTE);
+    }
+    return new BigDecimal(fields[5]);
+  }
+
+  private BigDecimal rateIn(ExchangeRateTable table, String fromCurrency, String toCurrency) {
+    if (fromCurrency.equals(toCurrency)) {
+      return BigDecimal.ONE;
+    }
+    return exchangeRateService.findRate(table, fromCurrency, toCurrency);
+  }
+
+  private byte[] sign(String payload) {
+    try {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(signingKey);
+      return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to sign quote token", e);
+    }
+  }
+
+  private static String encode(byte[] bytes) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  /**
+   * A signed quote. snapshotId and snapshotPublishedAt identify the rate
+   * table the rate was read from on the issuing node.
+   */
+  public record Quote(String token, long snapshotId, Instant snapshotPublishedAt, BigDecimal exchangeRate,
+      Instant expiresAt) {
+  }
+}
@@ -0,0 +1,254 @@
+package com.payflow.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.payflow.config.JournalProperties;
+import com.payflow.config.WalletProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Group commit for balance operations, enabled with app.journal.enabled.
+ *
+ * Callers enqueue an operation and block until it is durable. A single
+ * committer thread collects up to app.journal.batch-size operations, waiting
+ * at most app.journal.linger-millis for the batch to fill, and runs them in
+ * one database transaction, so a busy node pays one commit per batch instead
+ * of one per request. Callers are only completed after the batch commits.
+ *
+ * An operation that throws rolls the batch back; it is failed on its own and
+ * the rest of the batch is replayed without it. If the commit itself fails,
+ * every operation of the batch is retried in its own transaction so that
+ * only the offending one reports the error.
+ *
+ * Batching only happens when app.wallet.concurrency-mode is ATOMIC. In the
+ * other modes an operation holds a FOR UPDATE row lock or an in-process
+ * wallet stripe until its transaction ends; a batch would take those locks
+ * in queue order and keep them until the last operation ran, deadlocking
+ * against transferBatch and bulk deposits, which lock wallets in id order.
+ * There the journal stays off and every operation commits on its own. An
+ * ATOMIC operation is a few single-row conditional updates; if one still
+ * loses a deadlock against a concurrent transaction, the batch is retried
+ * operation by operation as if its commit had failed.
+ */
+@Component
+public class TransactionJournal {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransactionJournal.class);
+
+  private final JournalProperties journalProperties;
+  private final WalletProperties walletProperties;
+  private final TransactionTemplate transactionTemplate;
+  private final BlockingQueue<Entry<?>> queue;
+  private final DistributionSummary batchSizes;
+  private final Counter commits;
+  private final Counter replays;
+
+  private volatile boolean running;
+  private Thread committer;
+
+  public TransactionJournal(JournalProperties journalProperties,
+      WalletProperties walletProperties,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.journalProperties = journalProperties;
+    this.walletProperties = walletProperties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.queue = new ArrayBlockingQueue<>(journalProperties.getQueueCapacity());
+    this.batchSizes = DistributionSummary.builder("journal.batch.size")
+        .description("Operations committed per journal transaction")
+        .register(meterRegistry);
+    this.commits = meterRegistry.counter("journal.commits");
+    this.replays = meterRegistry.counter("journal.replays");
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!journalProperties.getEnabled()) {
+      return;
+    }
+    if (walletProperties.getConcurrencyMode() != WalletProperties.ConcurrencyMode.ATOMIC) {
+      logger.warn("Transaction journal requires wallet concurrency mode ATOMIC, not {} - Committing operations individually",
+          walletProperties.getConcurrencyMode());
+      return;
+    }
+    running = true;
+    committer = new Thread(this::run, "transaction-journal");
+    committer.setDaemon(true);
+    committer.start();
+    logger.info("Transaction journal started - Batch size: {}, Linger: {} ms",
+        journalProperties.getBatchSize(), journalProperties.getLingerMillis());
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (committer == null) {
+      return;
+    }
+    running = false;
+    committer.join(TimeUnit.SECONDS.toMillis(30));
+    logger.info("Transaction journal stopped");
+  }
+
+  public boolean isEnabled() {
+    return running;
+  }
+
+  /**
+   * Runs the operation as part of the next journal batch and waits for the
+   * batch to commit. Runs it directly when the journal is not running or
+   * when called from within a batch.
+   */
+  public <T> T execute(Supplier<T> operation) {
+    if (!running || Thread.currentThread() == committer) {
+      return operation.get();
+    }
+
+    Entry<T> entry = new Entry<>(operation);
+    try {
+      queue.put(entry);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while enqueueing journal operation", e);
+    }
+
+    try {
+      return entry.future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private void run() {
+    List<Entry<?>> batch = new ArrayList<>(journalProperties.getBatchSize());
+    while (running || !queue.isEmpty()) {
+      try {
+        Entry<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        fill(batch);
+        commit(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        running = false;
+      } catch (Throwable t) {
+        logger.error("Transaction journal batch failed", t);
+        batch.forEach(entry -> entry.future.completeExceptionally(t));
+      } finally {
+        batch.clear();
+      }
+    }
+    queue.forEach(entry -> entry.future.completeExceptionally(
+        new IllegalStateException("Transaction journal stopped")));
+  }
+
+  private void fill(List<Entry<?>> batch) throws InterruptedException {
+    int batchSize = journalProperties.getBatchSize();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(journalProperties.getLingerMillis());
+    while (batch.size() < batchSize) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        queue.drainTo(batch, batchSize - batch.size());
+        return;
+      }
+      Entry<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void commit(List<Entry<?>> batch) {
+    List<Entry<?>> pending = new ArrayList<>(batch);
+    while (!pending.isEmpty()) {
+      Object[] results = new Object[pending.size()];
+      BatchFailure failure = new BatchFailure();
+
+      try {
+        transactionTemplate.executeWithoutResult(status -> {
+          for (int i = 0; i < pending.size(); i++) {
+            try {
+              results[i] = pending.get(i).operation.get();
+            } catch (PessimisticLockingFailureException e) {
+              throw e;
+            } catch (RuntimeException e) {
+              failure.index = i;
+              failure.cause = e;
+              status.setRollbackOnly();
+              return;
+            }
+          }
+        });
+      } catch (RuntimeException e) {
+        if (pending.size() == 1) {
+          pending.get(0).future.completeExceptionally(e);
+          return;
+        }
+        logger.warn("Journal commit of {} operations failed - Retrying individually", pending.size(), e);
+        replays.increment();
+        for (Entry<?> entry : pending) {
+          commit(List.of(entry));
+        }
+        return;
+      }
+
+      if (failure.cause != null) {
+        pending.remove(failure.index).future.completeExceptionally(failure.cause);
+        if (!pending.isEmpty()) {
+          replays.increment();
+        }
+        continue;
+      }
+
+      commits.increment();
+      batchSizes.record(pending.size());
+      for (int i = 0; i < pending.size(); i++) {
+        pending.get(i).complete(results[i]);
+      }
+      return;
+    }
+  }
+
+  private static final class BatchFailure {
+    private int index = -1;
+    private RuntimeException cause;
+  }
+
+  private static final class Entry<T> {
+    private final Supplier<T> operation;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private Entry(Supplier<T> operation) {
+      this.operation = operation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(Object result) {
+      future.complete((T) result);
+    }
+  }
+}
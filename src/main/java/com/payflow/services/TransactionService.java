@@ -1,12 +1,15 @@
 package com.payflow.services;
 
+import com.payflow.config.WalletProperties;
 import com.payflow.dto.v1.request.TransactionFilter;
+import com.payflow.entity.IdempotencyRecord;
 import com.payflow.entity.Transaction;
 import com.payflow.entity.Wallet;
 import com.payflow.entity.User;
 import com.payflow.repository.ITransactionRepository;
 import com.payflow.repository.IWalletRepository;
 import com.payflow.specification.TransactionSpecification;
+import com.payflow.value.Currency;
 import com.payflow.value.Money;
 
 import jakarta.transaction.Transactional;
@@ -17,7 +20,15 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,32 +39,85 @@ public class TransactionService {
 
   private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
 
+  private static final BigDecimal TRANSFER_FEE_RATE = new BigDecimal("0.015");
+
   private final ITransactionRepository transactionRepository;
   private final WalletService walletService;
   private final IWalletRepository walletRepository;
+  private final WalletLockManager walletLockManager;
+  private final IdempotencyCache idempotencyCache;
+  private final IdempotencyRecordStore idempotencyRecordStore;
+  private final WalletBalanceCache walletBalanceCache;
 
   public TransactionService(
       ITransactionRepository transactionRepository,
       WalletService walletService,
       IWalletRepository walletRepository,
-      UserService userService) {
+      UserService userService,
+      WalletLockManager walletLockManager,
+      IdempotencyCache idempotencyCache,
+      IdempotencyRecordStore idempotencyRecordStore,
+      WalletBalanceCache walletBalanceCache) {
     this.transactionRepository = transactionRepository;
     this.walletService = walletService;
     this.walletRepository = walletRepository;
+    this.walletLockManager = walletLockManager;
+    this.idempotencyCache = idempotencyCache;
+    this.idempotencyRecordStore = idempotencyRecordStore;
+    this.walletBalanceCache = walletBalanceCache;
   }
 
   private String generateTransactionId() {
     return "TXN-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
   }
 
-  private void validateAmount(BigDecimal amount) {
+  private void validateAmount(BigDecimal amount, String currency) {
+    String error = amountError(amount, currency);
+    if (error != null) {
+      throw new IllegalArgumentException(error);
+    }
+  }
+
+  /**
+   * Rejects amounts finer than the currency's minor unit, which Money would
+   * otherwise round, so the amount recorded is the amount applied.
+   */
+  private static String amountError(BigDecimal amount, String currency) {
     if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-      throw new IllegalArgumentException("Amount must be greater than zero");
+      return "Amount must be greater than zero";
     }
+    Currency unit = Currency.find(currency);
+    if (unit != null && amount.stripTrailingZeros().scale() > unit.getScale()) {
+      return String.format("Amount %s has more decimal places than %s allows (%d)",
+          amount.toPlainString(), unit.getCode(), unit.getScale());
+    }
+    return null;
   }
 
-  private Optional<Transaction> checkForDuplicateRequest(String idempotencyKey, String transactionType) {
-    Optional<Transaction> existingTransaction = transactionRepository.findByIdempotencyKey(idempotencyKey);
+  /**
+   * Looks the key up in the cache, then in the idempotency_keys table. A hit
+   * whose request hash differs from the current request is rejected with
+   * IdempotencyKeyReuseException rather than replayed.
+   */
+  private Optional<Transaction> checkForDuplicateRequest(String idempotencyKey, String transactionType,
+      String requestHash) {
+    Optional<Transaction> existingTransaction = Optional.empty();
+    Optional<IdempotencyCache.CachedTransaction> cached = idempotencyCache.get(idempotencyKey);
+    if (cached.isPresent()) {
+      idempotencyRecordStore.verify(idempotencyKey, cached.get().requestHash(), requestHash);
+      existingTransaction = Optional.of(cached.get().transaction());
+    } else {
+      if (idempotencyCache.isDefinitelyNew(idempotencyKey)) {
+        return Optional.empty();
+      }
+      Optional<IdempotencyRecord> record = idempotencyRecordStore.findActive(idempotencyKey);
+      if (record.isEmpty()) {
+        return Optional.empty();
+      }
+      idempotencyRecordStore.verify(idempotencyKey, record.get().getRequestHash(), requestHash);
+      existingTransaction = transactionRepository.findById(record.get().getResponseTransactionId());
+      existingTransaction.ifPresent(transaction -> idempotencyCache.put(transaction, record.get().getRequestHash()));
+    }
     if (existingTransaction.isPresent()) {
       logger.info("Duplicate {} request detected - Returning existing transaction with Idempotency Key: {}",
           transactionType, idempotencyKey);
@@ -61,32 +125,121 @@ public class TransactionService {
     return existingTransaction;
   }
 
+  static BigDecimal transferFee(BigDecimal amount) {
+    return amount.multiply(TRANSFER_FEE_RATE);
+  }
+
+  private boolean isAtomicMode() {
+    return walletLockManager.getMode() == WalletProperties.ConcurrencyMode.ATOMIC;
+  }
+
+  /**
+   * Applies both legs of a transfer as single-statement balance updates. The
+   * wallet_balances rows are touched in wallet id order so that opposite
+   * transfers cannot deadlock; a failed debit rolls back the credit with the
+   * surrounding transaction.
+   */
+  private void transferAtomically(User senderUser, Long senderWalletId, IWalletRepository.WalletSlots recipient,
+      Money totalDebit, Money convertedMoney) {
+    if (senderWalletId < recipient.getId()) {
+      debitForTransfer(senderUser, senderWalletId, totalDebit);
+      walletService.creditBalance(recipient.getId(), recipient.getBalanceSlots(), convertedMoney);
+    } else {
+      walletService.creditBalance(recipient.getId(), recipient.getBalanceSlots(), convertedMoney);
+      debitForTransfer(senderUser, senderWalletId, totalDebit);
+    }
+  }
+
+  private void debitForTransfer(User senderUser, Long senderWalletId, Money totalDebit) {
+    if (walletService.debitBalance(senderWalletId, totalDebit).isEmpty()) {
+      logger.warn("Transfer rejected - Insufficient balance including fee for Sender ID: {}. Required: {}",
+          senderUser.getId(), totalDebit);
+      throw new IllegalArgumentException("Insufficient balance for transfer (including fee)");
+    }
+  }
+
+  /**
+   * Credit legs to a sharded wallet skip the wallet lock entirely: the credit
+   * lands on a random balance slot, so hot recipients do not serialize every
+   * incoming payment. Only consulted when app.wallet.sharding-enabled is set.
+   */
+  private Optional<IWalletRepository.WalletSlots> findShardedWallet(Long userId) {
+    if (!walletService.isShardingEnabled()) {
+      return Optional.empty();
+    }
+    IWalletRepository.WalletSlots slots = walletService.getWalletSlotsByUserId(userId);
+    return slots.getBalanceSlots() > 1 ? Optional.of(slots) : Optional.empty();
+  }
+
+  /**
+   * Sharded wallets are never written through the entity, since concurrent
+   * slot credits would be overwritten by its collection update; their debits
+   * go through the conditional home slot UPDATE, which sweeps when needed.
+   */
+  private boolean debitLockedWallet(Wallet wallet, Money money) {
+    if (wallet.isSharded()) {
+      return walletService.debitBalance(wallet.getId(), money).isPresent();
+    }
+    if (!walletService.hasSufficientBalance(wallet, money)) {
+      return false;
+    }
+    walletService.subtractBalance(wallet, money);
+    return true;
+  }
+
+  private void creditLockedWallet(Wallet wallet, Money money) {
+    if (wallet.isSharded()) {
+      walletService.creditBalance(wallet.getId(), wallet.getBalanceSlots(), money);
+    } else {
+      walletService.addBalance(wallet, money);
+    }
+  }
+
+  private Wallet loadWalletForUpdate(Long userId, String notFoundMessage) {
+    Optional<Wallet> wallet = walletLockManager.requiresRowLock()
+        ? walletRepository.findByUserIdWithLock(userId)
+        : walletRepository.findByUserIdWithoutLock(userId);
+    return wallet.orElseThrow(() -> new IllegalArgumentException(notFoundMessage));
+  }
+
   public Transaction deposit(User user, String currency, BigDecimal amount, String idempotencyKey) {
     logger.info("Deposit initiated - User ID: {}, Currency: {}, Amount: {}, Idempotency Key: {}",
         user.getId(), currency, amount, idempotencyKey);
 
-    Optional<Transaction> existingTransaction = checkForDuplicateRequest(idempotencyKey, "deposit");
+    String requestHash = IdempotencyRecordStore.requestHash(Transaction.TransactionType.DEPOSIT, user.getId(),
+        currency, amount, null, null);
+    Optional<Transaction> existingTransaction = checkForDuplicateRequest(idempotencyKey, "deposit", requestHash);
     if (existingTransaction.isPresent()) {
       return existingTransaction.get();
     }
 
-    validateAmount(amount);
-
-    Wallet wallet = walletRepository.findByUserIdWithLock(user.getId())
-        .orElseThrow(() -> new IllegalArgumentException("Wallet not found for user"));
-    logger.debug("Wallet locked for deposit - Wallet ID: {}", wallet.getId());
+    validateAmount(amount, currency);
 
     String transactionId = generateTransactionId();
     Money money = Money.of(amount, currency);
 
-    walletService.addBalance(wallet, money);
+    Wallet wallet;
+    Optional<IWalletRepository.WalletSlots> sharded = isAtomicMode()
+        ? Optional.of(walletService.getWalletSlotsByUserId(user.getId()))
+        : findShardedWallet(user.getId());
+    if (sharded.isPresent()) {
+      IWalletRepository.WalletSlots slots = sharded.get();
+      walletService.creditBalance(slots.getId(), slots.getBalanceSlots(), money);
+      wallet = walletService.getWalletReference(slots.getId());
+    } else {
+      walletLockManager.lockForTransaction(user.getId());
+      wallet = loadWalletForUpdate(user.getId(), "Wallet not found for user");
+      logger.debug("Wallet locked for deposit - Wallet ID: {}", wallet.getId());
+
+      creditLockedWallet(wallet, money);
+    }
 
     Transaction transaction = Transaction.builder()
         .transactionId(transactionId)
         .wallet(wallet)
         .type(Transaction.TransactionType.DEPOSIT)
         .status(Transaction.TransactionStatus.COMPLETED)
-        .amount(amount)
+        .amount(money.getAmount())
         .currency(currency)
         .idempotencyKey(idempotencyKey)
         .createdAt(LocalDateTime.now())
@@ -94,6 +247,9 @@ public class TransactionService {
         .build();
 
     Transaction savedTransaction = transactionRepository.save(transaction);
+    idempotencyRecordStore.record(savedTransaction, requestHash);
+    idempotencyCache.put(savedTransaction, requestHash);
+    walletBalanceCache.evictAfterCommit(user.getId());
     logger.info("Deposit completed successfully - Transaction ID: {}, Amount: {} {}", transactionId, amount, currency);
 
     return savedTransaction;
@@ -103,33 +259,43 @@ public class TransactionService {
     logger.info("Withdrawal initiated - User ID: {}, Currency: {}, Amount: {}, Idempotency Key: {}",
         user.getId(), currency, amount, idempotencyKey);
 
-    Optional<Transaction> existingTransaction = checkForDuplicateRequest(idempotencyKey, "withdrawal");
+    String requestHash = IdempotencyRecordStore.requestHash(Transaction.TransactionType.WITHDRAWAL, user.getId(),
+        currency, amount, null, null);
+    Optional<Transaction> existingTransaction = checkForDuplicateRequest(idempotencyKey, "withdrawal", requestHash);
     if (existingTransaction.isPresent()) {
       return existingTransaction.get();
     }
 
-    validateAmount(amount);
-
-    Wallet wallet = walletRepository.findByUserIdWithLock(user.getId())
-        .orElseThrow(() -> new IllegalArgumentException("Wallet not found for user"));
-    logger.debug("Wallet locked for withdrawal - Wallet ID: {}", wallet.getId());
+    validateAmount(amount, currency);
 
     String transactionId = generateTransactionId();
     Money money = Money.of(amount, currency);
 
-    if (!walletService.hasSufficientBalance(wallet, money)) {
-      logger.warn("Withdrawal rejected - Insufficient balance for Wallet ID: {}", wallet.getId());
-      throw new IllegalArgumentException("Insufficient balance");
+    Wallet wallet;
+    if (isAtomicMode()) {
+      Long walletId = walletService.getWalletIdByUserId(user.getId());
+      if (walletService.debitBalance(walletId, money).isEmpty()) {
+        logger.warn("Withdrawal rejected - Insufficient balance for Wallet ID: {}", walletId);
+        throw new IllegalArgumentException("Insufficient balance");
+      }
+      wallet = walletService.getWalletReference(walletId);
+    } else {
+      walletLockManager.lockForTransaction(user.getId());
+      wallet = loadWalletForUpdate(user.getId(), "Wallet not found for user");
+      logger.debug("Wallet locked for withdrawal - Wallet ID: {}", wallet.getId());
+
+      if (!debitLockedWallet(wallet, money)) {
+        logger.warn("Withdrawal rejected - Insufficient balance for Wallet ID: {}", wallet.getId());
+        throw new IllegalArgumentException("Insufficient balance");
+      }
     }
 
-    walletService.subtractBalance(wallet, money);
-
     Transaction transaction = Transaction.builder()
         .transactionId(transactionId)
         .wallet(wallet)
         .type(Transaction.TransactionType.WITHDRAWAL)
         .status(Transaction.TransactionStatus.COMPLETED)
-        .amount(amount)
+        .amount(money.getAmount())
         .currency(currency)
         .idempotencyKey(idempotencyKey)
         .createdAt(LocalDateTime.now())
@@ -137,6 +303,9 @@ public class TransactionService {
         .build();
 
     Transaction savedTransaction = transactionRepository.save(transaction);
+    idempotencyRecordStore.record(savedTransaction, requestHash);
+    idempotencyCache.put(savedTransaction, requestHash);
+    walletBalanceCache.evictAfterCommit(user.getId());
     logger.info("Withdrawal completed successfully - Transaction ID: {}, Amount: {} {}", transactionId, amount,
         currency);
 
@@ -155,65 +324,86 @@ public class TransactionService {
         "Transfer initiated - Sender ID: {}, Recipient ID: {}, Amount: {} {}, Exchange Rate: {}, Idempotency Key: {}",
         senderUser.getId(), recipientUser.getId(), amount, senderCurrency, exchangeRate, idempotencyKey);
 
-    Optional<Transaction> existingTransaction = checkForDuplicateRequest(idempotencyKey, "transfer");
+    String requestHash = IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER,
+        senderUser.getId(), senderCurrency, amount, recipientUser.getId(), recipientCurrency);
+    Optional<Transaction> existingTransaction = checkForDuplicateRequest(idempotencyKey, "transfer", requestHash);
     if (existingTransaction.isPresent()) {
       return existingTransaction.get();
     }
 
-    validateAmount(amount);
+    validateAmount(amount, senderCurrency);
 
     if (senderUser.getId().equals(recipientUser.getId())) {
       logger.warn("Transfer rejected - Sender cannot transfer to themselves, User ID: {}", senderUser.getId());
       throw new IllegalArgumentException("Cannot transfer to yourself");
     }
 
-    Wallet senderWallet, recipientWallet;
-    if (senderUser.getId() < recipientUser.getId()) {
-      senderWallet = walletRepository.findByUserIdWithLock(senderUser.getId())
-          .orElseThrow(() -> new IllegalArgumentException("Sender wallet not found"));
-      recipientWallet = walletRepository.findByUserIdWithLock(recipientUser.getId())
-          .orElseThrow(() -> new IllegalArgumentException("Recipient wallet not found"));
-    } else {
-      recipientWallet = walletRepository.findByUserIdWithLock(recipientUser.getId())
-          .orElseThrow(() -> new IllegalArgumentException("Recipient wallet not found"));
-      senderWallet = walletRepository.findByUserIdWithLock(senderUser.getId())
-          .orElseThrow(() -> new IllegalArgumentException("Sender wallet not found"));
-    }
-    logger.debug("Both wallets locked for transfer - Sender Wallet ID: {}, Recipient Wallet ID: {}",
-        senderWallet.getId(), recipientWallet.getId());
-
     Money moneyAmount = Money.of(amount, senderCurrency);
-    BigDecimal fee = amount.multiply(new BigDecimal("0.015"));
+    BigDecimal fee = transferFee(amount);
     Money moneyFee = Money.of(fee, senderCurrency);
     Money totalDebit = moneyAmount.add(moneyFee);
     logger.debug("Transfer fee calculated - Amount: {}, Fee: {}, Total Debit: {}", moneyAmount, moneyFee, totalDebit);
 
-    if (!walletService.hasSufficientBalance(senderWallet, totalDebit)) {
-      logger.warn(
-          "Transfer rejected - Insufficient balance including fee for Sender ID: {}. Required: {}, Available: {}",
-          senderUser.getId(), totalDebit, walletService.getBalance(senderWallet, senderCurrency));
-      throw new IllegalArgumentException("Insufficient balance for transfer (including fee)");
-    }
-
-    String transactionId = generateTransactionId();
-    logger.debug("Transfer transaction ID generated: {}", transactionId);
-
-    walletService.subtractBalance(senderWallet, totalDebit);
-
     BigDecimal convertedAmount = amount.multiply(exchangeRate);
     Money convertedMoney = Money.of(convertedAmount, recipientCurrency);
     logger.debug("Amount converted - Original: {}, Converted: {}", moneyAmount, convertedMoney);
 
-    walletService.addBalance(recipientWallet, convertedMoney);
+    String transactionId = generateTransactionId();
+    logger.debug("Transfer transaction ID generated: {}", transactionId);
+
+    Wallet senderWallet;
+    Optional<IWalletRepository.WalletSlots> shardedRecipient = isAtomicMode()
+        ? Optional.empty()
+        : findShardedWallet(recipientUser.getId());
+    if (isAtomicMode()) {
+      Long senderWalletId = walletService.getWalletIdByUserId(senderUser.getId());
+      IWalletRepository.WalletSlots recipient = walletService.getWalletSlotsByUserId(recipientUser.getId());
+      transferAtomically(senderUser, senderWalletId, recipient, totalDebit, convertedMoney);
+      senderWallet = walletService.getWalletReference(senderWalletId);
+    } else if (shardedRecipient.isPresent()) {
+      walletLockManager.lockForTransaction(senderUser.getId());
+      senderWallet = loadWalletForUpdate(senderUser.getId(), "Sender wallet not found");
+      logger.debug("Sender wallet locked for transfer to sharded wallet - Sender Wallet ID: {}, Recipient Wallet ID: {}",
+          senderWallet.getId(), shardedRecipient.get().getId());
+
+      if (!debitLockedWallet(senderWallet, totalDebit)) {
+        logger.warn("Transfer rejected - Insufficient balance including fee for Sender ID: {}. Required: {}",
+            senderUser.getId(), totalDebit);
+        throw new IllegalArgumentException("Insufficient balance for transfer (including fee)");
+      }
+      IWalletRepository.WalletSlots recipient = shardedRecipient.get();
+      walletService.creditBalance(recipient.getId(), recipient.getBalanceSlots(), convertedMoney);
+    } else {
+      walletLockManager.lockForTransaction(senderUser.getId(), recipientUser.getId());
+
+      Wallet recipientWallet;
+      if (senderUser.getId() < recipientUser.getId()) {
+        senderWallet = loadWalletForUpdate(senderUser.getId(), "Sender wallet not found");
+        recipientWallet = loadWalletForUpdate(recipientUser.getId(), "Recipient wallet not found");
+      } else {
+        recipientWallet = loadWalletForUpdate(recipientUser.getId(), "Recipient wallet not found");
+        senderWallet = loadWalletForUpdate(senderUser.getId(), "Sender wallet not found");
+      }
+      logger.debug("Both wallets locked for transfer - Sender Wallet ID: {}, Recipient Wallet ID: {}",
+          senderWallet.getId(), recipientWallet.getId());
+
+      if (!debitLockedWallet(senderWallet, totalDebit)) {
+        logger.warn(
+            "Transfer rejected - Insufficient balance including fee for Sender ID: {}. Required: {}, Available: {}",
+            senderUser.getId(), totalDebit, walletService.getBalance(senderWallet, senderCurrency));
+        throw new IllegalArgumentException("Insufficient balance for transfer (including fee)");
+      }
+      creditLockedWallet(recipientWallet, convertedMoney);
+    }
 
     Transaction transaction = Transaction.builder()
         .transactionId(transactionId)
         .wallet(senderWallet)
         .type(Transaction.TransactionType.TRANSFER)
         .status(Transaction.TransactionStatus.COMPLETED)
-        .amount(amount)
+        .amount(moneyAmount.getAmount())
         .currency(senderCurrency)
-        .fee(fee)
+        .fee(moneyFee.getAmount())
         .recipientCurrency(recipientCurrency)
         .exchangeRate(exchangeRate)
         .recipientUser(recipientUser)
@@ -223,6 +413,9 @@ public class TransactionService {
         .build();
 
     Transaction savedTransaction = transactionRepository.save(transaction);
+    idempotencyRecordStore.record(savedTransaction, requestHash);
+    idempotencyCache.put(savedTransaction, requestHash);
+    walletBalanceCache.evictAfterCommit(senderUser.getId(), recipientUser.getId());
     logger.info(
         "Transfer completed successfully - Transaction ID: {}, Sender ID: {}, Recipient ID: {}, Amount: {} → {}",
         transactionId, senderUser.getId(), recipientUser.getId(), moneyAmount, convertedMoney);
@@ -230,6 +423,265 @@ public class TransactionService {
     return savedTransaction;
   }
 
+  /**
+   * Applies a batch of transfers from one sender in a single transaction.
+   *
+   * Items are keyed as idempotencyKey#index, so replaying a batch returns the
+   * transfers that already exist, whether or not their rate is still
+   * available. Items with an unknown recipient, a transfer to self, an
+   * amount finer than the currency's minor unit or a missing exchange rate
+   * are rejected individually; for the rest the sender's balance is checked
+   * once per currency against the sum of all debits, and the whole batch is
+   * rejected if it falls short. The sender is debited once per currency,
+   * and wallets are locked once each in ascending user id order, the same
+   * order single transfers use.
+   */
+  public List<BatchTransferResult> transferBatch(User senderUser, List<BatchTransferItem> items,
+      String idempotencyKey) {
+    logger.info("Batch transfer initiated - Sender ID: {}, Items: {}, Idempotency Key: {}",
+        senderUser.getId(), items.size(), idempotencyKey);
+
+    List<String> itemKeys = new ArrayList<>(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      itemKeys.add(idempotencyKey + "#" + i);
+    }
+    Map<String, IdempotencyRecord> records = idempotencyRecordStore.findActive(itemKeys);
+    Map<Long, Transaction> existing = new HashMap<>();
+    if (!records.isEmpty()) {
+      List<Long> ids = records.values().stream().map(IdempotencyRecord::getResponseTransactionId).toList();
+      for (Transaction transaction : transactionRepository.findAllById(ids)) {
+        existing.put(transaction.getId(), transaction);
+      }
+    }
+
+    BatchTransferResult[] results = new BatchTransferResult[items.size()];
+    List<PreparedTransfer> prepared = new ArrayList<>();
+    Map<String, Money> debitsByCurrency = new TreeMap<>();
+    for (int i = 0; i < items.size(); i++) {
+      BatchTransferItem item = items.get(i);
+      IdempotencyRecord record = records.get(itemKeys.get(i));
+      if (record != null && existing.containsKey(record.getResponseTransactionId())) {
+        idempotencyRecordStore.verify(itemKeys.get(i), record.getRequestHash(), batchItemHash(senderUser, item));
+        results[i] = BatchTransferResult.completed(item, existing.get(record.getResponseTransactionId()));
+        continue;
+      }
+      String rejection = validateBatchItem(senderUser, item);
+      if (rejection != null) {
+        results[i] = BatchTransferResult.rejected(item, rejection);
+        continue;
+      }
+
+      Money amount = Money.of(item.amount(), item.senderCurrency());
+      Money fee = Money.of(transferFee(item.amount()), item.senderCurrency());
+      Money totalDebit = amount.add(fee);
+      Money convertedMoney = Money.of(item.amount().multiply(item.exchangeRate()), item.recipientCurrency());
+      prepared.add(new PreparedTransfer(i, item, itemKeys.get(i), amount.getAmount(), fee.getAmount(),
+          convertedMoney));
+      debitsByCurrency.merge(item.senderCurrency(), totalDebit, Money::add);
+    }
+
+    if (!prepared.isEmpty()) {
+      prepared.sort(Comparator.comparing(transfer -> transfer.item().recipient().getId()));
+      Wallet senderWallet = isAtomicMode()
+          ? applyBatchAtomically(senderUser, prepared, debitsByCurrency)
+          : applyBatchLocked(senderUser, prepared, debitsByCurrency);
+
+      List<Transaction> transactions = new ArrayList<>(prepared.size());
+      for (PreparedTransfer transfer : prepared) {
+        transactions.add(Transaction.builder()
+            .transactionId(generateTransactionId())
+            .wallet(senderWallet)
+            .type(Transaction.TransactionType.TRANSFER)
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .amount(transfer.amount())
+            .currency(transfer.item().senderCurrency())
+            .fee(transfer.fee())
+            .recipientCurrency(transfer.item().recipientCurrency())
+            .exchangeRate(transfer.item().exchangeRate())
+            .recipientUser(transfer.item().recipient())
+            .idempotencyKey(transfer.idempotencyKey())
+            .createdAt(LocalDateTime.now())
+            .completedAt(LocalDateTime.now())
+            .build());
+      }
+      List<Transaction> saved = transactionRepository.saveAll(transactions);
+      for (int i = 0; i < saved.size(); i++) {
+        String requestHash = batchItemHash(senderUser, prepared.get(i).item());
+        idempotencyRecordStore.record(saved.get(i), requestHash);
+        idempotencyCache.put(saved.get(i), requestHash);
+      }
+      TreeSet<Long> changedUserIds = new TreeSet<>();
+      changedUserIds.add(senderUser.getId());
+      prepared.forEach(transfer -> changedUserIds.add(transfer.item().recipient().getId()));
+      walletBalanceCache.evictAfterCommit(changedUserIds);
+      for (int i = 0; i < prepared.size(); i++) {
+        results[prepared.get(i).index()] = BatchTransferResult.completed(prepared.get(i).item(), saved.get(i));
+      }
+    }
+
+    logger.info("Batch transfer completed - Sender ID: {}, Applied: {}, Replayed: {}, Rejected: {}",
+        senderUser.getId(), prepared.size(), existing.size(),
+        items.size() - prepared.size() - existing.size());
+    return List.of(results);
+  }
+
+  private static String batchItemHash(User senderUser, BatchTransferItem item) {
+    return IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER, senderUser.getId(),
+        item.senderCurrency(), item.amount(), item.recipient() != null ? item.recipient().getId() : null,
+        item.recipientCurrency());
+  }
+
+  private String validateBatchItem(User senderUser, BatchTransferItem item) {
+    if (item.recipient() == null) {
+      return "Recipient not found";
+    }
+    if (senderUser.getId().equals(item.recipient().getId())) {
+      return "Cannot transfer to yourself";
+    }
+    String amountError = amountError(item.amount(), item.senderCurrency());
+    if (amountError != null) {
+      return amountError;
+    }
+    if (item.exchangeRate() == null) {
+      return item.rateError() != null
+          ? item.rateError()
+          : String.format("Exchange rate not available for %s to %s",
+              item.senderCurrency(), item.recipientCurrency());
+    }
+    return null;
+  }
+
+  private Wallet applyBatchLocked(User senderUser, List<PreparedTransfer> prepared,
+      Map<String, Money> debitsByCurrency) {
+    Map<Long, IWalletRepository.WalletSlots> shardedRecipients = new HashMap<>();
+    TreeSet<Long> lockedUserIds = new TreeSet<>();
+    lockedUserIds.add(senderUser.getId());
+    for (PreparedTransfer transfer : prepared) {
+      Long recipientId = transfer.item().recipient().getId();
+      if (lockedUserIds.contains(recipientId) || shardedRecipients.containsKey(recipientId)) {
+        continue;
+      }
+      Optional<IWalletRepository.WalletSlots> sharded = findShardedWallet(recipientId);
+      if (sharded.isPresent()) {
+        shardedRecipients.put(recipientId, sharded.get());
+      } else {
+        lockedUserIds.add(recipientId);
+      }
+    }
+
+    walletLockManager.lockForTransaction(lockedUserIds.toArray(Long[]::new));
+    Map<Long, Wallet> wallets = new LinkedHashMap<>();
+    for (Long userId : lockedUserIds) {
+      String notFoundMessage = userId.equals(senderUser.getId())
+          ? "Sender wallet not found"
+          : "Recipient wallet not found";
+      wallets.put(userId, loadWalletForUpdate(userId, notFoundMessage));
+    }
+    Wallet senderWallet = wallets.get(senderUser.getId());
+    logger.debug("Wallets locked for batch transfer - Sender Wallet ID: {}, Locked: {}, Sharded recipients: {}",
+        senderWallet.getId(), wallets.size(), shardedRecipients.size());
+
+    for (Money totalDebit : debitsByCurrency.values()) {
+      if (!walletService.hasSufficientBalance(senderWallet, totalDebit)) {
+        logger.warn("Batch transfer rejected - Insufficient balance for Sender ID: {}. Required: {}, Available: {}",
+            senderUser.getId(), totalDebit, walletService.getBalance(senderWallet, totalDebit.getCurrency()));
+        throw new IllegalArgumentException("Insufficient balance for batch transfer (including fees)");
+      }
+    }
+    for (Money totalDebit : debitsByCurrency.values()) {
+      if (!debitLockedWallet(senderWallet, totalDebit)) {
+        throw new IllegalArgumentException("Insufficient balance for batch transfer (including fees)");
+      }
+    }
+
+    for (PreparedTransfer transfer : prepared) {
+      Long recipientId = transfer.item().recipient().getId();
+      IWalletRepository.WalletSlots sharded = shardedRecipients.get(recipientId);
+      if (sharded != null) {
+        walletService.creditBalance(sharded.getId(), sharded.getBalanceSlots(), transfer.convertedMoney());
+      } else {
+        creditLockedWallet(wallets.get(recipientId), transfer.convertedMoney());
+      }
+    }
+    return senderWallet;
+  }
+
+  /**
+   * Atomic mode: the sender's per-currency debits and the recipients' credits
+   * are applied wallet by wallet in ascending wallet id order, like
+   * transferAtomically.
+   */
+  private Wallet applyBatchAtomically(User senderUser, List<PreparedTransfer> prepared,
+      Map<String, Money> debitsByCurrency) {
+    Long senderWalletId = walletService.getWalletIdByUserId(senderUser.getId());
+    Map<Long, IWalletRepository.WalletSlots> recipients = new HashMap<>();
+    TreeMap<Long, List<PreparedTransfer>> creditsByWallet = new TreeMap<>();
+    for (PreparedTransfer transfer : prepared) {
+      IWalletRepository.WalletSlots recipient = recipients.computeIfAbsent(transfer.item().recipient().getId(),
+          walletService::getWalletSlotsByUserId);
+      creditsByWallet.computeIfAbsent(recipient.getId(), id -> new ArrayList<>()).add(transfer);
+    }
+
+    TreeSet<Long> walletIds = new TreeSet<>(creditsByWallet.keySet());
+    walletIds.add(senderWalletId);
+    for (Long walletId : walletIds) {
+      if (walletId.equals(senderWalletId)) {
+        for (Money totalDebit : debitsByCurrency.values()) {
+          debitForTransfer(senderUser, senderWalletId, totalDebit);
+        }
+        continue;
+      }
+      for (PreparedTransfer transfer : creditsByWallet.get(walletId)) {
+        IWalletRepository.WalletSlots recipient = recipients.get(transfer.item().recipient().getId());
+        walletService.creditBalance(walletId, recipient.getBalanceSlots(), transfer.convertedMoney());
+      }
+    }
+    return walletService.getWalletReference(senderWalletId);
+  }
+
+  /**
+   * One transfer of a batch. The recipient is null when it could not be
+   * found, the exchange rate when no rate exists for the currency pair or
+   * its quote could not be redeemed; rateError then says why, or is null for
+   * a pair without a rate.
+   */
+  public record BatchTransferItem(
+      User recipient,
+      String senderCurrency,
+      String recipientCurrency,
+      BigDecimal amount,
+      BigDecimal exchangeRate,
+      String rateError) {
+
+    public BatchTransferItem(User recipient, String senderCurrency, String recipientCurrency, BigDecimal amount,
+        BigDecimal exchangeRate) {
+      this(recipient, senderCurrency, recipientCurrency, amount, exchangeRate, null);
+    }
+  }
+
+  public record BatchTransferResult(BatchTransferItem item, Transaction transaction, String error) {
+
+    static BatchTransferResult completed(BatchTransferItem item, Transaction transaction) {
+      return new BatchTransferResult(item, transaction, null);
+    }
+
+    static BatchTransferResult rejected(BatchTransferItem item, String error) {
+      return new BatchTransferResult(item, null, error);
+    }
+
+    public boolean isCompleted() {
+      return transaction != null;
+    }
+  }
+
+  private record PreparedTransfer(int index, BatchTransferItem item, String idempotencyKey, BigDecimal amount,
+      BigDecimal fee, Money convertedMoney) {
+  }
+
+  public Optional<Transaction> getTransactionByIdempotencyKey(String idempotencyKey) {
+    return transactionRepository.findByIdempotencyKey(idempotencyKey);
+  }
+
   public Optional<Transaction> getTransactionById(String transactionId) {
     return transactionRepository.findByTransactionId(transactionId);
   }
@@ -15,11 +15,18 @@ import com.payflow.exception.DuplicateEmailException;
 import com.payflow.exception.UnauthorizedException;
 import com.payflow.repository.IRoleRepository;
 import com.payflow.repository.IUserRepository;
+import com.payflow.security.TokenRevocationList;
 import com.payflow.specification.UserSpecification;
 
 import jakarta.transaction.Transactional;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -29,20 +36,31 @@ import java.util.stream.Collectors;
 public class UserService {
 
   private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+  private static final int MAX_KNOWN_USER_IDS = 100_000;
 
   private final IUserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
   private final WalletService walletService;
   private final IRoleRepository roleRepository;
+  private final TokenRevocationList tokenRevocationList;
+  private final Set<Long> knownUserIds = Collections.synchronizedSet(Collections.newSetFromMap(
+      new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+          return size() > MAX_KNOWN_USER_IDS;
+        }
+      }));
 
   public UserService(IUserRepository userRepository,
       PasswordEncoder passwordEncoder,
       WalletService walletService,
-      IRoleRepository roleRepository) {
+      IRoleRepository roleRepository,
+      TokenRevocationList tokenRevocationList) {
     this.userRepository = userRepository;
     this.walletService = walletService;
     this.passwordEncoder = passwordEncoder;
     this.roleRepository = roleRepository;
+    this.tokenRevocationList = tokenRevocationList;
   }
 
   public User registerUser(String email, String password, String fullName) {
@@ -107,6 +125,43 @@ public class UserService {
         });
   }
 
+  /**
+   * Reference to an existing user for use as an association or for its id,
+   * without loading the row or its roles. Users are never deleted, so ids
+   * once confirmed to exist are remembered and cost no query afterwards.
+   */
+  @Transactional(Transactional.TxType.SUPPORTS)
+  public User getUserReference(Long userId) {
+    if (!knownUserIds.contains(userId)) {
+      if (userId == null || !userRepository.existsById(userId)) {
+        logger.warn("User not found with ID: {}", userId);
+        throw new IllegalArgumentException("User not found");
+      }
+      knownUserIds.add(userId);
+    }
+    return userRepository.getReferenceById(userId);
+  }
+
+  /**
+   * References to the users among the ids that exist, looked up with at most
+   * one query for the ids not seen before. Missing ids are left out.
+   */
+  @Transactional(Transactional.TxType.SUPPORTS)
+  public Map<Long, User> getUserReferences(Collection<Long> userIds) {
+    logger.debug("Fetching {} user references by ID", userIds.size());
+    List<Long> unknown = userIds.stream().filter(id -> !knownUserIds.contains(id)).toList();
+    if (!unknown.isEmpty()) {
+      knownUserIds.addAll(userRepository.findExistingIds(unknown));
+    }
+    Map<Long, User> users = new HashMap<>();
+    for (Long userId : userIds) {
+      if (knownUserIds.contains(userId)) {
+        users.put(userId, userRepository.getReferenceById(userId));
+      }
+    }
+    return users;
+  }
+
   public boolean emailExists(String email) {
     logger.debug("Checking if email exists: {}", email);
     boolean exists = userRepository.existsByEmail(email);
@@ -114,6 +169,12 @@ public class UserService {
     return exists;
   }
 
+  /**
+   * Runs without a transaction so no connection is held while the password
+   * is hashed. A password stored with a different BCrypt cost than the one
+   * configured is rehashed on successful login.
+   */
+  @Transactional(Transactional.TxType.SUPPORTS)
   public User authenticate(String email, String password) {
     logger.info("Authentication attempt for email: {}", email);
 
@@ -128,6 +189,17 @@ public class UserService {
       throw new UnauthorizedException("Invalid credentials");
     }
 
+    if (!Boolean.TRUE.equals(user.getEnabled())) {
+      logger.warn("Authentication failed: user disabled for email: {}", email);
+      throw new UnauthorizedException("Invalid credentials");
+    }
+
+    if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+      user.setPassword(passwordEncoder.encode(password));
+      user = userRepository.save(user);
+      logger.info("Password rehashed with current cost for user ID: {}", user.getId());
+    }
+
     logger.info("Authentication successful for user ID: {}, email: {}", user.getId(), email);
     return user;
   }
@@ -149,6 +221,7 @@ public class UserService {
         });
     user.setEnabled(false);
     userRepository.save(user);
+    tokenRevocationList.revokeUser(userId);
     logger.info("Disabled user with id: {}", userId);
   }
 
@@ -0,0 +1,164 @@
+package com.payflow.services;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.payflow.config.WalletProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read-through cache of wallet balances for the GET /wallets/me endpoints,
+ * used when app.wallet.balance-read-mode is CACHED.
+ *
+ * Snapshots are kept per user in a bounded LRU map with a time-to-live.
+ * TransactionService evicts the wallets it changed once the change commits,
+ * so this node never serves a balance older than its own last commit. A
+ * load that raced with such an eviction is not cached: every eviction stamps
+ * a sequence number on the user's stripe, and a snapshot read before that
+ * stamp is dropped instead of stored. Changes committed by other nodes show
+ * up when the entry expires.
+ */
+@Component
+public class WalletBalanceCache {
+
+  private static final int EVICTION_STRIPES = 1024;
+
+  private final WalletProperties walletProperties;
+  private final Clock clock;
+  private final Map<Long, CachedWallet> entries;
+  private final long[] evictedAt = new long[EVICTION_STRIPES];
+  private long sequence;
+
+  private final Counter hits;
+  private final Counter misses;
+
+  public WalletBalanceCache(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+    this(walletProperties, meterRegistry, Clock.systemUTC());
+  }
+
+  WalletBalanceCache(WalletProperties walletProperties, MeterRegistry meterRegistry, Clock clock) {
+    this.walletProperties = walletProperties;
+    this.clock = clock;
+
+    int maxEntries = walletProperties.getBalanceCacheMaxEntries();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, CachedWallet> eldest) {
+        return size() > maxEntries;
+      }
+    };
+
+    this.hits = meterRegistry.counter("wallet.balance.cache", "result", "hit");
+    this.misses = meterRegistry.counter("wallet.balance.cache", "result", "miss");
+    meterRegistry.gauge("wallet.balance.cache.size", this, WalletBalanceCache::size);
+    meterRegistry.gauge("wallet.balance.cache.hit.ratio", this, WalletBalanceCache::hitRatio);
+  }
+
+  public boolean isEnabled() {
+    return walletProperties.getBalanceReadMode() == WalletProperties.BalanceReadMode.CACHED;
+  }
+
+  public Optional<WalletSnapshot> get(Long userId) {
+    CachedWallet cached;
+    synchronized (entries) {
+      cached = entries.get(userId);
+      if (cached != null && cached.expiresAt() <= clock.millis()) {
+        entries.remove(userId);
+        cached = null;
+      }
+    }
+    if (cached == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+    hits.increment();
+    return Optional.of(cached.snapshot());
+  }
+
+  /**
+   * Called before reading a wallet from the database.
+   *
+   * @return the token to hand to {@link #put} with the snapshot read
+   */
+  public long beginLoad() {
+    synchronized (entries) {
+      return sequence;
+    }
+  }
+
+  /**
+   * Caches the snapshot unless a balance change of its user committed since
+   * {@link #beginLoad} returned the token, in which case it may be stale.
+   */
+  public void put(long loadToken, WalletSnapshot snapshot) {
+    long expiresAt = clock.millis() + TimeUnit.SECONDS.toMillis(walletProperties.getBalanceCacheTtlSeconds());
+    synchronized (entries) {
+      if (evictedAt[stripe(snapshot.userId())] > loadToken) {
+        return;
+      }
+      entries.put(snapshot.userId(), new CachedWallet(snapshot, expiresAt));
+    }
+  }
+
+  /**
+   * Evicts the users' wallets once the surrounding transaction commits, or
+   * right away outside of one. A rolled back change leaves the cache alone.
+   */
+  public void evictAfterCommit(Long... userIds) {
+    evictAfterCommit(List.of(userIds));
+  }
+
+  public void evictAfterCommit(Iterable<Long> userIds) {
+    if (!isEnabled()) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          evict(userIds);
+        }
+      });
+    } else {
+      evict(userIds);
+    }
+  }
+
+  private void evict(Iterable<Long> userIds) {
+    synchronized (entries) {
+      sequence++;
+      for (Long userId : userIds) {
+        entries.remove(userId);
+        evictedAt[stripe(userId)] = sequence;
+      }
+    }
+  }
+
+  private static int stripe(Long userId) {
+    return Long.hashCode(userId) & (EVICTION_STRIPES - 1);
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private double hitRatio() {
+    double total = hits.count() + misses.count();
+    return total == 0 ? 0.0 : hits.count() / total;
+  }
+
+  private record CachedWallet(WalletSnapshot snapshot, long expiresAt) {
+  }
+}
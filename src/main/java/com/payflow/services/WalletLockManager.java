@@ -0,0 +1,164 @@
+package com.payflow.services;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.payflow.config.WalletProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * In-process ledger lock used when app.wallet.concurrency-mode is IN_PROCESS.
+ *
+ * Wallets are hashed onto a fixed table of striped locks. Stripes are keyed by
+ * the owning user id: wallets are one-to-one with users, and it is the only
+ * identifier TransactionService holds before the wallet row is read. Stripes
+ * are always acquired in ascending index order so two transfers touching the
+ * same pair of wallets can never deadlock, and they are held until the
+ * surrounding transaction completes so no other thread can observe the wallet
+ * before the balance change is committed.
+ */
+@Component
+public class WalletLockManager {
+
+  private static final Logger logger = LoggerFactory.getLogger(WalletLockManager.class);
+
+  private final WalletProperties walletProperties;
+  private final MeterRegistry meterRegistry;
+  private final ReentrantLock[] stripes;
+  private final int mask;
+  private final Timer waitTimer;
+
+  public WalletLockManager(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+    this.walletProperties = walletProperties;
+    this.meterRegistry = meterRegistry;
+
+    int requested = walletProperties.getLockStripes();
+    int size = Integer.highestOneBit(requested);
+    if (size < requested) {
+      size <<= 1;
+    }
+    this.stripes = new ReentrantLock[size];
+    for (int i = 0; i < size; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+    this.mask = size - 1;
+    this.waitTimer = Timer.builder("wallet.lock.wait")
+        .description("Time spent waiting for in-process wallet lock stripes")
+        .register(meterRegistry);
+  }
+
+  public WalletProperties.ConcurrencyMode getMode() {
+    return walletProperties.getConcurrencyMode();
+  }
+
+  public boolean isEnabled() {
+    return walletProperties.getConcurrencyMode() == WalletProperties.ConcurrencyMode.IN_PROCESS;
+  }
+
+  /**
+   * Whether wallets must still be read with SELECT ... FOR UPDATE. Always true
+   * in PESSIMISTIC mode and never in OPTIMISTIC or ATOMIC mode; in IN_PROCESS
+   * mode the row lock is only kept for cross-node safety when
+   * app.wallet.row-lock-fallback is set.
+   */
+  public boolean requiresRowLock() {
+    return switch (walletProperties.getConcurrencyMode()) {
+      case PESSIMISTIC -> true;
+      case IN_PROCESS -> walletProperties.getRowLockFallback();
+      case OPTIMISTIC, ATOMIC -> false;
+    };
+  }
+
+  public int stripeCount() {
+    return stripes.length;
+  }
+
+  int stripeFor(long userId) {
+    long h = userId * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  /**
+   * Lock the stripes of the given wallet owners until the current transaction
+   * completes. Does nothing unless the in-process mode is enabled.
+   *
+   * @throws CannotAcquireLockException if a stripe is not obtained within
+   *                                    app.wallet.lock-timeout-millis
+   */
+  public void lockForTransaction(Long... userIds) {
+    if (!isEnabled()) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("In-process wallet locks require an active transaction");
+    }
+
+    int[] ordered = Arrays.stream(userIds)
+        .mapToInt(this::stripeFor)
+        .distinct()
+        .sorted()
+        .toArray();
+
+    int acquired = 0;
+    try {
+      for (int stripe : ordered) {
+        acquire(stripe);
+        acquired++;
+      }
+    } finally {
+      if (acquired < ordered.length) {
+        release(ordered, acquired);
+      }
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        release(ordered, ordered.length);
+      }
+    });
+  }
+
+  private void acquire(int stripe) {
+    ReentrantLock lock = stripes[stripe];
+    if (lock.tryLock()) {
+      return;
+    }
+
+    meterRegistry.counter("wallet.lock.contended", "stripe", String.valueOf(stripe)).increment();
+    logger.debug("Wallet lock stripe {} contended - Queue length: {}", stripe, lock.getQueueLength());
+
+    long start = System.nanoTime();
+    boolean locked;
+    try {
+      locked = lock.tryLock(walletProperties.getLockTimeoutMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CannotAcquireLockException("Interrupted while waiting for wallet lock", e);
+    } finally {
+      waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    if (!locked) {
+      logger.warn("Timed out waiting for wallet lock stripe {} after {} ms", stripe,
+          walletProperties.getLockTimeoutMillis());
+      throw new CannotAcquireLockException("Timed out waiting for wallet lock");
+    }
+  }
+
+  private void release(int[] ordered, int count) {
+    for (int i = count - 1; i >= 0; i--) {
+      stripes[ordered[i]].unlock();
+    }
+  }
+}
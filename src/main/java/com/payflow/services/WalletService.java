@@ -1,5 +1,8 @@
 package com.payflow.services;
 
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -7,7 +10,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import com.payflow.config.WalletProperties;
 import com.payflow.dto.v1.request.WalletFilter;
+import com.payflow.entity.BalanceSlot;
 import com.payflow.entity.User;
 import com.payflow.entity.Wallet;
 import com.payflow.repository.IWalletRepository;
@@ -16,6 +21,8 @@ import com.payflow.value.Money;
 
 import jakarta.transaction.Transactional;
 
+import java.math.BigDecimal;
+
 @Service
 @Transactional
 public class WalletService {
@@ -23,9 +30,18 @@ public class WalletService {
   private static final Logger logger = LoggerFactory.getLogger(WalletService.class);
 
   private final IWalletRepository walletRepository;
+  private final WalletProperties walletProperties;
+  private final WalletBalanceCache balanceCache;
 
-  public WalletService(IWalletRepository walletRepository) {
+  public WalletService(IWalletRepository walletRepository, WalletProperties walletProperties,
+      WalletBalanceCache balanceCache) {
     this.walletRepository = walletRepository;
+    this.walletProperties = walletProperties;
+    this.balanceCache = balanceCache;
+  }
+
+  public boolean isShardingEnabled() {
+    return walletProperties.getShardingEnabled();
   }
 
   public Wallet createWalletForUser(User user) {
@@ -56,6 +72,107 @@ public class WalletService {
         });
   }
 
+  /**
+   * Balances of the user's wallet as returned by GET /wallets/me. With
+   * app.wallet.balance-read-mode CACHED they come from WalletBalanceCache
+   * when present; otherwise the wallet is read from the database, without
+   * opening a transaction of its own on the cached path.
+   */
+  @Transactional(Transactional.TxType.SUPPORTS)
+  public WalletSnapshot getWalletSnapshot(Long userId) {
+    if (!balanceCache.isEnabled()) {
+      return WalletSnapshot.of(userId, getWalletByUserIdReadOnly(userId));
+    }
+    Optional<WalletSnapshot> cached = balanceCache.get(userId);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    long loadToken = balanceCache.beginLoad();
+    WalletSnapshot snapshot = WalletSnapshot.of(userId, getWalletByUserIdReadOnly(userId));
+    balanceCache.put(loadToken, snapshot);
+    return snapshot;
+  }
+
+  public Long getWalletIdByUserId(Long userId) {
+    return walletRepository.findIdByUserId(userId)
+        .orElseThrow(() -> {
+          logger.warn("Wallet not found for user ID: {}", userId);
+          return new IllegalArgumentException("Wallet not found for user");
+        });
+  }
+
+  public IWalletRepository.WalletSlots getWalletSlotsByUserId(Long userId) {
+    return walletRepository.findSlotsByUserId(userId)
+        .orElseThrow(() -> {
+          logger.warn("Wallet not found for user ID: {}", userId);
+          return new IllegalArgumentException("Wallet not found for user");
+        });
+  }
+
+  public Wallet getWalletReference(Long walletId) {
+    return walletRepository.getReferenceById(walletId);
+  }
+
+  /** Reference to the user's wallet, resolved with an id-only query. */
+  public Wallet getWalletReferenceByUserId(Long userId) {
+    return walletRepository.getReferenceById(getWalletIdByUserId(userId));
+  }
+
+  /**
+   * Atomic fast path: credits the wallet with a single UPSERT on
+   * wallet_balances, without loading the Wallet entity or locking its row.
+   * Sharded wallets are credited on a random non-home slot so concurrent
+   * credits to the same wallet rarely touch the same row.
+   *
+   * @return the balance of the credited slot after the credit
+   */
+  public Money creditBalance(Long walletId, int balanceSlots, Money amount) {
+    if (walletId == null) {
+      throw new IllegalArgumentException("Wallet ID cannot be null");
+    }
+    if (amount == null) {
+      throw new IllegalArgumentException("Amount cannot be null");
+    }
+    int slot = balanceSlots > 1 ? ThreadLocalRandom.current().nextInt(1, balanceSlots) : BalanceSlot.HOME_SLOT;
+    logger.debug("Crediting balance atomically - Wallet ID: {}, Slot: {}, Money: {}", walletId, slot, amount);
+    BigDecimal newBalance = walletRepository.creditBalance(walletId, amount.getCurrency(), slot, amount.getAmount());
+    logger.debug("Balance credited successfully - Wallet ID: {}, New balance: {}", walletId, newBalance);
+    return Money.of(newBalance, amount.getCurrency());
+  }
+
+  /**
+   * Atomic fast path: debits the wallet with a single conditional UPDATE on
+   * the home slot that only matches while the balance stays non-negative.
+   * When the home slot falls short, the other slots are swept into it and
+   * the debit is attempted once more.
+   *
+   * @return the home slot balance after the debit, or empty if the balance
+   *         is insufficient (in which case only a sweep may have happened)
+   */
+  public Optional<Money> debitBalance(Long walletId, Money amount) {
+    if (walletId == null) {
+      throw new IllegalArgumentException("Wallet ID cannot be null");
+    }
+    if (amount == null) {
+      throw new IllegalArgumentException("Amount cannot be null");
+    }
+    logger.debug("Debiting balance atomically - Wallet ID: {}, Money: {}", walletId, amount);
+    Optional<BigDecimal> debited = walletRepository.debitBalance(walletId, amount.getCurrency(), amount.getAmount());
+    if (debited.isEmpty()) {
+      BigDecimal swept = walletRepository.sweepBalance(walletId, amount.getCurrency());
+      if (swept.compareTo(amount.getAmount()) >= 0) {
+        logger.debug("Swept balance slots - Wallet ID: {}, Home balance: {}", walletId, swept);
+        debited = walletRepository.debitBalance(walletId, amount.getCurrency(), amount.getAmount());
+      }
+    }
+    Optional<Money> newBalance = debited.map(balance -> Money.of(balance, amount.getCurrency()));
+    if (newBalance.isEmpty()) {
+      logger.warn("Insufficient balance - Wallet ID: {}, Currency: {}, Required: {}",
+          walletId, amount.getCurrency(), amount);
+    }
+    return newBalance;
+  }
+
   public Money getBalance(Wallet wallet, String currency) {
     if (wallet == null) {
       throw new IllegalArgumentException("Wallet cannot be null");
@@ -116,6 +233,32 @@ public class WalletService {
     logger.debug("Balance subtracted successfully - New balance: {}", wallet.getBalance(amount.getCurrency()));
   }
 
+  /**
+   * Changes how many balance slots the wallet spreads each currency across.
+   * Going back to a single slot sweeps every currency into its home slot.
+   */
+  public Wallet updateBalanceSlots(Long walletId, int balanceSlots) {
+    if (balanceSlots < 1 || balanceSlots > walletProperties.getMaxBalanceSlots()) {
+      throw new IllegalArgumentException(
+          "Balance slots must be between 1 and " + walletProperties.getMaxBalanceSlots());
+    }
+    Wallet wallet = walletRepository.findByIdWithLock(walletId)
+        .orElseThrow(() -> {
+          logger.warn("Wallet not found - Wallet ID: {}", walletId);
+          return new IllegalArgumentException("Wallet not found");
+        });
+    if (balanceSlots == 1) {
+      for (String currency : wallet.getBalances().keySet()) {
+        walletRepository.sweepBalance(walletId, currency);
+      }
+    }
+    wallet.setBalanceSlots(balanceSlots);
+    Wallet saved = walletRepository.save(wallet);
+    balanceCache.evictAfterCommit(wallet.getUser().getId());
+    logger.info("Balance slots updated - Wallet ID: {}, Slots: {}", walletId, balanceSlots);
+    return saved;
+  }
+
   public Page<Wallet> getWallets(WalletFilter filter, Pageable pageable) {
     logger.info("Getting wallets with filters: userId={}, currency={}, fromDate={}, toDate={}",
         filter.userId(), filter.currency(), filter.fromDate(), filter.toDate());
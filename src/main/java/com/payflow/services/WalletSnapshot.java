@@ -0,0 +1,39 @@
+package com.payflow.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.payflow.entity.Wallet;
+import com.payflow.value.Currency;
+import com.payflow.value.Money;
+
+/**
+ * Immutable copy of what the GET /wallets/me endpoints return for a wallet:
+ * its ids, timestamps and the per-currency totals of its balance slots.
+ * Detached from the persistence context, so it can be cached.
+ */
+public record WalletSnapshot(
+    Long walletId,
+    Long userId,
+    Map<String, BigDecimal> balances,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt) {
+
+  public static WalletSnapshot of(Long userId, Wallet wallet) {
+    return new WalletSnapshot(wallet.getId(), userId, Map.copyOf(wallet.getBalances()),
+        wallet.getCreatedAt(), wallet.getUpdatedAt());
+  }
+
+  /**
+   * Same result as Wallet.getBalance: zero for a currency the wallet holds
+   * nothing in.
+   *
+   * @throws IllegalArgumentException if the code is blank or not a
+   *                                  registered ISO-4217 code
+   */
+  public Money getBalance(String currency) {
+    Currency unit = Currency.of(currency);
+    return Money.of(balances.getOrDefault(unit.getCode(), BigDecimal.ZERO), unit.getCode());
+  }
+}
@@ -1,6 +1,7 @@
 package com.payflow.specification;
 
 import com.payflow.dto.v1.request.WalletFilter;
+import com.payflow.entity.BalanceSlot;
 import com.payflow.entity.Wallet;
 import jakarta.persistence.criteria.MapJoin;
 import jakarta.persistence.criteria.Predicate;
@@ -22,8 +23,11 @@ public class WalletSpecification {
       }
 
       if (filter.currency() != null && !filter.currency().isBlank()) {
-        MapJoin<Wallet, String, BigDecimal> balancesJoin = root.joinMap(Wallet.Fields.BALANCES);
-        predicates.add(criteriaBuilder.equal(balancesJoin.key(), filter.currency()));
+        // Sharded wallets have one row per slot, so the join needs distinct
+        MapJoin<Wallet, BalanceSlot, BigDecimal> balancesJoin = root.joinMap(Wallet.Fields.BALANCES);
+        predicates.add(criteriaBuilder.equal(
+            balancesJoin.key().get(BalanceSlot.Fields.CURRENCY), filter.currency()));
+        query.distinct(true);
       }
 
       if (filter.fromDate() != null) {
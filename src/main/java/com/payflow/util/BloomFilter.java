@@ -0,0 +1,110 @@
+package com.payflow.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings and longs. mightContain never
+ * returns false for a key that was added; it returns true for a key that was
+ * not added with roughly the configured false positive rate once
+ * expectedInsertions keys have been added.
+ */
+public class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Expected insertions must be positive");
+    }
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+    }
+    long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+    this.bits = new AtomicLongArray(words);
+    this.bitCount = (long) words * 64;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+  }
+
+  public void put(String key) {
+    setBits(hash(key));
+  }
+
+  public void put(long key) {
+    setBits(mix(key));
+  }
+
+  public boolean mightContain(String key) {
+    return allBitsSet(hash(key));
+  }
+
+  public boolean mightContain(long key) {
+    return allBitsSet(mix(key));
+  }
+
+  private void setBits(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+      int word = (int) (index >>> 6);
+      long mask = 1L << index;
+      long current;
+      do {
+        current = bits.get(word);
+        if ((current & mask) != 0) {
+          break;
+        }
+      } while (!bits.compareAndSet(word, current, current | mask));
+    }
+  }
+
+  private boolean allBitsSet(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public void clear() {
+    for (int i = 0; i < bits.length(); i++) {
+      bits.set(i, 0L);
+    }
+  }
+
+  public long bitSize() {
+    return bitCount;
+  }
+
+  public int hashFunctions() {
+    return hashCount;
+  }
+
+  /** 64-bit FNV-1a over the UTF-8 bytes, finished with the murmur3 mixer. */
+  private static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b;
+      h *= 0x100000001b3L;
+    }
+    return mix(h);
+  }
+
+  /** murmur3 64-bit finalizer. */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,239 @@
+package com.payflow.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe map from primitive long keys to values, holding at most
+ * maxEntries entries and dropping entries not read for idleTimeout.
+ *
+ * Keys are kept unboxed in open-addressed arrays, split into independently
+ * locked stripes. Idle entries are swept from a stripe when it is written
+ * to, at most every half idleTimeout; when a stripe is full, the least
+ * recently read of a few sampled entries makes room if it is idle.
+ * Otherwise the new key is rejected rather than pushing out an entry still
+ * in use, so a burst of new keys cannot displace the entries of existing
+ * ones; the cost is that new keys are turned away until entries go idle.
+ */
+public class IdleEvictingLongMap<V> {
+
+  private static final int MAX_STRIPES = 16;
+  private static final int EVICTION_SAMPLES = 8;
+
+  private final Stripe[] stripes;
+  private final long idleNanos;
+  private final LongSupplier nanoTime;
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+
+  public IdleEvictingLongMap(int maxEntries, Duration idleTimeout) {
+    this(maxEntries, idleTimeout, System::nanoTime);
+  }
+
+  @SuppressWarnings("unchecked")
+  IdleEvictingLongMap(int maxEntries, Duration idleTimeout, LongSupplier nanoTime) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Max entries must be positive");
+    }
+    if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+      throw new IllegalArgumentException("Idle timeout must be positive");
+    }
+    this.idleNanos = idleTimeout.toNanos();
+    this.nanoTime = nanoTime;
+    int stripeCount = Integer.highestOneBit(Math.min(MAX_STRIPES, maxEntries));
+    this.stripes = new IdleEvictingLongMap.Stripe[stripeCount];
+    long now = nanoTime.getAsLong();
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(maxEntries / stripeCount, now);
+    }
+  }
+
+  /**
+   * The value for the key, created by factory if there is none, or null if
+   * the key is new and its stripe is full of entries that are not idle.
+   */
+  @SuppressWarnings("unchecked")
+  public V computeIfAbsent(long key, LongFunction<? extends V> factory) {
+    long hash = mix(key);
+    return (V) stripeFor(hash).computeIfAbsent(key, hash, factory, nanoTime.getAsLong());
+  }
+
+  /** The value for the key, or null; counts as a read for idle eviction. */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    long hash = mix(key);
+    return (V) stripeFor(hash).get(key, hash, nanoTime.getAsLong());
+  }
+
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  /** Idle entries removed so far, by a sweep or to make room. */
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  /** New keys turned away so far because their stripe was full. */
+  public long rejections() {
+    return rejections.sum();
+  }
+
+  private Stripe stripeFor(long hash) {
+    return stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+  }
+
+  /** murmur3 64-bit finalizer. */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /** Linear-probing table at most half full; a null value marks a free slot. */
+  private final class Stripe {
+    private final int maxSize;
+    private final int mask;
+    private final long[] keys;
+    private final Object[] values;
+    private final long[] lastRead;
+    private int size;
+    private long lastSweep;
+
+    private Stripe(int maxSize, long now) {
+      int capacity = Integer.highestOneBit(maxSize * 2 - 1) << 1;
+      this.maxSize = maxSize;
+      this.mask = capacity - 1;
+      this.keys = new long[capacity];
+      this.values = new Object[capacity];
+      this.lastRead = new long[capacity];
+      this.lastSweep = now;
+    }
+
+    private synchronized Object get(long key, long hash, long now) {
+      int slot = find(key, hash);
+      if (slot < 0) {
+        return null;
+      }
+      lastRead[slot] = now;
+      return values[slot];
+    }
+
+    private synchronized Object computeIfAbsent(long key, long hash, LongFunction<?> factory, long now) {
+      int slot = find(key, hash);
+      if (slot >= 0) {
+        lastRead[slot] = now;
+        return values[slot];
+      }
+      if (now - lastSweep >= idleNanos / 2) {
+        sweep(now);
+      }
+      if (size >= maxSize && !evictSampled(now)) {
+        rejections.increment();
+        return null;
+      }
+
+      Object value = factory.apply(key);
+      slot = (int) hash & mask;
+      while (values[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      values[slot] = value;
+      lastRead[slot] = now;
+      size++;
+      return value;
+    }
+
+    private synchronized int size() {
+      return size;
+    }
+
+    private int find(long key, long hash) {
+      int slot = (int) hash & mask;
+      while (values[slot] != null) {
+        if (keys[slot] == key) {
+          return slot;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    /**
+     * Removes every idle entry. Starts after a free slot, which removals
+     * never fill, and re-examines a slot after removing from it because
+     * removeAt may have shifted a later entry into it.
+     */
+    private void sweep(long now) {
+      lastSweep = now;
+      if (size == 0) {
+        return;
+      }
+      int start = 0;
+      while (values[start] != null) {
+        start = (start + 1) & mask;
+      }
+      int slot = (start + 1) & mask;
+      while (slot != start) {
+        if (values[slot] != null && now - lastRead[slot] >= idleNanos) {
+          removeAt(slot);
+          evictions.increment();
+        } else {
+          slot = (slot + 1) & mask;
+        }
+      }
+    }
+
+    /**
+     * Approximate LRU: removes the oldest of the next few entries from a
+     * random slot if it is idle, and reports whether it did.
+     */
+    private boolean evictSampled(long now) {
+      int slot = ThreadLocalRandom.current().nextInt(keys.length);
+      int victim = -1;
+      for (int sampled = 0; sampled < EVICTION_SAMPLES && sampled < size; slot = (slot + 1) & mask) {
+        if (values[slot] != null) {
+          if (victim < 0 || lastRead[slot] - lastRead[victim] < 0) {
+            victim = slot;
+          }
+          sampled++;
+        }
+      }
+      if (now - lastRead[victim] < idleNanos) {
+        return false;
+      }
+      removeAt(victim);
+      evictions.increment();
+      return true;
+    }
+
+    /** Backward-shift deletion, so lookups never need tombstones. */
+    private void removeAt(int slot) {
+      int hole = slot;
+      int next = (slot + 1) & mask;
+      while (values[next] != null) {
+        int home = (int) mix(keys[next]) & mask;
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          keys[hole] = keys[next];
+          values[hole] = values[next];
+          lastRead[hole] = lastRead[next];
+          hole = next;
+        }
+        next = (next + 1) & mask;
+      }
+      values[hole] = null;
+      size--;
+    }
+  }
+}
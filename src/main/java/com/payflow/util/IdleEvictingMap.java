@@ -0,0 +1,152 @@
+package com.payflow.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe map holding at most maxEntries entries and dropping entries
+ * not read for idleTimeout; the object-keyed counterpart of
+ * IdleEvictingLongMap.
+ *
+ * Each stripe is an access-ordered LinkedHashMap, so a sweep only walks the
+ * idle entries at its head. A full stripe sweeps before taking a new key and
+ * rejects the key if nothing was idle, rather than pushing out an entry
+ * still in use.
+ */
+public class IdleEvictingMap<K, V> {
+
+  private static final int MAX_STRIPES = 16;
+
+  private final Stripe[] stripes;
+  private final long idleNanos;
+  private final LongSupplier nanoTime;
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+
+  public IdleEvictingMap(int maxEntries, Duration idleTimeout) {
+    this(maxEntries, idleTimeout, System::nanoTime);
+  }
+
+  @SuppressWarnings("unchecked")
+  IdleEvictingMap(int maxEntries, Duration idleTimeout, LongSupplier nanoTime) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Max entries must be positive");
+    }
+    if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+      throw new IllegalArgumentException("Idle timeout must be positive");
+    }
+    this.idleNanos = idleTimeout.toNanos();
+    this.nanoTime = nanoTime;
+    int stripeCount = Integer.highestOneBit(Math.min(MAX_STRIPES, maxEntries));
+    this.stripes = new IdleEvictingMap.Stripe[stripeCount];
+    long now = nanoTime.getAsLong();
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(maxEntries / stripeCount, now);
+    }
+  }
+
+  /**
+   * The value for the key, created by factory if there is none, or null if
+   * the key is new and its stripe is full of entries that are not idle.
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+    return stripeFor(key).computeIfAbsent(key, factory, nanoTime.getAsLong());
+  }
+
+  /** The value for the key, or null; counts as a read for idle eviction. */
+  public V get(K key) {
+    return stripeFor(key).get(key, nanoTime.getAsLong());
+  }
+
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  /** Idle entries removed so far. */
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  /** New keys turned away so far because their stripe was full. */
+  public long rejections() {
+    return rejections.sum();
+  }
+
+  private Stripe stripeFor(K key) {
+    int hash = key.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private long lastRead;
+
+    private Entry(V value, long lastRead) {
+      this.value = value;
+      this.lastRead = lastRead;
+    }
+  }
+
+  private final class Stripe {
+    private final int maxSize;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long lastSweep;
+
+    private Stripe(int maxSize, long now) {
+      this.maxSize = maxSize;
+      this.lastSweep = now;
+      this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private synchronized V get(K key, long now) {
+      Entry<V> entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      entry.lastRead = now;
+      return entry.value;
+    }
+
+    private synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> factory, long now) {
+      Entry<V> entry = entries.get(key);
+      if (entry != null) {
+        entry.lastRead = now;
+        return entry.value;
+      }
+      if (now - lastSweep >= idleNanos / 2 || entries.size() >= maxSize) {
+        sweep(now);
+      }
+      if (entries.size() >= maxSize) {
+        rejections.increment();
+        return null;
+      }
+      V value = factory.apply(key);
+      entries.put(key, new Entry<>(value, now));
+      return value;
+    }
+
+    private synchronized int size() {
+      return entries.size();
+    }
+
+    private void sweep(long now) {
+      lastSweep = now;
+      Iterator<Entry<V>> iterator = entries.values().iterator();
+      while (iterator.hasNext()) {
+        if (now - iterator.next().lastRead < idleNanos) {
+          break;
+        }
+        iterator.remove();
+        evictions.increment();
+      }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.payflow.value;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ISO-4217 currency with its minor-unit scale (USD 2, JPY 0, KWD 3).
+ *
+ * Every currency is a singleton loaded once from the JDK's ISO-4217 table, so
+ * two Currency references are equal exactly when they are the same object,
+ * and each one has a small dense index that can be used as an array slot.
+ * Codes without a minor unit (precious metals, SDR, test codes) are not
+ * registered.
+ */
+public final class Currency {
+
+  private static final Map<String, Currency> BY_CODE;
+  private static final Currency[] BY_INDEX;
+
+  static {
+    List<java.util.Currency> iso = java.util.Currency.getAvailableCurrencies().stream()
+        .filter(currency -> currency.getDefaultFractionDigits() >= 0)
+        .sorted(Comparator.comparing(java.util.Currency::getCurrencyCode))
+        .toList();
+    Map<String, Currency> byCode = new HashMap<>();
+    BY_INDEX = new Currency[iso.size()];
+    for (int i = 0; i < BY_INDEX.length; i++) {
+      BY_INDEX[i] = new Currency(iso.get(i).getCurrencyCode(), iso.get(i).getDefaultFractionDigits(), i);
+      byCode.put(BY_INDEX[i].code, BY_INDEX[i]);
+    }
+    BY_CODE = Map.copyOf(byCode);
+  }
+
+  private final String code;
+  private final int scale;
+  private final int index;
+
+  private Currency(String code, int scale, int index) {
+    this.code = code;
+    this.scale = scale;
+    this.index = index;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the code is blank or not a
+   *                                  registered ISO-4217 code
+   */
+  public static Currency of(String code) {
+    Currency currency = find(code);
+    if (currency == null) {
+      if (code == null || code.trim().isEmpty()) {
+        throw new IllegalArgumentException("Currency cannot be null or empty");
+      }
+      throw new IllegalArgumentException("Unsupported currency: " + code.trim());
+    }
+    return currency;
+  }
+
+  /**
+   * Looks the code up as given first, so canonical codes cost a single map
+   * probe; other spellings are trimmed and upper-cased.
+   *
+   * @return the currency, or null if the code is not registered
+   */
+  public static Currency find(String code) {
+    if (code == null) {
+      return null;
+    }
+    Currency currency = BY_CODE.get(code);
+    return currency != null ? currency : BY_CODE.get(code.trim().toUpperCase(Locale.ROOT));
+  }
+
+  /** Number of registered currencies; every index is below it. */
+  public static int count() {
+    return BY_INDEX.length;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  /** Digits after the decimal point of the minor unit. */
+  public int getScale() {
+    return scale;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return code;
+  }
+}
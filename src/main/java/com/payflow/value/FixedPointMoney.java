@@ -0,0 +1,170 @@
+package com.payflow.value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Minor-unit counterpart of Money for hot paths: the amount is a long number
+ * of the currency's minor unit (cents for USD, yen for JPY, fils for KWD),
+ * so arithmetic and comparisons are plain long operations and currency
+ * checks are identity comparisons on the Currency singleton.
+ *
+ * Conversions to and from Money and BigDecimal are exact at the currency's
+ * scale; a BigDecimal with more decimals is rounded HALF_EVEN exactly like
+ * Money does. add/subtract throw ArithmeticException instead of wrapping
+ * around when the result leaves the long range.
+ */
+public final class FixedPointMoney implements Comparable<FixedPointMoney> {
+  private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
+
+  private final long minorUnits;
+  private final Currency currency;
+
+  private FixedPointMoney(long minorUnits, Currency currency) {
+    this.minorUnits = minorUnits;
+    this.currency = currency;
+  }
+
+  public static FixedPointMoney ofMinorUnits(long minorUnits, String currency) {
+    return new FixedPointMoney(minorUnits, Currency.of(currency));
+  }
+
+  public static FixedPointMoney ofMinorUnits(long minorUnits, Currency currency) {
+    if (currency == null) {
+      throw new IllegalArgumentException("Currency cannot be null or empty");
+    }
+    return new FixedPointMoney(minorUnits, currency);
+  }
+
+  /**
+   * @throws ArithmeticException if the amount does not fit in a long number
+   *                             of minor units
+   */
+  public static FixedPointMoney of(BigDecimal amount, String currency) {
+    Currency unit = Currency.of(currency);
+    return new FixedPointMoney(toMinorUnits(amount, unit), unit);
+  }
+
+  public static FixedPointMoney from(Money money) {
+    return new FixedPointMoney(toMinorUnits(money.getAmount(), money.getCurrencyUnit()), money.getCurrencyUnit());
+  }
+
+  public static FixedPointMoney zero(String currency) {
+    return new FixedPointMoney(0L, Currency.of(currency));
+  }
+
+  /**
+   * Minor units in the amount, rounded like Money to the currency's scale.
+   *
+   * @throws ArithmeticException if they do not fit in a long
+   */
+  public static long toMinorUnits(BigDecimal amount, Currency currency) {
+    if (amount == null) {
+      throw new IllegalArgumentException("Amount cannot be null");
+    }
+    return amount.setScale(currency.getScale(), ROUNDING_MODE).movePointRight(currency.getScale()).longValueExact();
+  }
+
+  /** The minor units as an amount at the currency's scale, as persisted. */
+  public static BigDecimal toAmount(long minorUnits, Currency currency) {
+    return BigDecimal.valueOf(minorUnits, currency.getScale());
+  }
+
+  public FixedPointMoney add(FixedPointMoney other) {
+    validateSameCurrency(other);
+    return new FixedPointMoney(Math.addExact(minorUnits, other.minorUnits), currency);
+  }
+
+  public FixedPointMoney subtract(FixedPointMoney other) {
+    validateSameCurrency(other);
+    return new FixedPointMoney(Math.subtractExact(minorUnits, other.minorUnits), currency);
+  }
+
+  public FixedPointMoney negate() {
+    return new FixedPointMoney(Math.negateExact(minorUnits), currency);
+  }
+
+  public boolean isGreaterThan(FixedPointMoney other) {
+    return compareTo(other) > 0;
+  }
+
+  public boolean isLessThan(FixedPointMoney other) {
+    return compareTo(other) < 0;
+  }
+
+  public boolean isGreaterThanOrEqual(FixedPointMoney other) {
+    return compareTo(other) >= 0;
+  }
+
+  public boolean isLessThanOrEqual(FixedPointMoney other) {
+    return compareTo(other) <= 0;
+  }
+
+  public boolean isZero() {
+    return minorUnits == 0L;
+  }
+
+  public boolean isPositive() {
+    return minorUnits > 0L;
+  }
+
+  public boolean isNegative() {
+    return minorUnits < 0L;
+  }
+
+  public long getMinorUnits() {
+    return minorUnits;
+  }
+
+  public String getCurrency() {
+    return currency.getCode();
+  }
+
+  public Currency getCurrencyUnit() {
+    return currency;
+  }
+
+  public BigDecimal toBigDecimal() {
+    return toAmount(minorUnits, currency);
+  }
+
+  public Money toMoney() {
+    return Money.of(toBigDecimal(), currency.getCode());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof FixedPointMoney))
+      return false;
+    FixedPointMoney money = (FixedPointMoney) o;
+    return minorUnits == money.minorUnits && currency == money.currency;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+  }
+
+  @Override
+  public int compareTo(FixedPointMoney other) {
+    validateSameCurrency(other);
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s %s", currency, toBigDecimal());
+  }
+
+  private void validateSameCurrency(FixedPointMoney other) {
+    if (other == null) {
+      throw new IllegalArgumentException("Money to compare cannot be null");
+    }
+    if (currency != other.currency) {
+      throw new IllegalArgumentException(
+          String.format("Cannot operate on different currencies: %s vs %s", currency, other.currency));
+    }
+  }
+}
@@ -9,48 +9,60 @@ import java.util.Objects;
  *
  * This class follows financial institution practices:
  * - Immutable: once created, cannot be changed
- * - Fixed scale: always uses 2 decimal places (standard for most currencies)
+ * - Fixed scale: always uses the currency's minor-unit scale (2 for USD, 0
+ * for JPY, 3 for KWD)
  * - Banker's rounding: HALF_EVEN rounding mode minimizes rounding bias
  * - Currency coupling: amount and currency are bound together, preventing
  * mixing
  */
 public final class Money implements Comparable<Money> {
-  private static final int SCALE = 2;
   private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
 
   private final BigDecimal amount;
-  private final String currency;
+  private final Currency currency;
 
-  private Money(BigDecimal amount, String currency) {
+  private Money(BigDecimal amount, Currency currency) {
     if (amount == null) {
       throw new IllegalArgumentException("Amount cannot be null");
     }
-    if (currency == null || currency.trim().isEmpty()) {
+    if (currency == null) {
       throw new IllegalArgumentException("Currency cannot be null or empty");
     }
 
-    this.amount = amount.setScale(SCALE, ROUNDING_MODE);
-    this.currency = currency.trim().toUpperCase();
+    this.amount = amount.setScale(currency.getScale(), ROUNDING_MODE);
+    this.currency = currency;
   }
 
+  /**
+   * @throws IllegalArgumentException if the amount is null or the currency
+   *                                  is not a supported ISO-4217 code
+   */
   public static Money of(BigDecimal amount, String currency) {
-    return new Money(amount, currency);
+    if (amount == null) {
+      throw new IllegalArgumentException("Amount cannot be null");
+    }
+    return new Money(amount, Currency.of(currency));
   }
 
   public static Money of(String amount, String currency) {
     try {
-      return new Money(new BigDecimal(amount), currency);
+      return of(new BigDecimal(amount), currency);
     } catch (NumberFormatException e) {
       throw new NumberFormatException("Invalid amount format: '" + amount + "'");
     }
   }
 
+  /**
+   * @param amountInCents amount in the currency's minor unit (cents for
+   *                      two-decimal currencies)
+   */
   public static Money ofCents(long amountInCents, String currency) {
-    return new Money(BigDecimal.valueOf(amountInCents, SCALE), currency);
+    Currency unit = Currency.of(currency);
+    return new Money(BigDecimal.valueOf(amountInCents, unit.getScale()), unit);
   }
 
   public static Money zero(String currency) {
-    return new Money(BigDecimal.ZERO, currency);
+    return new Money(BigDecimal.ZERO, Currency.of(currency));
   }
 
   public Money add(Money other) {
@@ -81,14 +93,14 @@ public final class Money implements Comparable<Money> {
     if (divisor.compareTo(BigDecimal.ZERO) == 0) {
       throw new IllegalArgumentException("Cannot divide by zero");
     }
-    return new Money(amount.divide(divisor, SCALE, ROUNDING_MODE), currency);
+    return new Money(amount.divide(divisor, currency.getScale(), ROUNDING_MODE), currency);
   }
 
   public Money divide(long divisor) {
     if (divisor == 0) {
       throw new IllegalArgumentException("Cannot divide by zero");
     }
-    return new Money(amount.divide(BigDecimal.valueOf(divisor), SCALE, ROUNDING_MODE), currency);
+    return new Money(amount.divide(BigDecimal.valueOf(divisor), currency.getScale(), ROUNDING_MODE), currency);
   }
 
   public Money negate() {
@@ -141,6 +153,10 @@ public final class Money implements Comparable<Money> {
   }
 
   public String getCurrency() {
+    return currency.getCode();
+  }
+
+  public Currency getCurrencyUnit() {
     return currency;
   }
 
@@ -151,7 +167,7 @@ public final class Money implements Comparable<Money> {
     if (!(o instanceof Money))
       return false;
     Money money = (Money) o;
-    return amount.compareTo(money.amount) == 0 && currency.equals(money.currency);
+    return amount.compareTo(money.amount) == 0 && currency == money.currency;
   }
 
   @Override
@@ -174,7 +190,7 @@ public final class Money implements Comparable<Money> {
     if (other == null) {
       throw new IllegalArgumentException("Money to compare cannot be null");
     }
-    if (!currency.equals(other.currency)) {
+    if (currency != other.currency) {
       throw new IllegalArgumentException(
           String.format("Cannot operate on different currencies: %s vs %s", currency, other.currency));
     }
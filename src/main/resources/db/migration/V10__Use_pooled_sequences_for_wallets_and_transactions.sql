@@ -0,0 +1,7 @@
+-- Pooled sequence ids for wallets and transactions
+-- Hibernate reserves blocks of 50 ids per sequence call, which lets inserts be JDBC-batched
+-- (IDENTITY ids have to be read back row by row). Must match allocationSize on the entities.
+
+ALTER SEQUENCE wallets_id_seq INCREMENT BY 50;
+
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
@@ -0,0 +1,29 @@
+-- Dedicated store for idempotency keys, so the duplicate check reads a small
+-- hot index instead of the ever-growing unique index on transactions.
+-- Rows expire after app.idempotency.record-ttl-hours. The table is range
+-- partitioned by expires_at into daily partitions named
+-- idempotency_keys_pYYYYMMDD, which IdempotencyRecordPurgeJob creates ahead
+-- of time and drops once they have fully expired; rows outside any daily
+-- partition land in the default partition and are deleted row by row.
+-- transactions.idempotency_key stays unique and remains the final arbiter
+-- for concurrent first requests and for keys that have already expired here.
+
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) NOT NULL,
+    operation VARCHAR(20) NOT NULL,
+    request_hash VARCHAR(64),
+    response_transaction_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (idempotency_key, expires_at)
+) PARTITION BY RANGE (expires_at);
+
+CREATE TABLE idempotency_keys_default PARTITION OF idempotency_keys DEFAULT;
+
+-- Keys used during the last day are carried over so in-window retries keep
+-- replaying; their request payload is unknown, so reuse detection is skipped.
+INSERT INTO idempotency_keys (idempotency_key, operation, request_hash, response_transaction_id, created_at, expires_at)
+SELECT idempotency_key, type, NULL, id, created_at, created_at + INTERVAL '24 hours'
+FROM transactions
+WHERE idempotency_key IS NOT NULL
+  AND created_at > CURRENT_TIMESTAMP - INTERVAL '24 hours';
@@ -0,0 +1,9 @@
+-- Money is stored at its currency's minor-unit scale (JPY 0, USD 2, KWD 3);
+-- three decimals hold every supported currency without rounding in the database.
+-- The integer part keeps its 17 digits.
+
+ALTER TABLE wallet_balances
+ALTER COLUMN balance TYPE NUMERIC(20, 3);
+
+ALTER TABLE transactions
+ALTER COLUMN amount TYPE NUMERIC(20, 3);
@@ -0,0 +1,17 @@
+-- Revoked tokens, loaded into memory by TokenRevocationList so
+-- JwtAuthenticationFilter can reject them without a query per request.
+-- A row with a token_id revokes that single refresh token (a rotated or
+-- replayed one) until it expires. A row without one revokes every token of
+-- the user, for as long as the user stays disabled.
+
+CREATE TABLE revoked_tokens (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    token_id VARCHAR(64),
+    revoked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP,
+    CONSTRAINT fk_revoked_tokens_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX uk_revoked_tokens_token_id ON revoked_tokens(token_id) WHERE token_id IS NOT NULL;
+CREATE INDEX idx_revoked_tokens_user_id ON revoked_tokens(user_id) WHERE token_id IS NULL;
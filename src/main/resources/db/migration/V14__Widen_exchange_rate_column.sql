@@ -0,0 +1,7 @@
+-- Provider rates such as USD->IDR exceed the four integer digits of
+-- NUMERIC(10, 6), and inverse rates such as IDR->USD need more than six
+-- decimals. ExchangeRateTable rounds every rate to this scale before it is
+-- used, so the stored rate reproduces the converted amount.
+
+ALTER TABLE transactions
+ALTER COLUMN exchange_rate TYPE NUMERIC(24, 12);
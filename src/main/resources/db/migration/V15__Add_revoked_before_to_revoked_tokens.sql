@@ -0,0 +1,11 @@
+-- A user-wide revocation (token_id IS NULL) no longer lasts only while the
+-- user is disabled: it rejects every token issued before revoked_before,
+-- and is kept after the user is enabled again so those tokens stay dead.
+-- TokenRevocationList sets expires_at once every such token has expired.
+
+ALTER TABLE revoked_tokens
+ADD COLUMN revoked_before TIMESTAMP;
+
+UPDATE revoked_tokens
+SET revoked_before = revoked_at
+WHERE token_id IS NULL;
@@ -0,0 +1,5 @@
+-- Add optimistic locking version column to wallets table
+-- Incremented by Hibernate on every balance change so concurrent writers can be detected without FOR UPDATE
+
+ALTER TABLE wallets
+ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
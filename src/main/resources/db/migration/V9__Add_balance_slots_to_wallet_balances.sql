@@ -0,0 +1,14 @@
+-- Hot-wallet sharding: a wallet's balance per currency can be spread across several slot rows
+-- Slot 0 is the home slot; wallets with balance_slots > 1 receive credits on random slots 1..N-1
+
+ALTER TABLE wallets
+ADD COLUMN balance_slots INTEGER NOT NULL DEFAULT 1;
+
+ALTER TABLE wallet_balances
+ADD COLUMN slot INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE wallet_balances
+DROP CONSTRAINT wallet_balances_pkey;
+
+ALTER TABLE wallet_balances
+ADD PRIMARY KEY (wallet_id, currency, slot);
@@ -0,0 +1,146 @@
+package com.payflow.entity;
+
+import org.junit.jupiter.api.Test;
+
+import com.payflow.value.Currency;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceMapTest {
+
+  @Test
+  void testBalancesReadBackWithTheirScale() {
+    BalanceMap balances = new BalanceMap();
+    balances.put(BalanceSlot.home("USD"), new BigDecimal("10.50"));
+    balances.put(BalanceSlot.home("KWD"), new BigDecimal("1.250"));
+    balances.put(new BalanceSlot("USD", 2), new BigDecimal("3"));
+
+    assertEquals(3, balances.size());
+    assertEquals(new BigDecimal("10.50"), balances.get(BalanceSlot.home("USD")));
+    assertEquals(new BigDecimal("1.250"), balances.get(BalanceSlot.home("KWD")));
+    assertEquals(new BigDecimal("3"), balances.get(new BalanceSlot("USD", 2)));
+    assertNull(balances.get(new BalanceSlot("USD", 1)));
+    assertNull(balances.get("USD"));
+  }
+
+  @Test
+  void testPutReplacesAndRemoveCompacts() {
+    BalanceMap balances = new BalanceMap(1);
+    balances.put(BalanceSlot.home("USD"), new BigDecimal("1.00"));
+    balances.put(BalanceSlot.home("EUR"), new BigDecimal("2.00"));
+    balances.put(BalanceSlot.home("MXN"), new BigDecimal("3.00"));
+
+    assertEquals(new BigDecimal("1.00"), balances.put(BalanceSlot.home("USD"), new BigDecimal("4.00")));
+    assertEquals(new BigDecimal("2.00"), balances.remove(BalanceSlot.home("EUR")));
+
+    Map<BalanceSlot, BigDecimal> expected = new HashMap<>();
+    expected.put(BalanceSlot.home("USD"), new BigDecimal("4.00"));
+    expected.put(BalanceSlot.home("MXN"), new BigDecimal("3.00"));
+    assertEquals(expected, balances);
+    assertEquals(expected.hashCode(), balances.hashCode());
+  }
+
+  @Test
+  void testIteratorRemoveAndSetValueWriteThrough() {
+    BalanceMap balances = new BalanceMap();
+    balances.put(BalanceSlot.home("USD"), new BigDecimal("1.00"));
+    balances.put(new BalanceSlot("USD", 1), new BigDecimal("2.00"));
+    balances.put(new BalanceSlot("USD", 2), new BigDecimal("3.00"));
+
+    Iterator<Map.Entry<BalanceSlot, BigDecimal>> it = balances.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<BalanceSlot, BigDecimal> entry = it.next();
+      if (entry.getKey().isHome()) {
+        entry.setValue(new BigDecimal("6.00"));
+      } else {
+        it.remove();
+      }
+    }
+
+    assertEquals(Map.of(BalanceSlot.home("USD"), new BigDecimal("6.00")), balances);
+  }
+
+  @Test
+  void testSharesCurrencyCodesThroughTheRegistry() {
+    BalanceMap balances = new BalanceMap();
+    balances.put(BalanceSlot.home(new String("USD")), BigDecimal.ONE);
+
+    assertSame(Currency.of("USD").getCode(),
+        balances.keySet().iterator().next().getCurrency());
+  }
+
+  @Test
+  void testRejectsValuesThatDoNotFitInALong() {
+    BalanceMap balances = new BalanceMap();
+
+    assertThrows(ArithmeticException.class,
+        () -> balances.put(BalanceSlot.home("USD"), new BigDecimal("92233720368547758.08")));
+    assertThrows(IllegalArgumentException.class, () -> balances.put(BalanceSlot.home("USD"), null));
+    assertTrue(balances.isEmpty());
+  }
+
+  @Test
+  void testMinorUnitsRescaleRowsToTheCurrencyScale() {
+    BalanceMap balances = new BalanceMap();
+    balances.put(BalanceSlot.home("USD"), new BigDecimal("10.500"));
+    balances.put(new BalanceSlot("USD", 1), new BigDecimal("2.5"));
+    balances.put(BalanceSlot.home("JPY"), new BigDecimal("100.000"));
+
+    assertEquals(1050L, balances.homeMinorUnits(Currency.of("USD")));
+    assertEquals(1300L, balances.totalMinorUnits(Currency.of("USD")));
+    assertEquals(100L, balances.totalMinorUnits(Currency.of("JPY")));
+    assertEquals(0L, balances.totalMinorUnits(Currency.of("EUR")));
+  }
+
+  @Test
+  void testMinorUnitsRoundRowsFinerThanTheMinorUnit() {
+    BalanceMap balances = new BalanceMap();
+    balances.put(BalanceSlot.home("USD"), new BigDecimal("1.005"));
+    balances.put(new BalanceSlot("USD", 1), new BigDecimal("0.010"));
+
+    assertEquals(100L, balances.homeMinorUnits(Currency.of("USD")));
+    assertEquals(102L, balances.totalMinorUnits(Currency.of("USD")));
+  }
+
+  @Test
+  void testPutHomeMinorUnitsUpdatesInPlaceOrInserts() {
+    BalanceMap balances = new BalanceMap();
+    balances.put(BalanceSlot.home("USD"), new BigDecimal("10.500"));
+
+    balances.putHomeMinorUnits(Currency.of("USD"), 725L);
+    balances.putHomeMinorUnits(Currency.of("KWD"), 1250L);
+
+    assertEquals(2, balances.size());
+    assertEquals(new BigDecimal("7.25"), balances.get(BalanceSlot.home("USD")));
+    assertEquals(new BigDecimal("1.250"), balances.get(BalanceSlot.home("KWD")));
+  }
+
+  @Test
+  void testRemoveOtherSlotsKeepsHomeAndOtherCurrencies() {
+    BalanceMap balances = new BalanceMap();
+    balances.put(new BalanceSlot("USD", 1), new BigDecimal("1.00"));
+    balances.put(BalanceSlot.home("USD"), new BigDecimal("2.00"));
+    balances.put(new BalanceSlot("EUR", 1), new BigDecimal("3.00"));
+    balances.put(new BalanceSlot("USD", 2), new BigDecimal("4.00"));
+
+    balances.removeOtherSlots(Currency.of("USD"));
+
+    assertEquals(2, balances.size());
+    assertEquals(new BigDecimal("2.00"), balances.get(BalanceSlot.home("USD")));
+    assertEquals(new BigDecimal("3.00"), balances.get(new BalanceSlot("EUR", 1)));
+  }
+
+  @Test
+  void testMinorUnitsThatOverflowThrow() {
+    BalanceMap balances = new BalanceMap();
+    balances.put(BalanceSlot.home("USD"), new BigDecimal("92233720368547758.07"));
+    balances.put(new BalanceSlot("USD", 1), new BigDecimal("0.01"));
+
+    assertThrows(ArithmeticException.class, () -> balances.totalMinorUnits(Currency.of("USD")));
+  }
+}
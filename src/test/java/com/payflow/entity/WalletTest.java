@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 
 import com.payflow.value.Money;
 
+import java.math.BigDecimal;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class WalletTest {
@@ -298,4 +300,28 @@ class WalletTest {
 
     assertEquals(Money.of("50.00", "USD"), wallet.getBalance("USD"));
   }
+
+  @Test
+  void testBalancesAggregateAcrossSlots() {
+    wallet.addBalance(Money.of("10.00", "USD"));
+    wallet.getSlotBalances().put(new BalanceSlot("USD", 2), new BigDecimal("5.50"));
+    wallet.getSlotBalances().put(new BalanceSlot("EUR", 1), new BigDecimal("3.00"));
+
+    assertEquals(Money.of("15.50", "USD"), wallet.getBalance("USD"));
+    assertEquals(new BigDecimal("15.50"), wallet.getBalances().get("USD"));
+    assertEquals(new BigDecimal("3.00"), wallet.getBalances().get("EUR"));
+  }
+
+  @Test
+  void testSubtractBalanceSweepsSlotsIntoHome() {
+    wallet.addBalance(Money.of("10.00", "USD"));
+    wallet.getSlotBalances().put(new BalanceSlot("USD", 1), new BigDecimal("20.00"));
+    wallet.getSlotBalances().put(new BalanceSlot("EUR", 1), new BigDecimal("3.00"));
+
+    wallet.subtractBalance(Money.of("25.00", "USD"));
+
+    assertEquals(Money.of("5.00", "USD"), wallet.getBalance("USD"));
+    assertFalse(wallet.getSlotBalances().containsKey(new BalanceSlot("USD", 1)));
+    assertEquals(new BigDecimal("3.00"), wallet.getSlotBalances().get(new BalanceSlot("EUR", 1)));
+  }
 }
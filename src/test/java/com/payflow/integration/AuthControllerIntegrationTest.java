@@ -19,6 +19,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.payflow.dto.v1.request.LoginRequest;
+import com.payflow.dto.v1.request.RefreshTokenRequest;
 import com.payflow.dto.v1.request.RegisterRequest;
 
 import jakarta.transaction.Transactional;
@@ -89,6 +90,44 @@ class AuthControllerIntegrationTest {
         .andExpect(status().isOk());
   }
 
+  @Test
+  void shouldRotateRefreshTokenAndRejectItsReuse() throws Exception {
+    RegisterRequest registerRequest = new RegisterRequest(
+        "refreshtest@example.com",
+        "Password123!",
+        "Jane Smith");
+
+    mockMvc.perform(post("/api/v1/auth/register")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(registerRequest)))
+        .andExpect(status().isCreated());
+
+    LoginRequest loginRequest = new LoginRequest(
+        "refreshtest@example.com",
+        "Password123!");
+
+    String loginResponse = mockMvc.perform(post("/api/v1/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(loginRequest)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.refreshToken").isNotEmpty())
+        .andReturn().getResponse().getContentAsString();
+    RefreshTokenRequest refreshRequest = new RefreshTokenRequest(
+        objectMapper.readTree(loginResponse).get("refreshToken").asText());
+
+    mockMvc.perform(post("/api/v1/auth/refresh")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(refreshRequest)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.token").isNotEmpty())
+        .andExpect(jsonPath("$.refreshToken").isNotEmpty());
+
+    mockMvc.perform(post("/api/v1/auth/refresh")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(refreshRequest)))
+        .andExpect(status().isUnauthorized());
+  }
+
   @Test
   void shouldReturn401WhenLoginWithWrongPassword() throws Exception {
     RegisterRequest registerRequest = new RegisterRequest(
@@ -0,0 +1,93 @@
+package com.payflow.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.payflow.entity.User;
+import com.payflow.repository.IWalletRepository;
+import com.payflow.services.BulkDepositService;
+import com.payflow.services.TransactionService;
+import com.payflow.services.UserService;
+import com.payflow.value.Money;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "app.bulk-deposit.chunk-size=1")
+@Testcontainers
+@ActiveProfiles("test")
+class BulkDepositIntegrationTest {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+      .withDatabaseName("testdb")
+      .withUsername("test")
+      .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private BulkDepositService bulkDepositService;
+
+  @Autowired
+  private IWalletRepository walletRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Binds an EntityManager to the thread for the whole ingestion, as
+   * open-in-view does for the request, and withdraws from another thread
+   * after the first chunk has committed.
+   */
+  @Test
+  void shouldKeepWithdrawalCommittedBetweenChunks() throws Exception {
+    User user = userService.registerUser("bulk@example.com", "Password123!", "Bulk User");
+    transactionService.deposit(user, "USD", new BigDecimal("100.00"), "bulk-initial");
+    String body = "{\"idempotencyKey\":\"bulk-1\",\"currency\":\"USD\",\"amount\":10.00}\n"
+        + "{\"idempotencyKey\":\"bulk-2\",\"currency\":\"USD\",\"amount\":10.00}\n";
+
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+    try {
+      bulkDepositService.ingest(user, new StringReader(body), results -> {
+        if (results.get(0).line() == 1) {
+          CompletableFuture.runAsync(() -> transactionService.withdraw(user, "USD", new BigDecimal("50.00"),
+              "bulk-withdrawal")).join();
+        }
+      });
+    } finally {
+      TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+      entityManager.close();
+    }
+
+    assertEquals(Money.of("70.00", "USD"),
+        walletRepository.findByUserIdWithoutLock(user.getId()).orElseThrow().getBalance("USD"));
+  }
+}
@@ -0,0 +1,135 @@
+package com.payflow.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.payflow.config.WalletProperties;
+import com.payflow.entity.User;
+import com.payflow.entity.Wallet;
+import com.payflow.services.TransactionService;
+import com.payflow.services.UserService;
+import com.payflow.services.WalletService;
+import com.payflow.value.Money;
+
+/**
+ * Credit throughput on a single hot recipient wallet, with and without
+ * balance slots. Every thread transfers from its own sender wallet, so the
+ * recipient row is the only shared resource.
+ *
+ * Not part of the regular build, run with:
+ * mvn test -Dtest=HotWalletCreditBenchmarkIntegrationTest -Dbenchmark=true
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HotWalletCreditBenchmarkIntegrationTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(HotWalletCreditBenchmarkIntegrationTest.class);
+
+  private static final int THREADS = 16;
+  private static final int TRANSFERS_PER_THREAD = 200;
+  private static final int BALANCE_SLOTS = 16;
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+      .withDatabaseName("testdb")
+      .withUsername("test")
+      .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+    registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS + 4);
+  }
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private WalletService walletService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private WalletProperties walletProperties;
+
+  @AfterEach
+  void tearDown() {
+    walletProperties.setShardingEnabled(false);
+  }
+
+  @Test
+  void shouldCompareHotWalletCreditThroughput() throws Exception {
+    double unsharded = runCredits("unsharded", 1);
+    walletProperties.setShardingEnabled(true);
+    double sharded = runCredits("sharded", BALANCE_SLOTS);
+
+    logger.info("Hot wallet credits - Unsharded: {} ops/s, Sharded ({} slots): {} ops/s, Speedup: {}x",
+        String.format("%.0f", unsharded), BALANCE_SLOTS, String.format("%.0f", sharded),
+        String.format("%.2f", sharded / unsharded));
+  }
+
+  private double runCredits(String label, int balanceSlots) throws Exception {
+    User recipient = userService.registerUser(label + "-merchant@example.com", "Password123!", "Hot Merchant");
+    Long recipientWalletId = walletService.getWalletIdByUserId(recipient.getId());
+    walletService.updateBalanceSlots(recipientWalletId, balanceSlots);
+
+    List<User> senders = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      User sender = userService.registerUser(label + "-sender" + i + "@example.com", "Password123!", "Sender " + i);
+      transactionService.deposit(sender, "USD", new BigDecimal("100000.00"), UUID.randomUUID().toString());
+      senders.add(sender);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    long start = System.nanoTime();
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (User sender : senders) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+            transactionService.transfer(sender, recipient, "USD", "USD", BigDecimal.ONE, BigDecimal.ONE,
+                UUID.randomUUID().toString());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+    Wallet wallet = walletService.getWalletByUserIdReadOnly(recipient.getId());
+    assertEquals(Money.of(BigDecimal.valueOf((long) THREADS * TRANSFERS_PER_THREAD), "USD"),
+        wallet.getBalance("USD"));
+
+    return THREADS * TRANSFERS_PER_THREAD / seconds;
+  }
+}
@@ -0,0 +1,103 @@
+package com.payflow.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.payflow.entity.Transaction;
+import com.payflow.entity.User;
+import com.payflow.entity.Wallet;
+import com.payflow.repository.ITransactionRepository;
+import com.payflow.repository.IWalletRepository;
+import com.payflow.services.UserService;
+import com.payflow.value.Money;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers
+@ActiveProfiles("test")
+class TransactionBatchInsertIntegrationTest {
+
+  private static final int DEPOSITS = 1000;
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+      .withDatabaseName("testdb")
+      .withUsername("test")
+      .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private IWalletRepository walletRepository;
+
+  @Autowired
+  private ITransactionRepository transactionRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void shouldBatchInsertsForThousandDeposits() {
+    User user = userService.registerUser("batch@example.com", "Password123!", "Batch User");
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      Wallet wallet = walletRepository.findByUserIdWithLock(user.getId()).orElseThrow();
+      List<Transaction> deposits = new ArrayList<>(DEPOSITS);
+      for (int i = 0; i < DEPOSITS; i++) {
+        wallet.addBalance(Money.of("1.00", "USD"));
+        deposits.add(Transaction.builder()
+            .transactionId("TXN-BATCH-" + i)
+            .wallet(wallet)
+            .type(Transaction.TransactionType.DEPOSIT)
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .amount(BigDecimal.ONE)
+            .currency("USD")
+            .idempotencyKey("batch-" + i)
+            .createdAt(LocalDateTime.now())
+            .completedAt(LocalDateTime.now())
+            .build());
+      }
+      transactionRepository.saveAll(deposits);
+    });
+
+    assertEquals(DEPOSITS, statistics.getEntityInsertCount());
+    // 20 insert batches, 20 sequence calls, the wallet lock query and its balance writes
+    long statements = statistics.getPrepareStatementCount();
+    assertTrue(statements <= 50, "Expected batched inserts but " + statements + " statements were prepared");
+    assertEquals(Money.of("1000.00", "USD"),
+        walletRepository.findByUserIdWithoutLock(user.getId()).orElseThrow().getBalance("USD"));
+  }
+}
@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,7 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.dto.v1.request.BatchTransferRequest;
 import com.payflow.dto.v1.request.DepositRequest;
 import com.payflow.dto.v1.request.LoginRequest;
 import com.payflow.dto.v1.request.RegisterRequest;
@@ -157,7 +159,8 @@ class TransactionControllerIntegrationTest {
         secondUserId,
         "USD",
         "USD",
-        new BigDecimal("100.00"));
+        new BigDecimal("100.00"),
+        null);
 
     mockMvc.perform(post("/api/v1/transactions/transfer")
         .header("Authorization", "Bearer " + userToken)
@@ -167,6 +170,109 @@ class TransactionControllerIntegrationTest {
         .andExpect(status().isCreated());
   }
 
+  @Test
+  void shouldTransferAtQuotedRate() throws Exception {
+    DepositRequest depositRequest = new DepositRequest(new BigDecimal("500.00"), "USD");
+    mockMvc.perform(post("/api/v1/transactions/deposit")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "quoted-transfer-setup")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(depositRequest)))
+        .andExpect(status().isCreated());
+
+    MvcResult quoteResult = mockMvc.perform(get("/api/v1/exchange-rates/quote")
+        .header("Authorization", "Bearer " + userToken)
+        .param("from", "USD")
+        .param("to", "EUR")
+        .param("amount", "100.00"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.exchangeRate").value(0.92))
+        .andReturn();
+    String quoteToken = objectMapper.readTree(quoteResult.getResponse().getContentAsString())
+        .get("quoteToken").asText();
+
+    TransferRequest transferRequest = new TransferRequest(
+        secondUserId,
+        "USD",
+        "EUR",
+        new BigDecimal("100.00"),
+        quoteToken);
+
+    mockMvc.perform(post("/api/v1/transactions/transfer")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "quoted-transfer-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(transferRequest)))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.exchangeRate").value(0.92));
+  }
+
+  @Test
+  void shouldReturn400WhenQuoteTokenBelongsToAnotherUser() throws Exception {
+    MvcResult quoteResult = mockMvc.perform(get("/api/v1/exchange-rates/quote")
+        .header("Authorization", "Bearer " + secondUserToken)
+        .param("from", "USD")
+        .param("to", "EUR"))
+        .andExpect(status().isOk())
+        .andReturn();
+    String quoteToken = objectMapper.readTree(quoteResult.getResponse().getContentAsString())
+        .get("quoteToken").asText();
+
+    TransferRequest transferRequest = new TransferRequest(
+        secondUserId,
+        "USD",
+        "EUR",
+        new BigDecimal("100.00"),
+        quoteToken);
+
+    mockMvc.perform(post("/api/v1/transactions/transfer")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "quoted-transfer-foreign")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(transferRequest)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void shouldRejectOnlyBatchItemWithInvalidQuoteAndReplayCompletedItems() throws Exception {
+    DepositRequest depositRequest = new DepositRequest(new BigDecimal("500.00"), "USD");
+    mockMvc.perform(post("/api/v1/transactions/deposit")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "quoted-batch-setup")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(depositRequest)))
+        .andExpect(status().isCreated());
+
+    BatchTransferRequest batchRequest = new BatchTransferRequest(List.of(
+        new TransferRequest(secondUserId, "USD", "EUR", new BigDecimal("50.00"), null),
+        new TransferRequest(secondUserId, "USD", "EUR", new BigDecimal("20.00"), "forged.token")));
+
+    mockMvc.perform(post("/api/v1/transactions/transfers/batch")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "quoted-batch-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(batchRequest)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.completed").value(1))
+        .andExpect(jsonPath("$.results[0].status").value("COMPLETED"))
+        .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+        .andExpect(jsonPath("$.results[1].error").value("Quote token is invalid or has expired"));
+
+    BatchTransferRequest retryWithExpiredQuotes = new BatchTransferRequest(List.of(
+        new TransferRequest(secondUserId, "USD", "EUR", new BigDecimal("50.00"), "expired.token"),
+        new TransferRequest(secondUserId, "USD", "EUR", new BigDecimal("20.00"), "expired.token")));
+
+    mockMvc.perform(post("/api/v1/transactions/transfers/batch")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "quoted-batch-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(retryWithExpiredQuotes)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].status").value("COMPLETED"))
+        .andExpect(jsonPath("$.results[0].exchangeRate").value(0.92))
+        .andExpect(jsonPath("$.results[1].status").value("FAILED"));
+  }
+
   @Test
   void shouldGetTransactionHistory() throws Exception {
     DepositRequest depositRequest = new DepositRequest(new BigDecimal("100.00"), "USD");
@@ -330,7 +436,8 @@ class TransactionControllerIntegrationTest {
         secondUserId,
         "USD",
         "USD",
-        new BigDecimal("100.00"));
+        new BigDecimal("100.00"),
+        null);
     String idempotencyKey = "transfer-idempotency-test-1";
 
     MvcResult firstResult = mockMvc.perform(post("/api/v1/transactions/transfer")
@@ -388,6 +495,41 @@ class TransactionControllerIntegrationTest {
     assertNotEquals(firstTransactionId, secondTransactionId);
   }
 
+  @Test
+  void shouldReturn422WhenIdempotencyKeyIsReusedWithDifferentPayload() throws Exception {
+    mockMvc.perform(post("/api/v1/transactions/deposit")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "reused-key-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new DepositRequest(new BigDecimal("100.00"), "USD"))))
+        .andExpect(status().isCreated());
+
+    mockMvc.perform(post("/api/v1/transactions/deposit")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "reused-key-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new DepositRequest(new BigDecimal("250.00"), "USD"))))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  void shouldReturn422WhenIdempotencyKeyIsReusedByAnotherUser() throws Exception {
+    String body = objectMapper.writeValueAsString(new DepositRequest(new BigDecimal("100.00"), "USD"));
+    mockMvc.perform(post("/api/v1/transactions/deposit")
+        .header("Authorization", "Bearer " + userToken)
+        .header("Idempotency-Key", "shared-key-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isCreated());
+
+    mockMvc.perform(post("/api/v1/transactions/deposit")
+        .header("Authorization", "Bearer " + secondUserToken)
+        .header("Idempotency-Key", "shared-key-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
   @Test
   void shouldFailDepositWhenIdempotencyKeyIsMissing() throws Exception {
     DepositRequest request = new DepositRequest(new BigDecimal("100.00"), "USD");
@@ -416,7 +558,8 @@ class TransactionControllerIntegrationTest {
         secondUserId,
         "USD",
         "USD",
-        new BigDecimal("100.00"));
+        new BigDecimal("100.00"),
+        null);
 
     mockMvc.perform(post("/api/v1/transactions/transfer")
         .header("Authorization", "Bearer " + userToken)
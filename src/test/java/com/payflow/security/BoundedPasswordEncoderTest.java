@@ -0,0 +1,124 @@
+package com.payflow.security;
+
+import com.payflow.config.PasswordHashingProperties;
+import com.payflow.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+  private PasswordHashingProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+  private BoundedPasswordEncoder encoder;
+  private ExecutorService callers;
+
+  @BeforeEach
+  void setUp() {
+    properties = new PasswordHashingProperties();
+    properties.setBcryptCost(4);
+    meterRegistry = new SimpleMeterRegistry();
+    callers = Executors.newCachedThreadPool();
+  }
+
+  @AfterEach
+  void tearDown() {
+    callers.shutdownNow();
+    if (encoder != null) {
+      encoder.shutdown();
+    }
+  }
+
+  @Test
+  void shouldEncodeAndMatchOnHashingPool() {
+    encoder = new BoundedPasswordEncoder(properties, meterRegistry);
+
+    String encoded = encoder.encode("password123");
+
+    assertTrue(encoded.startsWith("$2a$04$"));
+    assertTrue(encoder.matches("password123", encoded));
+    assertFalse(encoder.matches("wrong", encoded));
+    assertEquals(1, meterRegistry.get("password.hash").tag("operation", "encode").timer().count());
+    assertEquals(2, meterRegistry.get("password.hash").tag("operation", "matches").timer().count());
+  }
+
+  @Test
+  void shouldRejectImmediatelyWhenPoolAndQueueAreFull() throws Exception {
+    properties.setThreads(1);
+    properties.setQueueCapacity(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    encoder = new BoundedPasswordEncoder(blockingEncoder(started, release), properties, meterRegistry);
+
+    callers.submit(() -> encoder.encode("first"));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    callers.submit(() -> encoder.encode("queued"));
+    waitForQueueDepth(1);
+
+    assertThrows(ServiceBusyException.class, () -> encoder.encode("rejected"));
+    assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+    assertEquals(1.0, meterRegistry.get("password.hash.queue.depth").gauge().value());
+
+    release.countDown();
+  }
+
+  @Test
+  void shouldGiveUpWhenHashingTakesLongerThanTimeout() {
+    properties.setTimeoutMillis(50L);
+    CountDownLatch release = new CountDownLatch(1);
+    encoder = new BoundedPasswordEncoder(blockingEncoder(new CountDownLatch(1), release), properties, meterRegistry);
+
+    assertThrows(ServiceBusyException.class, () -> encoder.encode("slow"));
+    assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+
+    release.countDown();
+  }
+
+  @Test
+  void shouldRequestUpgradeOnlyWhenCostDiffers() {
+    encoder = new BoundedPasswordEncoder(properties, meterRegistry);
+
+    assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+    assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password123")));
+    assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    assertFalse(encoder.upgradeEncoding(null));
+  }
+
+  private void waitForQueueDepth(int depth) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (encoder.queueDepth() < depth && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(depth, encoder.queueDepth());
+  }
+
+  private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+    return new PasswordEncoder() {
+      @Override
+      public String encode(CharSequence rawPassword) {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return rawPassword.toString();
+      }
+
+      @Override
+      public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return rawPassword.toString().equals(encodedPassword);
+      }
+    };
+  }
+}
@@ -13,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -179,6 +180,62 @@ class JwtTokenProviderTest {
     assertTrue(isValid);
   }
 
+  @Test
+  void shouldParseUserIdRolesAndExpiryInOnePass() {
+    String token = jwtTokenProvider.generateToken(123L, Set.of("USER", "ADMIN"));
+
+    AuthenticatedUser principal = jwtTokenProvider.parseToken(token);
+
+    assertEquals(123L, principal.userId());
+    assertEquals(Set.of("USER", "ADMIN"), principal.roles());
+    assertNotNull(principal.expiresAt());
+    assertEquals("123", principal.getName());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenParsingTokenWithDifferentSecret() {
+    SecretKey differentKey = Keys.hmacShaKeyFor(
+        "different-secret-key-for-testing-purposes-minimum-32-characters-long".getBytes(StandardCharsets.UTF_8));
+    String token = Jwts.builder().subject("123").signWith(differentKey).compact();
+
+    assertThrows(JwtException.class, () -> jwtTokenProvider.parseToken(token));
+  }
+
+  @Test
+  void shouldReadRolesFromTokensIssuedWithRoleNames() {
+    SecretKey key = Keys.hmacShaKeyFor(validSecret.getBytes(StandardCharsets.UTF_8));
+    String legacyToken = Jwts.builder()
+        .subject("123")
+        .claim("roles", List.of("USER", "AUDITOR"))
+        .signWith(key)
+        .compact();
+
+    assertEquals(Set.of("USER", "AUDITOR"), jwtTokenProvider.getRolesFromToken(legacyToken));
+  }
+
+  @Test
+  void shouldIssueRefreshTokensWithUniqueIds() {
+    when(jwtProperties.getRefreshExpiration()).thenReturn(604800000L);
+
+    RefreshToken first = jwtTokenProvider.parseRefreshToken(jwtTokenProvider.generateRefreshToken(123L));
+    RefreshToken second = jwtTokenProvider.parseRefreshToken(jwtTokenProvider.generateRefreshToken(123L));
+
+    assertEquals(123L, first.userId());
+    assertNotNull(first.expiresAt());
+    assertNotEquals(first.tokenId(), second.tokenId());
+  }
+
+  @Test
+  void shouldNotAcceptRefreshAndAccessTokensInPlaceOfEachOther() {
+    when(jwtProperties.getRefreshExpiration()).thenReturn(604800000L);
+    String refreshToken = jwtTokenProvider.generateRefreshToken(123L);
+    String accessToken = jwtTokenProvider.generateToken(123L, Set.of("USER"));
+
+    assertThrows(JwtException.class, () -> jwtTokenProvider.parseToken(refreshToken));
+    assertFalse(jwtTokenProvider.validateToken(refreshToken));
+    assertThrows(JwtException.class, () -> jwtTokenProvider.parseRefreshToken(accessToken));
+  }
+
   @Test
   void shouldExtractRolesFromToken() {
     Long userId = 123L;
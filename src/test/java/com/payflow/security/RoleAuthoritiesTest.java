@@ -0,0 +1,39 @@
+package com.payflow.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleAuthoritiesTest {
+
+  @Test
+  void shouldRoundTripRoleNamesThroughMask() {
+    int mask = RoleAuthorities.toMask(List.of("ADMIN", "USER"));
+
+    assertEquals(Set.of("ADMIN", "USER"), RoleAuthorities.roleNames(mask));
+    assertEquals(Set.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER")),
+        RoleAuthorities.authorities(mask));
+    assertTrue(RoleAuthorities.authorities(0).isEmpty());
+  }
+
+  @Test
+  void shouldShareAuthoritySetsBetweenCalls() {
+    int mask = RoleAuthorities.toMask(Set.of("AUDITOR"));
+
+    assertSame(RoleAuthorities.authorities(mask), RoleAuthorities.authorities(mask));
+    assertSame(RoleAuthorities.roleNames(mask), new AuthenticatedUser(1L, mask, null, null).roles());
+    assertThrows(UnsupportedOperationException.class,
+        () -> RoleAuthorities.authorities(mask).add(new SimpleGrantedAuthority("ROLE_ADMIN")));
+  }
+
+  @Test
+  void shouldRejectUnknownRolesAndMasks() {
+    assertThrows(IllegalArgumentException.class, () -> RoleAuthorities.toMask(Set.of("ROOT")));
+    assertThrows(IllegalArgumentException.class, () -> RoleAuthorities.authorities(1 << 3));
+    assertThrows(IllegalArgumentException.class, () -> new AuthenticatedUser(1L, -1, null, null));
+  }
+}
@@ -0,0 +1,142 @@
+package com.payflow.security;
+
+import com.payflow.config.JwtProperties;
+import com.payflow.entity.RevokedToken;
+import com.payflow.repository.IRevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTest {
+
+  private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+  private IRevokedTokenRepository revokedTokenRepository;
+  private SimpleMeterRegistry meterRegistry;
+  private TokenRevocationList revocationList;
+
+  @BeforeEach
+  void setUp() {
+    revokedTokenRepository = mock(IRevokedTokenRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    JwtProperties jwtProperties = new JwtProperties();
+    jwtProperties.setRevocationExpectedEntries(1000);
+    revocationList = new TokenRevocationList(revokedTokenRepository, jwtProperties,
+        mock(PlatformTransactionManager.class), meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void shouldRejectUsersAndTokensLoadedFromTable() {
+    when(revokedTokenRepository.findActive(any())).thenReturn(List.of(
+        RevokedToken.builder().userId(7L).revokedBefore(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC)).build(),
+        RevokedToken.builder().userId(8L).tokenId("used-refresh-token").expiresAt(LocalDateTime.MAX).build()));
+
+    revocationList.reload();
+
+    assertTrue(revocationList.isRevoked(principal(7L)));
+    assertFalse(revocationList.isRevoked(principal(8L)));
+    assertTrue(revocationList.isRevoked(refreshToken("used-refresh-token", 8L)));
+    assertFalse(revocationList.isRevoked(refreshToken("new-refresh-token", 8L)));
+    assertTrue(revocationList.isRevoked(refreshToken("new-refresh-token", 7L)));
+    assertEquals(2, revocationList.size());
+    verify(revokedTokenRepository).deleteExpired(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  void shouldAnswerUnrevokedTokensFromBloomFilter() {
+    revocationList.reload();
+
+    for (long userId = 1; userId <= 100; userId++) {
+      assertFalse(revocationList.isRevoked(principal(userId)));
+    }
+
+    assertEquals(0.0, meterRegistry.get("jwt.revocation.check").tag("result", "revoked").counter().count());
+    assertEquals(100.0,
+        meterRegistry.get("jwt.revocation.check").tag("result", "clear").counter().count()
+            + meterRegistry.get("jwt.revocation.check").tag("result", "false_positive").counter().count());
+  }
+
+  @Test
+  void shouldApplyRevocationOnlyAfterCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    revocationList.revokeUser(7L);
+
+    verify(revokedTokenRepository).save(any(RevokedToken.class));
+    assertFalse(revocationList.isRevoked(principal(7L)));
+    for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCommit();
+    }
+    assertTrue(revocationList.isRevoked(principal(7L)));
+  }
+
+  @Test
+  void shouldOnlyRejectTokensIssuedBeforeUserRevocation() {
+    revocationList.revokeUser(7L);
+
+    assertTrue(revocationList.isRevoked(principal(7L)));
+    assertTrue(revocationList.isRevoked(refreshToken("old-refresh-token", 7L)));
+    assertTrue(revocationList.isRevoked(new AuthenticatedUser(7L, 1, null, NOW.plusSeconds(900))));
+    assertFalse(revocationList.isRevoked(new AuthenticatedUser(7L, 1, NOW.plusSeconds(1), NOW.plusSeconds(900))));
+    assertFalse(revocationList.isRevoked(new RefreshToken("new-refresh-token", 7L, NOW.plusSeconds(1),
+        NOW.plusSeconds(3600))));
+  }
+
+  @Test
+  void shouldMoveCutoffOfExistingUserRevocation() {
+    RevokedToken existing = RevokedToken.builder().userId(7L)
+        .revokedAt(LocalDateTime.ofInstant(NOW.minusSeconds(3600), ZoneOffset.UTC))
+        .revokedBefore(LocalDateTime.ofInstant(NOW.minusSeconds(3600), ZoneOffset.UTC))
+        .build();
+    when(revokedTokenRepository.findUserRevocations(7L)).thenReturn(List.of(existing));
+
+    revocationList.revokeUser(7L);
+
+    verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    assertEquals(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC), existing.getRevokedBefore());
+    assertEquals(LocalDateTime.ofInstant(NOW.plusMillis(new JwtProperties().getRefreshExpiration()), ZoneOffset.UTC),
+        existing.getExpiresAt());
+    assertTrue(revocationList.isRevoked(principal(7L)));
+  }
+
+  @Test
+  void shouldRevokeSingleRefreshTokenUntilItExpires() {
+    RefreshToken token = refreshToken("refresh-token", 8L);
+
+    revocationList.revokeToken(token);
+
+    verify(revokedTokenRepository).saveAndFlush(argThat(row -> "refresh-token".equals(row.getTokenId())
+        && row.getExpiresAt().equals(LocalDateTime.ofInstant(token.expiresAt(), ZoneOffset.UTC))));
+    assertTrue(revocationList.isRevoked(token));
+    assertFalse(revocationList.isRevoked(principal(8L)));
+  }
+
+  private static AuthenticatedUser principal(long userId) {
+    return new AuthenticatedUser(userId, 1, NOW.minusSeconds(60), NOW.plusSeconds(900));
+  }
+
+  private static RefreshToken refreshToken(String tokenId, long userId) {
+    return new RefreshToken(tokenId, userId, NOW.minusSeconds(60), NOW.plusSeconds(3600));
+  }
+}
@@ -0,0 +1,130 @@
+package com.payflow.security;
+
+import com.payflow.config.JwtProperties;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+  private JwtTokenProvider jwtTokenProvider;
+  private JwtProperties jwtProperties;
+  private SimpleMeterRegistry meterRegistry;
+  private MutableClock clock;
+  private AuthenticatedUser principal;
+
+  @BeforeEach
+  void setUp() {
+    jwtTokenProvider = mock(JwtTokenProvider.class);
+    jwtProperties = new JwtProperties();
+    meterRegistry = new SimpleMeterRegistry();
+    clock = new MutableClock();
+    principal = new AuthenticatedUser(123L, RoleAuthorities.toMask(Set.of("USER")), clock.instant(),
+        clock.instant().plusSeconds(60));
+  }
+
+  private VerifiedTokenCache newCache() {
+    return new VerifiedTokenCache(jwtTokenProvider, jwtProperties, meterRegistry, clock);
+  }
+
+  @Test
+  void shouldVerifyTokenOnlyOnce() {
+    when(jwtTokenProvider.parseToken("token")).thenReturn(principal);
+    VerifiedTokenCache cache = newCache();
+
+    assertSame(principal, cache.verify("token"));
+    assertSame(principal, cache.verify("token"));
+
+    verify(jwtTokenProvider, times(1)).parseToken("token");
+    assertEquals(1.0, meterRegistry.get("jwt.verification.cache").tag("result", "hit").counter().count());
+    assertEquals(1.0, meterRegistry.get("jwt.verification.cache").tag("result", "miss").counter().count());
+  }
+
+  @Test
+  void shouldNotServeCachedPrincipalAfterTokenExpiry() {
+    when(jwtTokenProvider.parseToken("token"))
+        .thenReturn(principal)
+        .thenThrow(new ExpiredJwtException(null, null, "JWT expired"));
+    VerifiedTokenCache cache = newCache();
+    cache.verify("token");
+
+    clock.advanceSeconds(60);
+
+    assertNull(cache.verify("token"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldNotCacheInvalidTokens() {
+    when(jwtTokenProvider.parseToken("forged")).thenThrow(new MalformedJwtException("bad"));
+    VerifiedTokenCache cache = newCache();
+
+    assertNull(cache.verify("forged"));
+    assertNull(cache.verify("forged"));
+    assertNull(cache.verify(""));
+
+    verify(jwtTokenProvider, times(2)).parseToken("forged");
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldKeepOnlyMaxEntriesTokens() {
+    jwtProperties.setVerifiedTokenCacheMaxEntries(1);
+    when(jwtTokenProvider.parseToken(anyString())).thenReturn(principal);
+    VerifiedTokenCache cache = newCache();
+
+    cache.verify("first");
+    cache.verify("second");
+    cache.verify("first");
+
+    assertEquals(1, cache.size());
+    verify(jwtTokenProvider, times(2)).parseToken("first");
+  }
+
+  @Test
+  void shouldVerifyEveryRequestWhenDisabled() {
+    jwtProperties.setVerifiedTokenCacheMaxEntries(0);
+    when(jwtTokenProvider.parseToken("token")).thenReturn(principal);
+    VerifiedTokenCache cache = newCache();
+
+    cache.verify("token");
+    cache.verify("token");
+
+    verify(jwtTokenProvider, times(2)).parseToken("token");
+    assertEquals(0, cache.size());
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advanceSeconds(long seconds) {
+      now = now.plusSeconds(seconds);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
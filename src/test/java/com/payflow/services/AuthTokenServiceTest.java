@@ -0,0 +1,113 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.payflow.entity.Role;
+import com.payflow.entity.User;
+import com.payflow.exception.UnauthorizedException;
+import com.payflow.security.JwtTokenProvider;
+import com.payflow.security.RefreshToken;
+import com.payflow.security.TokenRevocationList;
+
+import io.jsonwebtoken.MalformedJwtException;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Auth token service tests")
+class AuthTokenServiceTest {
+
+  @Mock
+  private UserService userService;
+  @Mock
+  private JwtTokenProvider jwtTokenProvider;
+  @Mock
+  private TokenRevocationList tokenRevocationList;
+  @InjectMocks
+  private AuthTokenService authTokenService;
+
+  private User user;
+  private RefreshToken refreshToken;
+
+  @BeforeEach
+  void setUp() {
+    user = User.builder()
+        .email("test@example.com")
+        .password("encoded_password")
+        .fullName("Test User")
+        .enabled(true)
+        .roles(Set.of(new Role("USER")))
+        .build();
+    user.setId(1L);
+    refreshToken = new RefreshToken("token-id", 1L, Instant.now(), Instant.now().plusSeconds(3600));
+  }
+
+  @Test
+  void shouldRotateRefreshToken() {
+    when(jwtTokenProvider.parseRefreshToken("refresh")).thenReturn(refreshToken);
+    when(userService.findById(1L)).thenReturn(Optional.of(user));
+    when(jwtTokenProvider.generateToken(1L, Set.of("USER"))).thenReturn("new-access");
+    when(jwtTokenProvider.generateRefreshToken(1L)).thenReturn("new-refresh");
+
+    AuthTokens tokens = authTokenService.refresh("refresh");
+
+    assertEquals("new-access", tokens.accessToken());
+    assertEquals("new-refresh", tokens.refreshToken());
+    assertSame(user, tokens.user());
+    verify(tokenRevocationList).revokeToken(refreshToken);
+  }
+
+  @Test
+  void shouldRejectInvalidRefreshToken() {
+    when(jwtTokenProvider.parseRefreshToken("forged")).thenThrow(new MalformedJwtException("bad"));
+
+    assertThrows(UnauthorizedException.class, () -> authTokenService.refresh("forged"));
+
+    verify(tokenRevocationList, never()).revokeToken(any());
+  }
+
+  @Test
+  void shouldRejectRevokedRefreshToken() {
+    when(jwtTokenProvider.parseRefreshToken("refresh")).thenReturn(refreshToken);
+    when(tokenRevocationList.isRevoked(refreshToken)).thenReturn(true);
+
+    assertThrows(UnauthorizedException.class, () -> authTokenService.refresh("refresh"));
+
+    verify(userService, never()).findById(any());
+  }
+
+  @Test
+  void shouldRejectRefreshForDisabledUser() {
+    user.setEnabled(false);
+    when(jwtTokenProvider.parseRefreshToken("refresh")).thenReturn(refreshToken);
+    when(userService.findById(1L)).thenReturn(Optional.of(user));
+
+    assertThrows(UnauthorizedException.class, () -> authTokenService.refresh("refresh"));
+
+    verify(jwtTokenProvider, never()).generateRefreshToken(any());
+  }
+
+  @Test
+  void shouldRejectRefreshTokenUsedConcurrently() {
+    when(jwtTokenProvider.parseRefreshToken("refresh")).thenReturn(refreshToken);
+    when(userService.findById(1L)).thenReturn(Optional.of(user));
+    doThrow(new DataIntegrityViolationException("duplicate")).when(tokenRevocationList).revokeToken(refreshToken);
+
+    assertThrows(UnauthorizedException.class, () -> authTokenService.refresh("refresh"));
+
+    verify(jwtTokenProvider, never()).generateRefreshToken(any());
+  }
+}
@@ -0,0 +1,117 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.config.BulkDepositProperties;
+import com.payflow.dto.v1.response.BulkDepositResult;
+import com.payflow.entity.Transaction;
+import com.payflow.entity.User;
+
+import jakarta.persistence.EntityManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Bulk deposit service tests")
+class BulkDepositServiceTest {
+
+  private TransactionService transactionService;
+  private BulkDepositProperties bulkDepositProperties;
+  private EntityManager entityManager;
+  private BulkDepositService bulkDepositService;
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    transactionService = mock(TransactionService.class);
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    bulkDepositProperties = new BulkDepositProperties();
+    bulkDepositProperties.setChunkSize(2);
+    entityManager = mock(EntityManager.class);
+    bulkDepositService = new BulkDepositService(transactionService, transactionManager, new ObjectMapper(),
+        bulkDepositProperties, entityManager);
+    user = User.builder().id(1L).email("test@example.com").build();
+
+    when(transactionService.deposit(eq(user), anyString(), any(BigDecimal.class), anyString()))
+        .thenAnswer(invocation -> Transaction.builder()
+            .transactionId("TXN-" + invocation.getArgument(3))
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .build());
+  }
+
+  private List<List<BulkDepositResult>> ingest(String body) throws IOException {
+    List<List<BulkDepositResult>> chunks = new ArrayList<>();
+    bulkDepositService.ingest(user, new StringReader(body), chunks::add);
+    return chunks;
+  }
+
+  private static String line(String key, String currency, String amount) {
+    return "{\"idempotencyKey\":\"" + key + "\",\"currency\":\"" + currency + "\",\"amount\":" + amount + "}\n";
+  }
+
+  @Test
+  void shouldApplyLinesInChunks() throws IOException {
+    String body = line("a", "USD", "10.00") + line("b", "USD", "20.00") + line("c", "EUR", "5.00");
+
+    List<List<BulkDepositResult>> chunks = ingest(body);
+
+    assertEquals(2, chunks.size());
+    assertEquals(2, chunks.get(0).size());
+    assertEquals("TXN-c", chunks.get(1).get(0).transactionId());
+    assertEquals(3, chunks.get(1).get(0).line());
+    verify(transactionService).deposit(user, "EUR", new BigDecimal("5.00"), "c");
+    verify(entityManager, times(2)).clear();
+  }
+
+  @Test
+  void shouldReportInvalidLinesWithoutApplyingThem() throws IOException {
+    String body = "not json\n" + line("a", "USD", "-1") + "\n" + line("b", "USD", "1.00");
+
+    List<BulkDepositResult> results = ingest(body).stream().flatMap(List::stream).toList();
+
+    assertEquals(3, results.size());
+    assertEquals("Malformed line", results.get(0).error());
+    assertEquals("Amount must be greater than zero", results.get(1).error());
+    assertEquals(4, results.get(2).line());
+    assertNull(results.get(2).error());
+    verify(transactionService, times(1)).deposit(any(), any(), any(), any());
+  }
+
+  @Test
+  void shouldFailOnlyOffendingLineWhenChunkFails() throws IOException {
+    when(transactionService.deposit(user, "USD", new BigDecimal("20.00"), "b"))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"));
+    String body = line("a", "USD", "10.00") + line("b", "USD", "20.00");
+
+    List<BulkDepositResult> results = ingest(body).get(0);
+
+    assertNull(results.get(0).error());
+    assertEquals("Deposit failed", results.get(1).error());
+    verify(transactionService, times(2)).deposit(user, "USD", new BigDecimal("10.00"), "a");
+  }
+
+  @Test
+  void shouldRejectOversizedLine() throws IOException {
+    bulkDepositProperties.setMaxLineLength(64);
+    String body = line("a".repeat(100), "USD", "1.00") + line("b", "USD", "1.00");
+
+    List<BulkDepositResult> results = ingest(body).get(0);
+
+    assertEquals("Line exceeds maximum length", results.get(0).error());
+    assertNull(results.get(1).error());
+  }
+}
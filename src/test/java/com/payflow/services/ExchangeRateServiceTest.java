@@ -1,20 +1,127 @@
 package com.payflow.services;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
 
+import com.payflow.config.ExchangeRateProperties;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ExchangeRateServiceTest {
 
   private ExchangeRateService exchangeRateService;
+  private HttpServer stubServer;
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+  private volatile boolean upstreamDown;
 
   @BeforeEach
   void setUp() {
-    exchangeRateService = new ExchangeRateService();
+    ExchangeRateProperties properties = new ExchangeRateProperties();
+    properties.setApiUrl("http://localhost");
+    properties.setProviderEnabled(false);
+    exchangeRateService = new ExchangeRateService(properties,
+        new ExchangeRateClient(properties, RestClient.builder()), new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (stubServer != null) {
+      stubServer.stop(0);
+    }
+  }
+
+  private ExchangeRateService providerBackedService(MutableClock clock) throws IOException {
+    stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    stubServer.createContext("/latest/USD", exchange -> {
+      upstreamCalls.incrementAndGet();
+      byte[] body = "{\"base\":\"USD\",\"rates\":{\"USD\":1,\"EUR\":0.91,\"JPY\":151.2}}"
+          .getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(upstreamDown ? 503 : 200, upstreamDown ? -1 : body.length);
+      if (!upstreamDown) {
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      }
+      exchange.close();
+    });
+    stubServer.start();
+
+    ExchangeRateProperties properties = new ExchangeRateProperties();
+    properties.setApiUrl("http://localhost:" + stubServer.getAddress().getPort() + "/latest");
+    properties.setCurrencies(List.of("USD"));
+    properties.setCacheDurationMinutes(4);
+    properties.setMaxStaleMinutes(30);
+    return new ExchangeRateService(properties, new ExchangeRateClient(properties, RestClient.builder()),
+        new SimpleMeterRegistry(), clock);
+  }
+
+  @Test
+  void shouldServeProviderRatesWithoutCallingUpstreamOnLookup() throws IOException {
+    ExchangeRateService service = providerBackedService(new MutableClock());
+
+    assertFalse(service.hasExchangeRate("USD", "EUR"));
+
+    service.refreshDue();
+
+    assertEquals(new BigDecimal("0.91"), service.getExchangeRate("USD", "EUR"));
+    assertEquals(new BigDecimal("151.2"), service.getExchangeRate("USD", "JPY"));
+    assertFalse(service.hasExchangeRate("USD", "MXN"));
+    assertEquals(1, upstreamCalls.get());
+  }
+
+  @Test
+  void shouldRefreshOnlyOnceRatesAreDueForRefreshAhead() throws IOException {
+    MutableClock clock = new MutableClock();
+    ExchangeRateService service = providerBackedService(clock);
+    service.refreshDue();
+
+    clock.advanceMinutes(2);
+    service.refreshDue();
+    assertEquals(1, upstreamCalls.get());
+
+    clock.advanceMinutes(1);
+    service.refreshDue();
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void shouldServeStaleRatesWhileProviderIsDownUntilMaxStaleness() throws IOException {
+    MutableClock clock = new MutableClock();
+    ExchangeRateService service = providerBackedService(clock);
+    service.refreshDue();
+    upstreamDown = true;
+
+    clock.advanceMinutes(20);
+    service.refreshDue();
+    assertEquals(new BigDecimal("0.91"), service.getExchangeRate("USD", "EUR"));
+
+    clock.advanceMinutes(11);
+    service.refreshDue();
+    assertFalse(service.hasExchangeRate("USD", "EUR"));
+    assertThrows(IllegalArgumentException.class, () -> service.getExchangeRate("USD", "EUR"));
+
+    upstreamDown = false;
+    service.refreshDue();
+    assertTrue(service.hasExchangeRate("USD", "EUR"));
   }
 
   @Test
@@ -72,4 +179,27 @@ class ExchangeRateServiceTest {
 
     assertEquals(rate1, rate2, "Same exchange rate should be returned for repeated calls");
   }
+
+  private static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advanceMinutes(long minutes) {
+      now = now.plusSeconds(minutes * 60);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
 }
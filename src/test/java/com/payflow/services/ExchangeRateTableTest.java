@@ -0,0 +1,93 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExchangeRateTableTest {
+
+  private static ExchangeRateTable.Snapshot snapshot(long quotedAt, Object... pairs) {
+    Map<String, BigDecimal> rates = new HashMap<>();
+    for (int i = 0; i < pairs.length; i += 2) {
+      rates.put((String) pairs[i], new BigDecimal((String) pairs[i + 1]));
+    }
+    return new ExchangeRateTable.Snapshot(rates, quotedAt);
+  }
+
+  private static BigDecimal rate(ExchangeRateTable table, String from, String to) {
+    int cell = table.cell(from, to);
+    return cell < 0 ? null : table.rate(cell);
+  }
+
+  @Test
+  void shouldServeQuotedPairsDirectly() {
+    ExchangeRateTable table = ExchangeRateTable.build(Map.of(
+        "USD", snapshot(1000L, "USD", "1", "EUR", "0.92", "JPY", "151.2")), null, 1L, 0L);
+
+    assertEquals(3, table.currencyCount());
+    assertEquals(new BigDecimal("0.92"), rate(table, "USD", "EUR"));
+    assertEquals(1000L, table.quotedAt(table.cell("USD", "JPY")));
+    assertNull(rate(table, "EUR", "JPY"));
+    assertNull(rate(table, "USD", "USD"));
+    assertEquals(-1, table.cell("USD", "GBP"));
+  }
+
+  @Test
+  void shouldTriangulateMissingPairsThroughPivot() {
+    ExchangeRateTable table = ExchangeRateTable.build(Map.of(
+        "USD", snapshot(2000L, "EUR", "0.80", "JPY", "150"),
+        "EUR", snapshot(1000L, "USD", "1.25", "MXN", "20")), "USD", 1L, 0L);
+
+    assertEquals(new BigDecimal("187.50"), rate(table, "EUR", "JPY"));
+    assertEquals(new BigDecimal("0.005333333333"), rate(table, "JPY", "EUR"));
+    assertEquals(new BigDecimal("0.006666666667"), rate(table, "JPY", "USD"));
+    assertEquals(new BigDecimal("20"), rate(table, "EUR", "MXN"));
+    assertNull(rate(table, "USD", "MXN"));
+    assertEquals(1000L, table.quotedAt(table.cell("EUR", "JPY")));
+    assertEquals(2000L, table.quotedAt(table.cell("JPY", "USD")));
+  }
+
+  @Test
+  void shouldNotTriangulateWithUnknownPivot() {
+    ExchangeRateTable table = ExchangeRateTable.build(Map.of(
+        "USD", snapshot(1000L, "EUR", "0.80", "JPY", "150")), "GBP", 1L, 0L);
+
+    assertNull(rate(table, "EUR", "JPY"));
+    assertSame(-1, ExchangeRateTable.EMPTY.cell("USD", "EUR"));
+  }
+
+  @Test
+  void shouldDropCodesOutsideTheCurrencyRegistry() {
+    ExchangeRateTable table = ExchangeRateTable.build(Map.of(
+        "USD", snapshot(1000L, "EUR", "0.92", "BTC", "0.000016", "XAU", "0.0004")), null, 1L, 0L);
+
+    assertEquals(2, table.currencyCount());
+    assertEquals(-1, table.cell("USD", "BTC"));
+    assertEquals(-1, table.cell("USD", "NOEXIST"));
+    assertEquals(new BigDecimal("0.92"), rate(table, "usd", "EUR"));
+  }
+
+  @Test
+  void shouldRoundLargeAndSmallRatesToTransactionColumnScale() {
+    ExchangeRateTable table = ExchangeRateTable.build(Map.of(
+        "USD", snapshot(1000L, "IDR", "16250.12345678901234", "VND", "25430", "EUR", "0.80")), "USD", 1L, 0L);
+
+    assertEquals(new BigDecimal("16250.123456789012"), rate(table, "USD", "IDR"));
+    assertEquals(new BigDecimal("25430"), rate(table, "USD", "VND"));
+    assertEquals(new BigDecimal("0.000061537994"), rate(table, "IDR", "USD"));
+    assertEquals(new BigDecimal("31787.50"), rate(table, "EUR", "VND"));
+    for (String from : new String[] {"USD", "EUR", "IDR", "VND"}) {
+      for (String to : new String[] {"USD", "EUR", "IDR", "VND"}) {
+        BigDecimal rate = rate(table, from, to);
+        if (rate != null) {
+          assertTrue(rate.scale() <= ExchangeRateTable.RATE_SCALE, from + "->" + to);
+          assertTrue(rate.precision() - rate.scale() <= 12, from + "->" + to);
+        }
+      }
+    }
+  }
+}
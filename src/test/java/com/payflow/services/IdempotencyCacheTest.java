@@ -0,0 +1,156 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.payflow.config.IdempotencyProperties;
+import com.payflow.entity.Transaction;
+import com.payflow.repository.IIdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Idempotency cache tests")
+class IdempotencyCacheTest {
+
+  private IdempotencyProperties idempotencyProperties;
+  private IIdempotencyRecordRepository recordRepository;
+  private PlatformTransactionManager transactionManager;
+  private SimpleMeterRegistry meterRegistry;
+  private MutableClock clock;
+
+  @BeforeEach
+  void setUp() {
+    idempotencyProperties = new IdempotencyProperties();
+    idempotencyProperties.setCacheTtlMinutes(10);
+    recordRepository = mock(IIdempotencyRecordRepository.class);
+    transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    meterRegistry = new SimpleMeterRegistry();
+    clock = new MutableClock();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private IdempotencyCache newCache() {
+    return new IdempotencyCache(idempotencyProperties, recordRepository, transactionManager, meterRegistry,
+        clock);
+  }
+
+  private static Transaction transaction(String key) {
+    return Transaction.builder().transactionId("TXN-" + key).idempotencyKey(key).build();
+  }
+
+  @Test
+  void shouldReturnCachedTransactionAndCountHits() {
+    IdempotencyCache cache = newCache();
+    Transaction transaction = transaction("key-1");
+
+    cache.put(transaction, "hash-1");
+
+    assertEquals(transaction, cache.get("key-1").orElseThrow().transaction());
+    assertEquals("hash-1", cache.get("key-1").orElseThrow().requestHash());
+    assertTrue(cache.get("key-2").isEmpty());
+    assertEquals(2.0, meterRegistry.get("idempotency.cache").tag("result", "hit").counter().count());
+    assertEquals(1.0, meterRegistry.get("idempotency.cache").tag("result", "miss").counter().count());
+  }
+
+  @Test
+  void shouldExpireEntriesAfterTtl() {
+    IdempotencyCache cache = newCache();
+    cache.put(transaction("key-1"), "hash");
+
+    clock.advanceMinutes(11);
+
+    assertTrue(cache.get("key-1").isEmpty());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntries() {
+    idempotencyProperties.setCacheMaxEntries(2);
+    IdempotencyCache cache = newCache();
+    cache.put(transaction("key-1"), "hash");
+    cache.put(transaction("key-2"), "hash");
+    cache.get("key-1");
+
+    cache.put(transaction("key-3"), "hash");
+
+    assertTrue(cache.get("key-1").isPresent());
+    assertTrue(cache.get("key-2").isEmpty());
+  }
+
+  @Test
+  void shouldOnlyCacheAfterCommit() {
+    IdempotencyCache cache = newCache();
+    TransactionSynchronizationManager.initSynchronization();
+
+    cache.put(transaction("key-1"), "hash");
+    assertTrue(cache.get("key-1").isEmpty());
+
+    for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCommit();
+    }
+    assertTrue(cache.get("key-1").isPresent());
+  }
+
+  @Test
+  void shouldReportKeysMissingFromBloomFilterAsDefinitelyNew() {
+    idempotencyProperties.setBloomFilterEnabled(true);
+    idempotencyProperties.setBloomExpectedKeys(1000L);
+    when(recordRepository.streamActiveKeys(any())).thenReturn(Stream.of("existing-key"));
+    IdempotencyCache cache = newCache();
+
+    assertFalse(cache.isDefinitelyNew("fresh-key"));
+
+    cache.warmUp();
+
+    assertTrue(cache.isDefinitelyNew("fresh-key"));
+    assertFalse(cache.isDefinitelyNew("existing-key"));
+    cache.put(transaction("fresh-key"), "hash");
+    assertFalse(cache.isDefinitelyNew("fresh-key"));
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advanceMinutes(long minutes) {
+      now = now.plusSeconds(minutes * 60);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
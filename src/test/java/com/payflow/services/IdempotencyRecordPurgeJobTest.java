@@ -0,0 +1,97 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.payflow.config.IdempotencyProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Idempotency record purge job tests")
+class IdempotencyRecordPurgeJobTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+  private JdbcTemplate jdbcTemplate;
+  private SimpleMeterRegistry meterRegistry;
+  private IdempotencyRecordPurgeJob job;
+
+  @BeforeEach
+  void setUp() {
+    IdempotencyProperties idempotencyProperties = new IdempotencyProperties();
+    idempotencyProperties.setRecordTtlHours(24);
+    jdbcTemplate = mock(JdbcTemplate.class);
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    meterRegistry = new SimpleMeterRegistry();
+    Clock clock = Clock.fixed(Instant.parse("2026-03-10T12:00:00Z"), ZoneOffset.UTC);
+    job = new IdempotencyRecordPurgeJob(idempotencyProperties, jdbcTemplate, transactionManager, meterRegistry,
+        clock);
+  }
+
+  private void givenPartitions(String... partitions) {
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(IdempotencyRecordPurgeJob.TABLE)))
+        .thenReturn(List.of(partitions));
+  }
+
+  @Test
+  void shouldRoundTripPartitionNames() {
+    assertEquals("idempotency_keys_p20260310", IdempotencyRecordPurgeJob.partitionName(TODAY));
+    assertEquals(TODAY, IdempotencyRecordPurgeJob.partitionDay("idempotency_keys_p20260310"));
+    assertNull(IdempotencyRecordPurgeJob.partitionDay(IdempotencyRecordPurgeJob.DEFAULT_PARTITION));
+  }
+
+  @Test
+  void shouldDropOnlyFullyExpiredPartitions() {
+    givenPartitions(
+        "idempotency_keys_p20260308",
+        "idempotency_keys_p20260309",
+        "idempotency_keys_p20260310",
+        "idempotency_keys_p20260311",
+        "idempotency_keys_p20260312",
+        IdempotencyRecordPurgeJob.DEFAULT_PARTITION);
+
+    job.purge();
+
+    verify(jdbcTemplate).execute("DROP TABLE IF EXISTS idempotency_keys_p20260308");
+    verify(jdbcTemplate).execute("DROP TABLE IF EXISTS idempotency_keys_p20260309");
+    verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS idempotency_keys_p20260310");
+    verify(jdbcTemplate).update(anyString(), eq(LocalDateTime.of(2026, 3, 10, 12, 0)));
+    assertEquals(2.0, meterRegistry.get("idempotency.purge.partitions").tag("action", "dropped").counter().count());
+  }
+
+  @Test
+  void shouldCreatePartitionsCoveringTtlWindow() {
+    givenPartitions("idempotency_keys_p20260310", IdempotencyRecordPurgeJob.DEFAULT_PARTITION);
+
+    job.purge();
+
+    verify(jdbcTemplate, never()).execute(
+        "CREATE TABLE idempotency_keys_p20260310 (LIKE idempotency_keys INCLUDING DEFAULTS)");
+    verify(jdbcTemplate).execute(
+        "CREATE TABLE idempotency_keys_p20260311 (LIKE idempotency_keys INCLUDING DEFAULTS)");
+    verify(jdbcTemplate).execute(
+        "CREATE TABLE idempotency_keys_p20260312 (LIKE idempotency_keys INCLUDING DEFAULTS)");
+    verify(jdbcTemplate).update(anyString(), eq("2026-03-11"), eq("2026-03-12"));
+    verify(jdbcTemplate).execute("ALTER TABLE idempotency_keys ATTACH PARTITION idempotency_keys_p20260311 "
+        + "FOR VALUES FROM ('2026-03-11') TO ('2026-03-12')");
+    assertEquals(2.0, meterRegistry.get("idempotency.purge.partitions").tag("action", "created").counter().count());
+  }
+}
@@ -0,0 +1,108 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.payflow.config.IdempotencyProperties;
+import com.payflow.entity.IdempotencyRecord;
+import com.payflow.entity.Transaction;
+import com.payflow.entity.User;
+import com.payflow.entity.Wallet;
+import com.payflow.exception.IdempotencyKeyReuseException;
+import com.payflow.repository.IIdempotencyRecordRepository;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Idempotency record store tests")
+class IdempotencyRecordStoreTest {
+
+  private static final Instant NOW = Instant.parse("2026-03-01T10:15:00Z");
+
+  private IIdempotencyRecordRepository recordRepository;
+  private IdempotencyProperties idempotencyProperties;
+  private IdempotencyRecordStore store;
+
+  @BeforeEach
+  void setUp() {
+    recordRepository = mock(IIdempotencyRecordRepository.class);
+    idempotencyProperties = new IdempotencyProperties();
+    idempotencyProperties.setRecordTtlHours(6);
+    store = new IdempotencyRecordStore(recordRepository, idempotencyProperties, Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  void shouldHashEqualAmountsWithDifferentScaleTheSame() {
+    assertEquals(
+        IdempotencyRecordStore.requestHash(Transaction.TransactionType.DEPOSIT, 1L, "USD", new BigDecimal("100"),
+            null, null),
+        IdempotencyRecordStore.requestHash(Transaction.TransactionType.DEPOSIT, 1L, "USD", new BigDecimal("100.00"),
+            null, null));
+  }
+
+  @Test
+  void shouldHashDifferentPayloadsDifferently() {
+    String transfer = IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER, 1L, "USD",
+        new BigDecimal("10.00"), 2L, "EUR");
+
+    assertNotEquals(transfer, IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER, 1L, "USD",
+        new BigDecimal("10.00"), 3L, "EUR"));
+    assertNotEquals(transfer, IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER, 1L, "USD",
+        new BigDecimal("10.01"), 2L, "EUR"));
+    assertNotEquals(transfer, IdempotencyRecordStore.requestHash(Transaction.TransactionType.DEPOSIT, 1L, "USD",
+        new BigDecimal("10.00"), null, null));
+    assertNotEquals(transfer, IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER, 4L, "USD",
+        new BigDecimal("10.00"), 2L, "EUR"));
+  }
+
+  @Test
+  void shouldRecordTransactionWithTtl() {
+    User recipient = User.builder().id(2L).build();
+    Wallet wallet = Wallet.builder().id(1L).user(User.builder().id(1L).build()).build();
+    Transaction transaction = Transaction.builder()
+        .id(42L)
+        .wallet(wallet)
+        .type(Transaction.TransactionType.TRANSFER)
+        .amount(new BigDecimal("10.00"))
+        .currency("USD")
+        .recipientCurrency("EUR")
+        .recipientUser(recipient)
+        .idempotencyKey("key-1")
+        .build();
+
+    String requestHash = IdempotencyRecordStore.requestHash(Transaction.TransactionType.TRANSFER, 1L, "USD",
+        new BigDecimal("10"), 2L, "EUR");
+    store.record(transaction, requestHash);
+
+    ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+    verify(recordRepository).save(captor.capture());
+    IdempotencyRecord record = captor.getValue();
+    assertEquals("key-1", record.getIdempotencyKey());
+    assertEquals(42L, record.getResponseTransactionId());
+    assertEquals(LocalDateTime.of(2026, 3, 1, 16, 15), record.getExpiresAt());
+    assertEquals(requestHash, record.getRequestHash());
+    assertEquals(requestHash, IdempotencyRecordStore.requestHash(transaction));
+  }
+
+  @Test
+  void shouldNotRecordTransactionWithoutKey() {
+    store.record(Transaction.builder().id(1L).type(Transaction.TransactionType.DEPOSIT).build(), "hash");
+
+    verifyNoInteractions(recordRepository);
+  }
+
+  @Test
+  void shouldOnlyRejectKnownMismatchingHash() {
+    assertDoesNotThrow(() -> store.verify("key-1", "abc", "abc"));
+    assertDoesNotThrow(() -> store.verify("key-1", null, "abc"));
+    assertThrows(IdempotencyKeyReuseException.class, () -> store.verify("key-1", "abc", "def"));
+  }
+}
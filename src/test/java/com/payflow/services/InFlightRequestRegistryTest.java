@@ -0,0 +1,144 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.payflow.config.IdempotencyProperties;
+import com.payflow.exception.IdempotencyKeyReuseException;
+import com.payflow.exception.RequestInProgressException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("In-flight request registry tests")
+class InFlightRequestRegistryTest {
+
+  private IdempotencyProperties idempotencyProperties;
+  private SimpleMeterRegistry meterRegistry;
+  private InFlightRequestRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    idempotencyProperties = new IdempotencyProperties();
+    meterRegistry = new SimpleMeterRegistry();
+    registry = new InFlightRequestRegistry(idempotencyProperties, meterRegistry);
+  }
+
+  private CompletableFuture<Object> startBlocked(String key, CountDownLatch started, CountDownLatch release,
+      AtomicInteger executions, Object result) {
+    return CompletableFuture.supplyAsync(() -> registry.execute("deposit", key, "hash-1", () -> {
+      executions.incrementAndGet();
+      started.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (result instanceof RuntimeException failure) {
+        throw failure;
+      }
+      return result;
+    }));
+  }
+
+  @Test
+  void shouldReturnFirstResultToConcurrentDuplicate() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger executions = new AtomicInteger();
+    Object result = new Object();
+
+    CompletableFuture<Object> first = startBlocked("key-1", started, release, executions, result);
+    started.await(5, TimeUnit.SECONDS);
+    CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> registry.execute("deposit", "key-1",
+        "hash-1", () -> {
+          executions.incrementAndGet();
+          return new Object();
+        }));
+    while (meterRegistry.get("idempotency.inflight.coalesced").counter().count() == 0) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    assertSame(result, first.get(5, TimeUnit.SECONDS));
+    assertSame(result, second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, executions.get());
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  void shouldRejectConcurrentRequestWithDifferentPayload() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger executions = new AtomicInteger();
+    Object result = new Object();
+
+    CompletableFuture<Object> first = startBlocked("key-1", started, release, executions, result);
+    started.await(5, TimeUnit.SECONDS);
+    CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> registry.execute("deposit", "key-1",
+        "hash-2", () -> {
+          executions.incrementAndGet();
+          return new Object();
+        }));
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IdempotencyKeyReuseException.class, exception.getCause());
+    release.countDown();
+    assertSame(result, first.get(5, TimeUnit.SECONDS));
+    assertEquals(1, executions.get());
+    assertEquals(0.0, meterRegistry.get("idempotency.inflight.coalesced").counter().count());
+  }
+
+  @Test
+  void shouldPropagateFirstFailureToConcurrentDuplicate() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger executions = new AtomicInteger();
+
+    startBlocked("key-1", started, release, executions, new IllegalArgumentException("Insufficient balance"));
+    started.await(5, TimeUnit.SECONDS);
+    CompletableFuture<Object> second = CompletableFuture.supplyAsync(
+        () -> registry.execute("deposit", "key-1", "hash-1", Object::new));
+    while (meterRegistry.get("idempotency.inflight.coalesced").counter().count() == 0) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+  }
+
+  @Test
+  void shouldTimeOutWaitingForSlowRequest() throws Exception {
+    idempotencyProperties.setInFlightWaitMillis(50L);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    startBlocked("key-1", started, release, new AtomicInteger(), new Object());
+    started.await(5, TimeUnit.SECONDS);
+
+    assertThrows(RequestInProgressException.class,
+        () -> registry.execute("deposit", "key-1", "hash-1", Object::new));
+    release.countDown();
+  }
+
+  @Test
+  void shouldNotCoalesceDifferentOperationsOrKeys() {
+    AtomicInteger executions = new AtomicInteger();
+
+    registry.execute("deposit", "key-1", "hash-1", executions::incrementAndGet);
+    registry.execute("withdraw", "key-1", "hash-1", executions::incrementAndGet);
+    registry.execute("deposit", "key-2", "hash-1", executions::incrementAndGet);
+
+    assertEquals(3, executions.get());
+    assertEquals(0, registry.size());
+  }
+}
@@ -0,0 +1,86 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.payflow.config.WalletProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Optimistic retry executor tests")
+class OptimisticRetryExecutorTest {
+
+  private WalletProperties walletProperties;
+  private SimpleMeterRegistry meterRegistry;
+  private OptimisticRetryExecutor retryExecutor;
+
+  @BeforeEach
+  void setUp() {
+    walletProperties = new WalletProperties();
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.OPTIMISTIC);
+    walletProperties.setOptimisticMaxRetries(2);
+    walletProperties.setOptimisticBackoffMillis(0L);
+    meterRegistry = new SimpleMeterRegistry();
+    retryExecutor = new OptimisticRetryExecutor(walletProperties, meterRegistry);
+  }
+
+  @Test
+  void shouldRetryUntilSuccess() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    String result = retryExecutor.execute("deposit", () -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new OptimisticLockingFailureException("stale wallet");
+      }
+      return "ok";
+    });
+
+    assertEquals("ok", result);
+    assertEquals(3, attempts.get());
+    assertEquals(2.0, meterRegistry.get("wallet.optimistic.retries").tag("operation", "deposit").counter().count());
+  }
+
+  @Test
+  void shouldRethrowWhenRetriesExhausted() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThrows(OptimisticLockingFailureException.class, () -> retryExecutor.execute("transfer", () -> {
+      attempts.incrementAndGet();
+      throw new OptimisticLockingFailureException("stale wallet");
+    }));
+
+    assertEquals(3, attempts.get());
+    assertEquals(1.0, meterRegistry.get("wallet.optimistic.exhausted").tag("operation", "transfer").counter().count());
+  }
+
+  @Test
+  void shouldNotRetryOtherExceptions() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThrows(IllegalArgumentException.class, () -> retryExecutor.execute("withdraw", () -> {
+      attempts.incrementAndGet();
+      throw new IllegalArgumentException("Insufficient balance");
+    }));
+
+    assertEquals(1, attempts.get());
+  }
+
+  @Test
+  void shouldRunOnceOutsideOptimisticMode() {
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.PESSIMISTIC);
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThrows(OptimisticLockingFailureException.class, () -> retryExecutor.execute("deposit", () -> {
+      attempts.incrementAndGet();
+      throw new OptimisticLockingFailureException("stale wallet");
+    }));
+
+    assertEquals(1, attempts.get());
+  }
+}
@@ -0,0 +1,136 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.payflow.config.ExchangeRateProperties;
+import com.payflow.config.JwtProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Rate quote service tests")
+class RateQuoteServiceTest {
+
+  private MutableClock clock;
+  private ExchangeRateProperties exchangeRateProperties;
+  private JwtProperties jwtProperties;
+  private ExchangeRateClient exchangeRateClient;
+  private ExchangeRateService exchangeRateService;
+  private RateQuoteService rateQuoteService;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    exchangeRateProperties = new ExchangeRateProperties();
+    exchangeRateProperties.setCurrencies(List.of("USD"));
+    exchangeRateProperties.setCacheDurationMinutes(4);
+    exchangeRateProperties.setQuoteTtlSeconds(300);
+    jwtProperties = new JwtProperties();
+    jwtProperties.setSecret("test-secret-key-at-least-32-characters-long-for-testing-purposes");
+
+    exchangeRateClient = mock(ExchangeRateClient.class);
+    when(exchangeRateClient.fetchLatest("USD")).thenReturn(Map.of("EUR", new BigDecimal("0.90")));
+    exchangeRateService = new ExchangeRateService(exchangeRateProperties, exchangeRateClient,
+        new SimpleMeterRegistry(), clock);
+    exchangeRateService.refreshDue();
+    rateQuoteService = new RateQuoteService(exchangeRateService, exchangeRateProperties, jwtProperties, clock);
+  }
+
+  private void publishNewRates(String eurRate) {
+    when(exchangeRateClient.fetchLatest("USD")).thenReturn(Map.of("EUR", new BigDecimal(eurRate)));
+    clock.advanceSeconds(180);
+    exchangeRateService.refreshDue();
+  }
+
+  @Test
+  void shouldRedeemQuoteAtQuotedRateAfterRatesMove() {
+    RateQuoteService.Quote quote = rateQuoteService.quote(1L, "USD", "EUR");
+    publishNewRates("0.95");
+
+    assertEquals(new BigDecimal("0.95"), exchangeRateService.getExchangeRate("USD", "EUR"));
+    assertEquals(new BigDecimal("0.90"), rateQuoteService.redeem(quote.token(), 1L, "USD", "EUR"));
+    assertNotEquals(quote.snapshotId(), rateQuoteService.quote(1L, "USD", "EUR").snapshotId());
+  }
+
+  @Test
+  void shouldRejectQuoteForAnotherUserOrPair() {
+    String token = rateQuoteService.quote(1L, "USD", "EUR").token();
+
+    assertThrows(IllegalArgumentException.class, () -> rateQuoteService.redeem(token, 2L, "USD", "EUR"));
+    assertThrows(IllegalArgumentException.class, () -> rateQuoteService.redeem(token, 1L, "EUR", "USD"));
+  }
+
+  @Test
+  void shouldRejectTamperedOrMalformedToken() {
+    String token = rateQuoteService.quote(1L, "USD", "EUR").token();
+    String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+    assertThrows(IllegalArgumentException.class, () -> rateQuoteService.redeem(forged, 1L, "USD", "EUR"));
+    assertThrows(IllegalArgumentException.class, () -> rateQuoteService.redeem("garbage", 1L, "USD", "EUR"));
+    assertThrows(IllegalArgumentException.class, () -> rateQuoteService.redeem("a.%%", 1L, "USD", "EUR"));
+  }
+
+  @Test
+  void shouldRejectExpiredQuote() {
+    String token = rateQuoteService.quote(1L, "USD", "EUR").token();
+    clock.advanceSeconds(301);
+
+    assertThrows(IllegalArgumentException.class, () -> rateQuoteService.redeem(token, 1L, "USD", "EUR"));
+  }
+
+  @Test
+  void shouldRedeemQuoteAtQuotedRateOnNodeWithSameVersionNumber() {
+    RateQuoteService.Quote quote = rateQuoteService.quote(1L, "USD", "EUR");
+
+    ExchangeRateClient otherClient = mock(ExchangeRateClient.class);
+    when(otherClient.fetchLatest("USD")).thenReturn(Map.of("EUR", new BigDecimal("0.80")));
+    ExchangeRateService otherRates = new ExchangeRateService(exchangeRateProperties, otherClient,
+        new SimpleMeterRegistry(), clock);
+    otherRates.refreshDue();
+    RateQuoteService otherNode = new RateQuoteService(otherRates, exchangeRateProperties, jwtProperties, clock);
+
+    assertEquals(quote.snapshotId(), otherNode.quote(1L, "USD", "EUR").snapshotId());
+    assertEquals(new BigDecimal("0.90"), otherNode.redeem(quote.token(), 1L, "USD", "EUR"));
+  }
+
+  @Test
+  void shouldRejectQuoteForUnavailablePair() {
+    assertThrows(IllegalArgumentException.class, () -> rateQuoteService.quote(1L, "USD", "JPY"));
+    assertEquals(BigDecimal.ONE, rateQuoteService.quote(1L, "USD", "USD").exchangeRate());
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advanceSeconds(long seconds) {
+      now = now.plusSeconds(seconds);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.payflow.config.JournalProperties;
+import com.payflow.config.WalletProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Transaction journal tests")
+class TransactionJournalTest {
+
+  private JournalProperties journalProperties;
+  private WalletProperties walletProperties;
+  private PlatformTransactionManager transactionManager;
+  private SimpleMeterRegistry meterRegistry;
+  private TransactionJournal journal;
+
+  @BeforeEach
+  void setUp() {
+    journalProperties = new JournalProperties();
+    journalProperties.setEnabled(true);
+    journalProperties.setBatchSize(10);
+    journalProperties.setLingerMillis(200L);
+    walletProperties = new WalletProperties();
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.ATOMIC);
+    transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    meterRegistry = new SimpleMeterRegistry();
+    journal = new TransactionJournal(journalProperties, walletProperties, transactionManager, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    journal.stop();
+  }
+
+  private List<CompletableFuture<Integer>> submitConcurrently(int count, IntFunction<Integer> op) {
+    ExecutorService callers = Executors.newFixedThreadPool(count);
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int n = i;
+      futures.add(CompletableFuture.supplyAsync(() -> journal.execute(() -> op.apply(n)), callers));
+    }
+    callers.shutdown();
+    return futures;
+  }
+
+  @Test
+  void shouldRunInlineWhenDisabled() {
+    journalProperties.setEnabled(false);
+    journal.start();
+
+    assertEquals(42, journal.execute(() -> 42));
+    verifyNoInteractions(transactionManager);
+  }
+
+  @Test
+  void shouldCommitConcurrentOperationsTogether() throws Exception {
+    journal.start();
+
+    List<CompletableFuture<Integer>> futures = submitConcurrently(10, n -> n);
+
+    for (int i = 0; i < futures.size(); i++) {
+      assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS));
+    }
+    verify(transactionManager, atMost(3)).commit(any());
+    assertEquals(10, meterRegistry.get("journal.batch.size").summary().totalAmount());
+  }
+
+  @Test
+  void shouldFailOnlyTheThrowingOperationAndReplayTheRest() throws Exception {
+    journal.start();
+
+    List<CompletableFuture<Integer>> futures = submitConcurrently(5, n -> {
+      if (n == 2) {
+        throw new IllegalArgumentException("Insufficient balance");
+      }
+      return n;
+    });
+
+    ExecutionFailure failure = new ExecutionFailure();
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS));
+      } catch (ExecutionException e) {
+        failure.index = i;
+        failure.cause = e.getCause();
+      }
+    }
+    assertEquals(2, failure.index);
+    assertInstanceOf(IllegalArgumentException.class, failure.cause);
+  }
+
+  @Test
+  void shouldRetryIndividuallyWhenBatchCommitFails() throws Exception {
+    doThrow(new DataIntegrityViolationException("duplicate key"))
+        .doNothing()
+        .when(transactionManager).commit(any());
+    journalProperties.setLingerMillis(500L);
+    journalProperties.setBatchSize(3);
+    journal.start();
+
+    List<CompletableFuture<Integer>> futures = submitConcurrently(3, n -> n);
+
+    for (int i = 0; i < futures.size(); i++) {
+      assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1.0, meterRegistry.get("journal.replays").counter().count());
+  }
+
+  @Test
+  void shouldRetryIndividuallyWhenOperationLosesDeadlock() throws Exception {
+    journalProperties.setLingerMillis(500L);
+    journalProperties.setBatchSize(3);
+    journal.start();
+    AtomicBoolean deadlocked = new AtomicBoolean();
+
+    List<CompletableFuture<Integer>> futures = submitConcurrently(3, n -> {
+      if (n == 1 && deadlocked.compareAndSet(false, true)) {
+        throw new DeadlockLoserDataAccessException("deadlock detected", null);
+      }
+      return n;
+    });
+
+    for (int i = 0; i < futures.size(); i++) {
+      assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1.0, meterRegistry.get("journal.replays").counter().count());
+  }
+
+  @Test
+  void shouldCommitIndividuallyOutsideAtomicMode() {
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.PESSIMISTIC);
+    journal.start();
+
+    assertFalse(journal.isEnabled());
+    assertEquals(42, journal.execute(() -> 42));
+    verifyNoInteractions(transactionManager);
+  }
+
+  /**
+   * A journaled deposit locks wallet 5 and a second one waits for wallet 2,
+   * while a batch transfer holds wallets 2 and 3 and then asks for 5. Were
+   * both deposits in one journal transaction, wallet 5 would stay locked
+   * until the second one timed out waiting for wallet 2.
+   */
+  @Test
+  void shouldNotDeadlockWithBatchTransferInLockingMode() throws Exception {
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.IN_PROCESS);
+    walletProperties.setLockStripes(256);
+    walletProperties.setLockTimeoutMillis(5000L);
+    WalletLockManager walletLockManager = new WalletLockManager(walletProperties, meterRegistry);
+    TransactionTemplate transactionTemplate = new TransactionTemplate(new SynchronizingTransactionManager());
+    journal = new TransactionJournal(journalProperties, walletProperties, new SynchronizingTransactionManager(),
+        meterRegistry);
+    journal.start();
+
+    CountDownLatch batchLocked = new CountDownLatch(1);
+    CountDownLatch firstDepositApplied = new CountDownLatch(1);
+    CompletableFuture<Boolean> batchTransfer = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+      walletLockManager.lockForTransaction(2L, 3L);
+      batchLocked.countDown();
+      await(firstDepositApplied);
+      walletLockManager.lockForTransaction(5L);
+      return true;
+    }));
+    await(batchLocked);
+
+    CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> journal.execute(
+        () -> transactionTemplate.execute(status -> {
+          walletLockManager.lockForTransaction(5L);
+          firstDepositApplied.countDown();
+          return 5;
+        })));
+    CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> journal.execute(
+        () -> transactionTemplate.execute(status -> {
+          walletLockManager.lockForTransaction(2L);
+          return 2;
+        })));
+
+    assertTrue(batchTransfer.get(1, TimeUnit.SECONDS));
+    assertEquals(5, first.get(5, TimeUnit.SECONDS));
+    assertEquals(2, second.get(5, TimeUnit.SECONDS));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Runs transaction synchronizations, which release in-process wallet locks. */
+  private static final class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+      return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+  }
+
+  private static final class ExecutionFailure {
+    private int index = -1;
+    private Throwable cause;
+  }
+}
@@ -15,19 +15,26 @@ import org.springframework.data.jpa.domain.Specification;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.payflow.config.WalletProperties;
 import com.payflow.dto.v1.request.TransactionFilter;
+import com.payflow.entity.IdempotencyRecord;
 import com.payflow.entity.Transaction;
 import com.payflow.entity.User;
 import com.payflow.entity.Wallet;
+import com.payflow.exception.IdempotencyKeyReuseException;
 import com.payflow.repository.ITransactionRepository;
 import com.payflow.repository.IWalletRepository;
 import com.payflow.value.Money;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Transaction service tests")
@@ -42,6 +49,20 @@ class TransactionServiceTest {
   @Mock
   private IWalletRepository walletRepository;
 
+  private final WalletProperties walletProperties = new WalletProperties();
+
+  @Mock
+  private IdempotencyCache idempotencyCache;
+
+  @Mock
+  private IdempotencyRecordStore idempotencyRecordStore;
+
+  @Mock
+  private WalletBalanceCache walletBalanceCache;
+
+  @Spy
+  private WalletLockManager walletLockManager = new WalletLockManager(walletProperties, new SimpleMeterRegistry());
+
   @InjectMocks
   private TransactionService transactionService;
 
@@ -100,7 +121,7 @@ class TransactionServiceTest {
         new BigDecimal("999999.99")
     };
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
     when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
     when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
       Transaction txn = invocation.getArgument(0);
@@ -123,6 +144,7 @@ class TransactionServiceTest {
 
     verify(walletService, times(3)).addBalance(eq(wallet), any(Money.class));
     verify(transactionRepository, times(3)).save(any(Transaction.class));
+    verify(walletBalanceCache, times(3)).evictAfterCommit(user.getId());
   }
 
   @Test
@@ -130,7 +152,7 @@ class TransactionServiceTest {
     String currency = "USD";
     BigDecimal amount = null;
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
 
     assertThrows(
         IllegalArgumentException.class,
@@ -145,7 +167,7 @@ class TransactionServiceTest {
     String currency = "USD";
     BigDecimal amount = BigDecimal.ZERO;
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
 
     assertThrows(
         IllegalArgumentException.class,
@@ -155,6 +177,30 @@ class TransactionServiceTest {
     verify(walletService, never()).addBalance(any(), any());
   }
 
+  @Test
+  void shouldRejectDepositFinerThanCurrencyMinorUnit() {
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> transactionService.deposit(user, "JPY", new BigDecimal("1.5"), "jpy-fraction-key"));
+
+    assertEquals("Amount 1.5 has more decimal places than JPY allows (0)", exception.getMessage());
+    verify(transactionRepository, never()).save(any());
+    verify(walletService, never()).addBalance(any(), any());
+  }
+
+  @Test
+  void shouldRecordAmountAtCurrencyScale() {
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
+    when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    Transaction result = transactionService.deposit(user, "JPY", new BigDecimal("1500.00"), "jpy-deposit-key");
+
+    assertEquals(new BigDecimal("1500"), result.getAmount());
+    verify(walletService).addBalance(wallet, Money.of(new BigDecimal("1500"), "JPY"));
+  }
+
   @Test
   void shouldWithdrawWithVariousAmounts() {
     BigDecimal[] amounts = {
@@ -163,7 +209,7 @@ class TransactionServiceTest {
         new BigDecimal("500000.99")
     };
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
     when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
     when(walletService.hasSufficientBalance(eq(wallet), any(Money.class))).thenReturn(true);
     when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
@@ -195,7 +241,7 @@ class TransactionServiceTest {
     String currency = "USD";
     BigDecimal amount = null;
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
 
     assertThrows(
         IllegalArgumentException.class,
@@ -210,7 +256,7 @@ class TransactionServiceTest {
     String currency = "USD";
     BigDecimal amount = new BigDecimal("100.00");
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
     when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
     when(walletService.hasSufficientBalance(eq(wallet), any(Money.class))).thenReturn(false);
 
@@ -310,7 +356,7 @@ class TransactionServiceTest {
         { new BigDecimal("999999.99"), new BigDecimal("1.35"), "EUR", "GBP" }
     };
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
     when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
     when(walletRepository.findByUserIdWithLock(recipientUser.getId())).thenReturn(Optional.of(recipientWallet));
     when(walletService.hasSufficientBalance(any(Wallet.class), any(Money.class))).thenReturn(true);
@@ -339,7 +385,7 @@ class TransactionServiceTest {
       assertEquals(wallet.getId(), result.getWallet().getId());
       assertEquals(recipientUser.getId(), result.getRecipientUser().getId());
 
-      BigDecimal expectedFee = amount.multiply(new BigDecimal("0.015"));
+      BigDecimal expectedFee = Money.of(amount.multiply(new BigDecimal("0.015")), senderCurrency).getAmount();
       assertEquals(expectedFee, result.getFee());
 
       assertNotNull(result.getTransactionId());
@@ -354,7 +400,7 @@ class TransactionServiceTest {
 
   @Test
   void shouldThrowExceptionWhenTransferAmountIsNull() {
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
 
     assertThrows(
         IllegalArgumentException.class,
@@ -365,7 +411,7 @@ class TransactionServiceTest {
 
   @Test
   void shouldThrowExceptionWhenTransferAmountIsZero() {
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
 
     assertThrows(
         IllegalArgumentException.class,
@@ -379,7 +425,7 @@ class TransactionServiceTest {
   void shouldThrowExceptionWhenTransferToSelf() {
     BigDecimal amount = new BigDecimal("100.00");
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
 
     assertThrows(
         IllegalArgumentException.class,
@@ -394,7 +440,7 @@ class TransactionServiceTest {
   void shouldThrowExceptionWhenInsufficientBalanceForTransfer() {
     BigDecimal amount = new BigDecimal("100.00");
 
-    when(transactionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
     when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
     when(walletRepository.findByUserIdWithLock(recipientUser.getId())).thenReturn(Optional.of(recipientWallet));
     when(walletService.hasSufficientBalance(eq(wallet), any(Money.class))).thenReturn(false);
@@ -426,8 +472,9 @@ class TransactionServiceTest {
         .completedAt(LocalDateTime.now())
         .build();
 
-    when(transactionRepository.findByIdempotencyKey(idempotencyKey))
-        .thenReturn(Optional.of(existingTransaction));
+    when(idempotencyRecordStore.findActive(idempotencyKey))
+        .thenReturn(Optional.of(record(idempotencyKey, existingTransaction)));
+    when(transactionRepository.findById(existingTransaction.getId())).thenReturn(Optional.of(existingTransaction));
 
     Transaction result = transactionService.deposit(user, "USD", new BigDecimal("100.00"), idempotencyKey);
 
@@ -438,7 +485,7 @@ class TransactionServiceTest {
 
     verify(transactionRepository, never()).save(any());
     verify(walletService, never()).addBalance(any(), any());
-    verify(transactionRepository).findByIdempotencyKey(idempotencyKey);
+    verify(idempotencyRecordStore).findActive(idempotencyKey);
   }
 
   @Test
@@ -457,8 +504,9 @@ class TransactionServiceTest {
         .completedAt(LocalDateTime.now())
         .build();
 
-    when(transactionRepository.findByIdempotencyKey(idempotencyKey))
-        .thenReturn(Optional.of(existingTransaction));
+    when(idempotencyRecordStore.findActive(idempotencyKey))
+        .thenReturn(Optional.of(record(idempotencyKey, existingTransaction)));
+    when(transactionRepository.findById(existingTransaction.getId())).thenReturn(Optional.of(existingTransaction));
 
     Transaction result = transactionService.withdraw(user, "USD", new BigDecimal("50.00"), idempotencyKey);
 
@@ -470,7 +518,7 @@ class TransactionServiceTest {
     verify(transactionRepository, never()).save(any());
     verify(walletService, never()).hasSufficientBalance(any(), any());
     verify(walletService, never()).subtractBalance(any(), any());
-    verify(transactionRepository).findByIdempotencyKey(idempotencyKey);
+    verify(idempotencyRecordStore).findActive(idempotencyKey);
   }
 
   @Test
@@ -493,8 +541,9 @@ class TransactionServiceTest {
         .completedAt(LocalDateTime.now())
         .build();
 
-    when(transactionRepository.findByIdempotencyKey(idempotencyKey))
-        .thenReturn(Optional.of(existingTransaction));
+    when(idempotencyRecordStore.findActive(idempotencyKey))
+        .thenReturn(Optional.of(record(idempotencyKey, existingTransaction)));
+    when(transactionRepository.findById(existingTransaction.getId())).thenReturn(Optional.of(existingTransaction));
 
     Transaction result = transactionService.transfer(
         user,
@@ -515,14 +564,14 @@ class TransactionServiceTest {
     verify(walletService, never()).hasSufficientBalance(any(), any());
     verify(walletService, never()).subtractBalance(any(), any());
     verify(walletService, never()).addBalance(any(), any());
-    verify(transactionRepository).findByIdempotencyKey(idempotencyKey);
+    verify(idempotencyRecordStore).findActive(idempotencyKey);
   }
 
   @Test
   void shouldCreateNewTransactionWhenIdempotencyKeyIsUnique() {
     String uniqueKey = "unique-deposit-key";
 
-    when(transactionRepository.findByIdempotencyKey(uniqueKey)).thenReturn(Optional.empty());
+    when(idempotencyRecordStore.findActive(uniqueKey)).thenReturn(Optional.empty());
     when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
     when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
       Transaction txn = invocation.getArgument(0);
@@ -535,8 +584,320 @@ class TransactionServiceTest {
     assertNotNull(result);
     assertNotNull(result.getTransactionId());
 
-    verify(transactionRepository).findByIdempotencyKey(uniqueKey);
+    verify(idempotencyRecordStore).findActive(uniqueKey);
     verify(transactionRepository).save(any(Transaction.class));
+    verify(idempotencyRecordStore).record(result, IdempotencyRecordStore.requestHash(
+        Transaction.TransactionType.DEPOSIT, user.getId(), "USD", new BigDecimal("100.00"), null, null));
     verify(walletService).addBalance(eq(wallet), any(Money.class));
   }
+
+  @Test
+  void shouldReadWalletWithoutRowLockInOptimisticMode() {
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.OPTIMISTIC);
+
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
+    when(walletRepository.findByUserIdWithoutLock(user.getId())).thenReturn(Optional.of(wallet));
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    transactionService.deposit(user, "USD", new BigDecimal("100.00"), "optimistic-key");
+
+    verify(walletRepository).findByUserIdWithoutLock(user.getId());
+    verify(walletRepository, never()).findByUserIdWithLock(any());
+    verify(walletService).addBalance(eq(wallet), any(Money.class));
+  }
+
+  @Test
+  void shouldDepositWithSingleStatementInAtomicMode() {
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.ATOMIC);
+
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
+    when(walletService.getWalletSlotsByUserId(user.getId())).thenReturn(walletSlots(wallet.getId(), 1));
+    when(walletService.getWalletReference(wallet.getId())).thenReturn(wallet);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    Transaction result = transactionService.deposit(user, "USD", new BigDecimal("100.00"), "atomic-key");
+
+    assertEquals(wallet, result.getWallet());
+    verify(walletService).creditBalance(wallet.getId(), 1, Money.of("100.00", "USD"));
+    verify(walletService, never()).addBalance(any(), any());
+    verifyNoInteractions(walletRepository);
+  }
+
+  @Test
+  void shouldRejectWithdrawalInAtomicModeWhenDebitDoesNotMatch() {
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.ATOMIC);
+
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
+    when(walletService.getWalletIdByUserId(user.getId())).thenReturn(wallet.getId());
+    when(walletService.debitBalance(wallet.getId(), Money.of("100.00", "USD"))).thenReturn(Optional.empty());
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> transactionService.withdraw(user, "USD", new BigDecimal("100.00"), "atomic-key"));
+
+    assertEquals("Insufficient balance", exception.getMessage());
+    verify(transactionRepository, never()).save(any());
+  }
+
+  @Test
+  void shouldApplyAtomicTransferLegsInWalletIdOrder() {
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.ATOMIC);
+
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
+    when(walletService.getWalletIdByUserId(user.getId())).thenReturn(5L);
+    when(walletService.getWalletSlotsByUserId(recipientUser.getId())).thenReturn(walletSlots(3L, 1));
+    when(walletService.debitBalance(eq(5L), any(Money.class))).thenReturn(Optional.of(Money.zero("USD")));
+    when(walletService.getWalletReference(5L)).thenReturn(wallet);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    transactionService.transfer(user, recipientUser, "USD", "EUR", new BigDecimal("100.00"),
+        new BigDecimal("0.92"), "atomic-transfer-key");
+
+    InOrder inOrder = inOrder(walletService);
+    inOrder.verify(walletService).creditBalance(3L, 1, Money.of("92.00", "EUR"));
+    inOrder.verify(walletService).debitBalance(5L, Money.of("101.50", "USD"));
+  }
+
+  @Test
+  void shouldCreditShardedRecipientWithoutLockingIt() {
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
+    when(walletService.isShardingEnabled()).thenReturn(true);
+    when(walletService.getWalletSlotsByUserId(recipientUser.getId())).thenReturn(walletSlots(recipientWallet.getId(), 8));
+    when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
+    when(walletService.hasSufficientBalance(eq(wallet), any(Money.class))).thenReturn(true);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    transactionService.transfer(user, recipientUser, "USD", "EUR", new BigDecimal("100.00"),
+        new BigDecimal("0.92"), "sharded-transfer-key");
+
+    verify(walletRepository, never()).findByUserIdWithLock(recipientUser.getId());
+    verify(walletService).subtractBalance(wallet, Money.of("101.50", "USD"));
+    verify(walletService).creditBalance(recipientWallet.getId(), 8, Money.of("92.00", "EUR"));
+  }
+
+  @Test
+  void shouldNotWriteShardedWalletThroughEntityOnWithdrawal() {
+    Wallet shardedWallet = Wallet.builder()
+        .id(1L)
+        .user(user)
+        .balanceSlots(4)
+        .build();
+
+    when(idempotencyRecordStore.findActive(anyString())).thenReturn(Optional.empty());
+    when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(shardedWallet));
+    when(walletService.debitBalance(shardedWallet.getId(), Money.of("100.00", "USD")))
+        .thenReturn(Optional.of(Money.zero("USD")));
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    transactionService.withdraw(user, "USD", new BigDecimal("100.00"), "sharded-withdraw-key");
+
+    verify(walletService, never()).subtractBalance(any(), any());
+  }
+
+  @Test
+  void shouldDebitSenderOnceForBatchTransfer() {
+    User thirdUser = User.builder().id(3L).email("third@example.com").build();
+    Wallet thirdWallet = Wallet.builder().id(3L).user(thirdUser).build();
+    List<TransactionService.BatchTransferItem> items = List.of(
+        new TransactionService.BatchTransferItem(thirdUser, "USD", "USD", new BigDecimal("10.00"), BigDecimal.ONE),
+        new TransactionService.BatchTransferItem(recipientUser, "USD", "EUR", new BigDecimal("100.00"),
+            new BigDecimal("0.92")),
+        new TransactionService.BatchTransferItem(null, "USD", "USD", new BigDecimal("5.00"), BigDecimal.ONE));
+
+    when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
+    when(walletRepository.findByUserIdWithLock(recipientUser.getId())).thenReturn(Optional.of(recipientWallet));
+    when(walletRepository.findByUserIdWithLock(thirdUser.getId())).thenReturn(Optional.of(thirdWallet));
+    when(walletService.hasSufficientBalance(eq(wallet), any(Money.class))).thenReturn(true);
+    when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    List<TransactionService.BatchTransferResult> results = transactionService.transferBatch(user, items, "batch-key");
+
+    assertEquals(3, results.size());
+    assertEquals(thirdUser, results.get(0).transaction().getRecipientUser());
+    assertEquals("batch-key#1", results.get(1).transaction().getIdempotencyKey());
+    assertEquals("Recipient not found", results.get(2).error());
+    verify(walletService).subtractBalance(wallet, Money.of("111.65", "USD"));
+    verify(walletService).addBalance(recipientWallet, Money.of("92.00", "EUR"));
+    verify(walletService).addBalance(thirdWallet, Money.of("10.00", "USD"));
+    verify(walletRepository, times(1)).findByUserIdWithLock(user.getId());
+    verify(walletBalanceCache).evictAfterCommit(new TreeSet<>(List.of(1L, 2L, 3L)));
+  }
+
+  @Test
+  void shouldRejectOnlyBatchItemFinerThanCurrencyMinorUnit() {
+    List<TransactionService.BatchTransferItem> items = List.of(
+        new TransactionService.BatchTransferItem(recipientUser, "JPY", "JPY", new BigDecimal("0.5"), BigDecimal.ONE),
+        new TransactionService.BatchTransferItem(recipientUser, "USD", "USD", new BigDecimal("10.00"),
+            BigDecimal.ONE));
+
+    when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
+    when(walletRepository.findByUserIdWithLock(recipientUser.getId())).thenReturn(Optional.of(recipientWallet));
+    when(walletService.hasSufficientBalance(eq(wallet), any(Money.class))).thenReturn(true);
+    when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    List<TransactionService.BatchTransferResult> results = transactionService.transferBatch(user, items, "batch-key");
+
+    assertEquals("Amount 0.5 has more decimal places than JPY allows (0)", results.get(0).error());
+    assertTrue(results.get(1).isCompleted());
+    verify(walletService).subtractBalance(wallet, Money.of("10.15", "USD"));
+    verify(walletService, never()).subtractBalance(eq(wallet), eq(Money.zero("JPY")));
+  }
+
+  @Test
+  void shouldRejectWholeBatchWhenAggregateBalanceIsInsufficient() {
+    List<TransactionService.BatchTransferItem> items = List.of(
+        new TransactionService.BatchTransferItem(recipientUser, "USD", "USD", new BigDecimal("60.00"), BigDecimal.ONE),
+        new TransactionService.BatchTransferItem(recipientUser, "USD", "USD", new BigDecimal("60.00"), BigDecimal.ONE));
+
+    when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
+    when(walletRepository.findByUserIdWithLock(recipientUser.getId())).thenReturn(Optional.of(recipientWallet));
+    when(walletService.hasSufficientBalance(wallet, Money.of("121.80", "USD"))).thenReturn(false);
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> transactionService.transferBatch(user, items, "batch-key"));
+
+    assertEquals("Insufficient balance for batch transfer (including fees)", exception.getMessage());
+    verify(walletService, never()).subtractBalance(any(), any());
+    verify(walletService, never()).addBalance(any(), any());
+    verify(transactionRepository, never()).saveAll(anyList());
+    verifyNoInteractions(walletBalanceCache);
+  }
+
+  @Test
+  void shouldReturnExistingTransfersWhenBatchIsReplayed() {
+    Transaction existing = Transaction.builder()
+        .id(400L)
+        .transactionId("TXN-existing")
+        .type(Transaction.TransactionType.TRANSFER)
+        .amount(new BigDecimal("10.00"))
+        .currency("USD")
+        .recipientCurrency("USD")
+        .recipientUser(recipientUser)
+        .idempotencyKey("batch-key#0")
+        .build();
+    List<TransactionService.BatchTransferItem> items = List.of(
+        new TransactionService.BatchTransferItem(recipientUser, "USD", "USD", new BigDecimal("10.00"), BigDecimal.ONE));
+
+    when(idempotencyRecordStore.findActive(List.of("batch-key#0")))
+        .thenReturn(Map.of("batch-key#0", record("batch-key#0", existing)));
+    when(transactionRepository.findAllById(List.of(400L))).thenReturn(List.of(existing));
+
+    List<TransactionService.BatchTransferResult> results = transactionService.transferBatch(user, items, "batch-key");
+
+    assertEquals(existing, results.get(0).transaction());
+    verifyNoInteractions(walletRepository);
+    verify(transactionRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void shouldReplayCompletedItemAndRejectNewItemWhenQuoteExpired() {
+    Transaction existing = Transaction.builder()
+        .id(400L)
+        .transactionId("TXN-existing")
+        .type(Transaction.TransactionType.TRANSFER)
+        .amount(new BigDecimal("10.00"))
+        .currency("USD")
+        .recipientCurrency("EUR")
+        .recipientUser(recipientUser)
+        .exchangeRate(new BigDecimal("0.92"))
+        .idempotencyKey("batch-key#0")
+        .build();
+    String quoteError = "Quote token is invalid or has expired";
+    List<TransactionService.BatchTransferItem> items = List.of(
+        new TransactionService.BatchTransferItem(recipientUser, "USD", "EUR", new BigDecimal("10.00"), null,
+            quoteError),
+        new TransactionService.BatchTransferItem(recipientUser, "USD", "EUR", new BigDecimal("20.00"), null,
+            quoteError));
+
+    when(idempotencyRecordStore.findActive(List.of("batch-key#0", "batch-key#1")))
+        .thenReturn(Map.of("batch-key#0", record("batch-key#0", existing)));
+    when(transactionRepository.findAllById(List.of(400L))).thenReturn(List.of(existing));
+
+    List<TransactionService.BatchTransferResult> results = transactionService.transferBatch(user, items, "batch-key");
+
+    assertEquals(existing, results.get(0).transaction());
+    assertFalse(results.get(1).isCompleted());
+    assertEquals(quoteError, results.get(1).error());
+    verifyNoInteractions(walletRepository);
+    verify(transactionRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void shouldReplayCachedTransactionWithoutDatabaseLookup() {
+    when(idempotencyCache.get("cached-key")).thenReturn(Optional.of(new IdempotencyCache.CachedTransaction(
+        transaction, IdempotencyRecordStore.requestHash(transaction), Long.MAX_VALUE)));
+
+    Transaction result = transactionService.deposit(user, "USD", new BigDecimal("100.00"), "cached-key");
+
+    assertEquals(transaction, result);
+    verify(idempotencyRecordStore, never()).findActive(anyString());
+    verifyNoInteractions(walletService);
+  }
+
+  @Test
+  void shouldRejectIdempotencyKeyReusedWithDifferentPayload() {
+    Transaction existingTransaction = Transaction.builder()
+        .id(500L)
+        .wallet(wallet)
+        .type(Transaction.TransactionType.DEPOSIT)
+        .amount(new BigDecimal("100.00"))
+        .currency("USD")
+        .idempotencyKey("reused-key")
+        .build();
+    when(idempotencyRecordStore.findActive("reused-key"))
+        .thenReturn(Optional.of(record("reused-key", existingTransaction)));
+    when(transactionRepository.findById(500L)).thenReturn(Optional.of(existingTransaction));
+    doCallRealMethod().when(idempotencyRecordStore).verify(anyString(), any(), anyString());
+
+    assertThrows(IdempotencyKeyReuseException.class,
+        () -> transactionService.deposit(user, "USD", new BigDecimal("250.00"), "reused-key"));
+    assertEquals(existingTransaction,
+        transactionService.deposit(user, "USD", new BigDecimal("100"), "reused-key"));
+    verify(transactionRepository, never()).save(any());
+  }
+
+  @Test
+  void shouldRejectIdempotencyKeyReusedByAnotherUser() {
+    when(idempotencyCache.get("cached-key")).thenReturn(Optional.of(new IdempotencyCache.CachedTransaction(
+        transaction, IdempotencyRecordStore.requestHash(transaction), Long.MAX_VALUE)));
+    doCallRealMethod().when(idempotencyRecordStore).verify(anyString(), any(), anyString());
+
+    assertThrows(IdempotencyKeyReuseException.class,
+        () -> transactionService.deposit(recipientUser, "USD", new BigDecimal("100.00"), "cached-key"));
+    verifyNoInteractions(walletService);
+  }
+
+  @Test
+  void shouldSkipDatabaseLookupForDefinitelyNewKey() {
+    when(idempotencyCache.isDefinitelyNew("fresh-key")).thenReturn(true);
+    when(walletRepository.findByUserIdWithLock(user.getId())).thenReturn(Optional.of(wallet));
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    Transaction result = transactionService.deposit(user, "USD", new BigDecimal("100.00"), "fresh-key");
+
+    verify(idempotencyRecordStore, never()).findActive(anyString());
+    verify(idempotencyCache).put(eq(result), anyString());
+  }
+
+  private static IdempotencyRecord record(String idempotencyKey, Transaction transaction) {
+    return IdempotencyRecord.builder()
+        .idempotencyKey(idempotencyKey)
+        .operation(transaction.getType())
+        .requestHash(IdempotencyRecordStore.requestHash(transaction))
+        .responseTransactionId(transaction.getId())
+        .build();
+  }
+
+  private static IWalletRepository.WalletSlots walletSlots(Long id, int balanceSlots) {
+    return new IWalletRepository.WalletSlots() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Integer getBalanceSlots() {
+        return balanceSlots;
+      }
+    };
+  }
 }
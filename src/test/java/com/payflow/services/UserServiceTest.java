@@ -15,7 +15,10 @@ import com.payflow.entity.Role;
 import com.payflow.entity.User;
 import com.payflow.repository.IRoleRepository;
 import com.payflow.repository.IUserRepository;
+import com.payflow.security.TokenRevocationList;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -31,6 +34,8 @@ class UserServiceTest {
   private WalletService walletService;
   @Mock
   private IRoleRepository roleRepository;
+  @Mock
+  private TokenRevocationList tokenRevocationList;
   @InjectMocks
   private UserService userService;
 
@@ -148,6 +153,44 @@ class UserServiceTest {
         () -> userService.getUserById(userId));
   }
 
+  @Test
+  void shouldCheckUserExistsOnlyOnFirstReference() {
+    when(userRepository.existsById(1L)).thenReturn(true);
+    when(userRepository.getReferenceById(1L)).thenReturn(user);
+
+    assertSame(user, userService.getUserReference(1L));
+    assertSame(user, userService.getUserReference(1L));
+
+    verify(userRepository, times(1)).existsById(1L);
+    verify(userRepository, never()).findById(any());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenReferencedUserNotFound() {
+    when(userRepository.existsById(999L)).thenReturn(false);
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> userService.getUserReference(999L));
+
+    assertEquals("User not found", exception.getMessage());
+    verify(userRepository, never()).getReferenceById(any());
+  }
+
+  @Test
+  void shouldLookUpOnlyUnknownIdsForReferences() {
+    User other = User.builder().id(2L).build();
+    when(userRepository.existsById(1L)).thenReturn(true);
+    when(userRepository.getReferenceById(1L)).thenReturn(user);
+    when(userRepository.getReferenceById(2L)).thenReturn(other);
+    when(userRepository.findExistingIds(List.of(2L, 3L))).thenReturn(List.of(2L));
+    userService.getUserReference(1L);
+
+    Map<Long, User> references = userService.getUserReferences(List.of(1L, 2L, 3L));
+
+    assertEquals(Map.of(1L, user, 2L, other), references);
+    verify(userRepository).findExistingIds(List.of(2L, 3L));
+  }
+
   @Test
   void shouldReturnTrueWhenEmailExists() {
     String email = "test@example.com";
@@ -185,6 +228,41 @@ class UserServiceTest {
 
     verify(userRepository).findByEmail(email);
     verify(passwordEncoder).matches(password, user.getPassword());
+    verify(userRepository, never()).save(any(User.class));
+  }
+
+  @Test
+  void shouldRehashPasswordOnLoginWhenCostChanged() {
+    String email = "test@example.com";
+    String password = "password123";
+    String oldHash = user.getPassword();
+
+    when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+    when(passwordEncoder.matches(password, oldHash)).thenReturn(true);
+    when(passwordEncoder.upgradeEncoding(oldHash)).thenReturn(true);
+    when(passwordEncoder.encode(password)).thenReturn("rehashed_password");
+    when(userRepository.save(user)).thenReturn(user);
+
+    User result = userService.authenticate(email, password);
+
+    assertEquals("rehashed_password", result.getPassword());
+    verify(userRepository).save(user);
+  }
+
+  @Test
+  void shouldRejectLoginOfDisabledUser() {
+    String email = "test@example.com";
+    String password = "password123";
+    user.setEnabled(false);
+
+    when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+    when(passwordEncoder.matches(password, user.getPassword())).thenReturn(true);
+
+    Exception exception = assertThrows(
+        Exception.class,
+        () -> userService.authenticate(email, password));
+
+    assertTrue(exception.getMessage().contains("Invalid credentials"));
   }
 
   @Test
@@ -232,6 +310,7 @@ class UserServiceTest {
 
     verify(userRepository).findById(userId);
     verify(userRepository).save(any(User.class));
+    verify(tokenRevocationList).revokeUser(userId);
   }
 
   @Test
@@ -259,6 +338,7 @@ class UserServiceTest {
 
     verify(userRepository).findById(userId);
     verify(userRepository).save(any(User.class));
+    verifyNoInteractions(tokenRevocationList);
   }
 
   @Test
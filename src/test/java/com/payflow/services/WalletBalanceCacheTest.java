@@ -0,0 +1,159 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.payflow.config.WalletProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Wallet balance cache tests")
+class WalletBalanceCacheTest {
+
+  private WalletProperties walletProperties;
+  private SimpleMeterRegistry meterRegistry;
+  private MutableClock clock;
+
+  @BeforeEach
+  void setUp() {
+    walletProperties = new WalletProperties();
+    walletProperties.setBalanceReadMode(WalletProperties.BalanceReadMode.CACHED);
+    walletProperties.setBalanceCacheTtlSeconds(30L);
+    meterRegistry = new SimpleMeterRegistry();
+    clock = new MutableClock();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private WalletBalanceCache newCache() {
+    return new WalletBalanceCache(walletProperties, meterRegistry, clock);
+  }
+
+  private static WalletSnapshot snapshot(Long userId, String usd) {
+    return new WalletSnapshot(userId * 10, userId, Map.of("USD", new BigDecimal(usd)),
+        LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 1, 0, 0));
+  }
+
+  @Test
+  void shouldReturnCachedSnapshotAndReportHitRatio() {
+    WalletBalanceCache cache = newCache();
+    WalletSnapshot snapshot = snapshot(1L, "100.00");
+
+    cache.put(cache.beginLoad(), snapshot);
+
+    assertSame(snapshot, cache.get(1L).orElseThrow());
+    assertSame(snapshot, cache.get(1L).orElseThrow());
+    assertTrue(cache.get(2L).isEmpty());
+    assertEquals(2.0, meterRegistry.get("wallet.balance.cache").tag("result", "hit").counter().count());
+    assertEquals(1.0, meterRegistry.get("wallet.balance.cache").tag("result", "miss").counter().count());
+    assertEquals(2.0 / 3.0, meterRegistry.get("wallet.balance.cache.hit.ratio").gauge().value(), 1e-9);
+  }
+
+  @Test
+  void shouldExpireEntriesAfterTtl() {
+    WalletBalanceCache cache = newCache();
+    cache.put(cache.beginLoad(), snapshot(1L, "100.00"));
+
+    clock.advanceSeconds(30);
+
+    assertTrue(cache.get(1L).isEmpty());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldEvictOnlyAfterCommit() {
+    WalletBalanceCache cache = newCache();
+    cache.put(cache.beginLoad(), snapshot(1L, "100.00"));
+    TransactionSynchronizationManager.initSynchronization();
+
+    cache.evictAfterCommit(1L);
+    assertTrue(cache.get(1L).isPresent());
+
+    for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCommit();
+    }
+    assertTrue(cache.get(1L).isEmpty());
+  }
+
+  @Test
+  void shouldDropSnapshotLoadedBeforeConcurrentEviction() {
+    WalletBalanceCache cache = newCache();
+
+    long staleToken = cache.beginLoad();
+    cache.evictAfterCommit(1L);
+    cache.put(staleToken, snapshot(1L, "100.00"));
+    assertTrue(cache.get(1L).isEmpty());
+
+    cache.put(cache.beginLoad(), snapshot(1L, "50.00"));
+    assertEquals(new BigDecimal("50.00"), cache.get(1L).orElseThrow().balances().get("USD"));
+  }
+
+  @Test
+  void shouldKeepOnlyMaxEntriesMostRecentlyUsed() {
+    walletProperties.setBalanceCacheMaxEntries(2);
+    WalletBalanceCache cache = newCache();
+
+    cache.put(cache.beginLoad(), snapshot(1L, "1.00"));
+    cache.put(cache.beginLoad(), snapshot(2L, "2.00"));
+    cache.get(1L);
+    cache.put(cache.beginLoad(), snapshot(3L, "3.00"));
+
+    assertTrue(cache.get(1L).isPresent());
+    assertTrue(cache.get(2L).isEmpty());
+    assertTrue(cache.get(3L).isPresent());
+  }
+
+  @Test
+  void shouldNotRegisterEvictionsInStrictMode() {
+    walletProperties.setBalanceReadMode(WalletProperties.BalanceReadMode.STRICT);
+    WalletBalanceCache cache = newCache();
+    TransactionSynchronizationManager.initSynchronization();
+
+    cache.evictAfterCommit(1L, 2L);
+
+    assertFalse(cache.isEnabled());
+    assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advanceSeconds(long seconds) {
+      now = now.plusSeconds(seconds);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
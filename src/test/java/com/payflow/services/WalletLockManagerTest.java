@@ -0,0 +1,151 @@
+package com.payflow.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.payflow.config.WalletProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Wallet lock manager tests")
+class WalletLockManagerTest {
+
+  private WalletProperties walletProperties;
+  private SimpleMeterRegistry meterRegistry;
+  private WalletLockManager walletLockManager;
+
+  @BeforeEach
+  void setUp() {
+    walletProperties = new WalletProperties();
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.IN_PROCESS);
+    walletProperties.setLockStripes(16);
+    walletProperties.setLockTimeoutMillis(100L);
+    meterRegistry = new SimpleMeterRegistry();
+    walletLockManager = new WalletLockManager(walletProperties, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private void completeTransaction() {
+    for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+    }
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  private CompletableFuture<Boolean> lockOnOtherThread(Long userId) {
+    return CompletableFuture.supplyAsync(() -> {
+      TransactionSynchronizationManager.initSynchronization();
+      try {
+        walletLockManager.lockForTransaction(userId);
+        completeTransaction();
+        return true;
+      } catch (CannotAcquireLockException e) {
+        return false;
+      } finally {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+          TransactionSynchronizationManager.clearSynchronization();
+        }
+      }
+    });
+  }
+
+  @Test
+  void shouldRoundStripeCountUpToPowerOfTwo() {
+    walletProperties.setLockStripes(100);
+
+    assertEquals(128, new WalletLockManager(walletProperties, meterRegistry).stripeCount());
+  }
+
+  @Test
+  void shouldDoNothingInPessimisticMode() {
+    walletProperties.setConcurrencyMode(WalletProperties.ConcurrencyMode.PESSIMISTIC);
+
+    assertDoesNotThrow(() -> walletLockManager.lockForTransaction(1L, 2L));
+    assertTrue(walletLockManager.requiresRowLock());
+  }
+
+  @Test
+  void shouldOnlyRequireRowLockWhenFallbackEnabled() {
+    assertTrue(walletLockManager.requiresRowLock());
+
+    walletProperties.setRowLockFallback(false);
+
+    assertFalse(walletLockManager.requiresRowLock());
+  }
+
+  @Test
+  void shouldRequireActiveTransaction() {
+    assertThrows(IllegalStateException.class, () -> walletLockManager.lockForTransaction(1L));
+  }
+
+  @Test
+  void shouldHoldLockUntilTransactionCompletes() throws Exception {
+    TransactionSynchronizationManager.initSynchronization();
+    walletLockManager.lockForTransaction(1L);
+
+    assertFalse(lockOnOtherThread(1L).get(5, TimeUnit.SECONDS));
+
+    completeTransaction();
+
+    assertTrue(lockOnOtherThread(1L).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldRecordContentionForStripe() throws Exception {
+    TransactionSynchronizationManager.initSynchronization();
+    walletLockManager.lockForTransaction(7L);
+
+    lockOnOtherThread(7L).get(5, TimeUnit.SECONDS);
+    completeTransaction();
+
+    String stripe = String.valueOf(walletLockManager.stripeFor(7L));
+    assertEquals(1.0, meterRegistry.get("wallet.lock.contended").tag("stripe", stripe).counter().count());
+    assertEquals(1, meterRegistry.get("wallet.lock.wait").timer().count());
+  }
+
+  @Test
+  void shouldNotDeadlockWhenTransfersLockInOppositeOrder() throws Exception {
+    walletProperties.setLockTimeoutMillis(5000L);
+    CountDownLatch start = new CountDownLatch(1);
+
+    Runnable forward = () -> lockPairRepeatedly(start, 1L, 2L);
+    Runnable backward = () -> lockPairRepeatedly(start, 2L, 1L);
+
+    CompletableFuture<Void> first = CompletableFuture.runAsync(forward);
+    CompletableFuture<Void> second = CompletableFuture.runAsync(backward);
+    start.countDown();
+
+    assertDoesNotThrow(() -> CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS));
+  }
+
+  private void lockPairRepeatedly(CountDownLatch start, Long a, Long b) {
+    try {
+      start.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    for (int i = 0; i < 1000; i++) {
+      TransactionSynchronizationManager.initSynchronization();
+      walletLockManager.lockForTransaction(a, b);
+      completeTransaction();
+    }
+  }
+}
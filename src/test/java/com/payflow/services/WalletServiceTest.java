@@ -10,11 +10,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.payflow.config.WalletProperties;
+import com.payflow.entity.BalanceSlot;
 import com.payflow.entity.User;
 import com.payflow.entity.Wallet;
 import com.payflow.repository.IWalletRepository;
 import com.payflow.value.Money;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +27,12 @@ class WalletServiceTest {
   @Mock
   private IWalletRepository walletRepository;
 
+  @Spy
+  private WalletProperties walletProperties = new WalletProperties();
+
+  @Mock
+  private WalletBalanceCache balanceCache;
+
   @InjectMocks
   private WalletService walletService;
 
@@ -104,6 +113,42 @@ class WalletServiceTest {
     verify(walletRepository).findByUserIdWithoutLock(userId);
   }
 
+  @Test
+  void shouldReadSnapshotFromDatabaseInStrictMode() {
+    wallet.addBalance(Money.of("100.00", "USD"));
+    when(walletRepository.findByUserIdWithoutLock(1L)).thenReturn(Optional.of(wallet));
+
+    WalletSnapshot snapshot = walletService.getWalletSnapshot(1L);
+
+    assertEquals(wallet.getId(), snapshot.walletId());
+    assertEquals(Money.of("100.00", "USD"), snapshot.getBalance("USD"));
+    assertEquals(Money.zero("EUR"), snapshot.getBalance("EUR"));
+    verify(balanceCache, never()).get(any());
+    verify(balanceCache, never()).put(anyLong(), any());
+  }
+
+  @Test
+  void shouldServeCachedSnapshotWithoutDatabaseRead() {
+    WalletSnapshot cached = WalletSnapshot.of(1L, wallet);
+    when(balanceCache.isEnabled()).thenReturn(true);
+    when(balanceCache.get(1L)).thenReturn(Optional.of(cached));
+
+    assertSame(cached, walletService.getWalletSnapshot(1L));
+    verifyNoInteractions(walletRepository);
+  }
+
+  @Test
+  void shouldCacheSnapshotReadOnMiss() {
+    when(balanceCache.isEnabled()).thenReturn(true);
+    when(balanceCache.get(1L)).thenReturn(Optional.empty());
+    when(balanceCache.beginLoad()).thenReturn(7L);
+    when(walletRepository.findByUserIdWithoutLock(1L)).thenReturn(Optional.of(wallet));
+
+    WalletSnapshot snapshot = walletService.getWalletSnapshot(1L);
+
+    verify(balanceCache).put(7L, snapshot);
+  }
+
   @Test
   void shouldReturnBalanceForGivenCurrency() {
     String currency = "USD";
@@ -216,4 +261,91 @@ class WalletServiceTest {
     assertEquals(Money.zero(currency), walletService.getBalance(wallet, currency));
     verify(walletRepository).save(wallet);
   }
+
+  @Test
+  void shouldCreditBalanceAtomically() {
+    when(walletRepository.creditBalance(1L, "USD", 0, new BigDecimal("25.00"))).thenReturn(new BigDecimal("125.00"));
+
+    Money result = walletService.creditBalance(1L, 1, Money.of("25.00", "USD"));
+
+    assertEquals(Money.of("125.00", "USD"), result);
+    verify(walletRepository, never()).findByUserIdWithLock(any());
+  }
+
+  @Test
+  void shouldDebitBalanceAtomically() {
+    when(walletRepository.debitBalance(1L, "USD", new BigDecimal("25.00")))
+        .thenReturn(Optional.of(new BigDecimal("75.00")));
+
+    Optional<Money> result = walletService.debitBalance(1L, Money.of("25.00", "USD"));
+
+    assertEquals(Optional.of(Money.of("75.00", "USD")), result);
+  }
+
+  @Test
+  void shouldReturnEmptyWhenAtomicDebitExceedsBalance() {
+    when(walletRepository.debitBalance(1L, "USD", new BigDecimal("25.00"))).thenReturn(Optional.empty());
+    when(walletRepository.sweepBalance(1L, "USD")).thenReturn(new BigDecimal("10.00"));
+
+    Optional<Money> result = walletService.debitBalance(1L, Money.of("25.00", "USD"));
+
+    assertTrue(result.isEmpty());
+    verify(walletRepository, times(1)).debitBalance(any(), any(), any());
+  }
+
+  @Test
+  void shouldCreditShardedWalletOnNonHomeSlot() {
+    ArgumentCaptor<Integer> slot = ArgumentCaptor.forClass(Integer.class);
+    when(walletRepository.creditBalance(eq(1L), eq("USD"), slot.capture(), any())).thenReturn(BigDecimal.ONE);
+
+    for (int i = 0; i < 20; i++) {
+      walletService.creditBalance(1L, 4, Money.of("1.00", "USD"));
+    }
+
+    assertTrue(slot.getAllValues().stream().allMatch(s -> s >= 1 && s < 4));
+  }
+
+  @Test
+  void shouldSweepSlotsAndRetryWhenHomeSlotFallsShort() {
+    when(walletRepository.debitBalance(1L, "USD", new BigDecimal("25.00")))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(new BigDecimal("15.00")));
+    when(walletRepository.sweepBalance(1L, "USD")).thenReturn(new BigDecimal("40.00"));
+
+    Optional<Money> result = walletService.debitBalance(1L, Money.of("25.00", "USD"));
+
+    assertEquals(Optional.of(Money.of("15.00", "USD")), result);
+  }
+
+  @Test
+  void shouldSweepAllCurrenciesWhenUnshardingWallet() {
+    Wallet sharded = Wallet.builder()
+        .id(1L)
+        .user(user)
+        .balanceSlots(8)
+        .build();
+    sharded.getSlotBalances().put(new BalanceSlot("USD", 3), new BigDecimal("10.00"));
+    when(walletRepository.findByIdWithLock(1L)).thenReturn(Optional.of(sharded));
+    when(walletRepository.save(sharded)).thenReturn(sharded);
+
+    Wallet result = walletService.updateBalanceSlots(1L, 1);
+
+    assertFalse(result.isSharded());
+    verify(walletRepository).sweepBalance(1L, "USD");
+  }
+
+  @Test
+  void shouldRejectBalanceSlotsAboveLimit() {
+    walletProperties.setMaxBalanceSlots(16);
+
+    assertThrows(IllegalArgumentException.class, () -> walletService.updateBalanceSlots(1L, 17));
+    verify(walletRepository, never()).findByIdWithLock(any());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenWalletIdNotFoundForUser() {
+    when(walletRepository.findIdByUserId(99L)).thenReturn(Optional.empty());
+
+    assertThrows(IllegalArgumentException.class, () -> walletService.getWalletIdByUserId(99L));
+  }
 }
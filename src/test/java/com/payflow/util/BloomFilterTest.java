@@ -0,0 +1,69 @@
+package com.payflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+  @Test
+  void shouldContainEveryAddedKey() {
+    BloomFilter filter = new BloomFilter(10000, 0.01);
+    for (int i = 0; i < 10000; i++) {
+      filter.put("key-" + i);
+    }
+
+    for (int i = 0; i < 10000; i++) {
+      assertTrue(filter.mightContain("key-" + i));
+    }
+  }
+
+  @Test
+  void shouldKeepFalsePositivesNearConfiguredRate() {
+    BloomFilter filter = new BloomFilter(10000, 0.01);
+    for (int i = 0; i < 10000; i++) {
+      filter.put("key-" + i);
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (filter.mightContain("other-" + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+  }
+
+  @Test
+  void shouldKeepFalsePositiveRateForLongKeys() {
+    BloomFilter filter = new BloomFilter(10000, 0.01);
+    for (long i = 1; i <= 10000; i++) {
+      filter.put(i);
+    }
+
+    int falsePositives = 0;
+    for (long i = 1; i <= 10000; i++) {
+      assertTrue(filter.mightContain(i));
+      if (filter.mightContain(i + 1_000_000)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+  }
+
+  @Test
+  void shouldForgetKeysWhenCleared() {
+    BloomFilter filter = new BloomFilter(100, 0.01);
+    filter.put("key");
+
+    filter.clear();
+
+    assertFalse(filter.mightContain("key"));
+  }
+
+  @Test
+  void shouldRejectInvalidSizing() {
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+  }
+}
@@ -0,0 +1,95 @@
+package com.payflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdleEvictingLongMapTest {
+
+  private final AtomicLong now = new AtomicLong();
+
+  @Test
+  void shouldCreateValueOnceAndReturnItAfterwards() {
+    IdleEvictingLongMap<String> map = new IdleEvictingLongMap<>(100, Duration.ofMinutes(1), now::get);
+
+    String first = map.computeIfAbsent(42L, key -> "value-" + key);
+    String second = map.computeIfAbsent(42L, key -> "other");
+
+    assertSame(first, second);
+    assertEquals("value-42", map.get(42L));
+    assertNull(map.get(43L));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  void shouldNeverHoldMoreThanMaxEntries() {
+    IdleEvictingLongMap<Long> map = new IdleEvictingLongMap<>(1000, Duration.ofMinutes(1), now::get);
+
+    for (long key = 0; key < 100_000; key++) {
+      now.incrementAndGet();
+      map.computeIfAbsent(key, Long::valueOf);
+    }
+
+    assertTrue(map.size() <= 1000, "Size: " + map.size());
+    assertEquals(100_000 - map.size(), map.rejections());
+    assertEquals(0, map.evictions());
+    assertEquals(0L, map.get(0L));
+  }
+
+  /**
+   * A flood of new keys must not push out an entry still in use, however
+   * long ago it was created; only once it has gone idle can a new key take
+   * its place.
+   */
+  @Test
+  void shouldProtectEntriesInUseFromNewKeys() {
+    IdleEvictingLongMap<Long> map = new IdleEvictingLongMap<>(1, Duration.ofMinutes(1), now::get);
+    map.computeIfAbsent(1L, Long::valueOf);
+
+    for (long key = 2; key < 1000; key++) {
+      now.addAndGet(Duration.ofSeconds(1).toNanos());
+      map.get(1L);
+      assertNull(map.computeIfAbsent(key, Long::valueOf), "Key " + key);
+    }
+    assertEquals(1L, map.get(1L));
+    assertEquals(998, map.rejections());
+    assertEquals(0, map.evictions());
+
+    now.addAndGet(Duration.ofMinutes(1).toNanos());
+    assertEquals(1000L, map.computeIfAbsent(1000L, Long::valueOf));
+    assertNull(map.get(1L));
+    assertEquals(1, map.evictions());
+  }
+
+  @Test
+  void shouldDropIdleEntriesButKeepRecentlyReadOnes() {
+    IdleEvictingLongMap<Long> map = new IdleEvictingLongMap<>(10_000, Duration.ofSeconds(60), now::get);
+    for (long key = 0; key < 1000; key++) {
+      map.computeIfAbsent(key, Long::valueOf);
+    }
+
+    now.addAndGet(Duration.ofSeconds(40).toNanos());
+    for (long key = 0; key < 1000; key += 2) {
+      map.get(key);
+    }
+    now.addAndGet(Duration.ofSeconds(40).toNanos());
+    for (long key = 1000; key < 2000; key++) {
+      map.computeIfAbsent(key, Long::valueOf);
+    }
+
+    assertEquals(1500, map.size());
+    assertEquals(500, map.evictions());
+    for (long key = 0; key < 1000; key++) {
+      assertEquals(key % 2 == 0, map.get(key) != null, "Key " + key);
+    }
+  }
+
+  @Test
+  void shouldRejectInvalidSizing() {
+    assertThrows(IllegalArgumentException.class, () -> new IdleEvictingLongMap<>(0, Duration.ofMinutes(1)));
+    assertThrows(IllegalArgumentException.class, () -> new IdleEvictingLongMap<>(10, Duration.ZERO));
+  }
+}
@@ -0,0 +1,76 @@
+package com.payflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdleEvictingMapTest {
+
+  private final AtomicLong now = new AtomicLong();
+
+  @Test
+  void shouldRejectNewKeyWhileFullOfEntriesInUse() {
+    IdleEvictingMap<String, String> map = new IdleEvictingMap<>(1, Duration.ofMinutes(1), now::get);
+
+    map.computeIfAbsent("10.0.0.1", key -> "first");
+    now.addAndGet(Duration.ofSeconds(59).toNanos());
+
+    assertNull(map.computeIfAbsent("10.0.0.2", key -> "second"));
+    assertEquals("first", map.get("10.0.0.1"));
+    assertEquals(1, map.rejections());
+    assertEquals(0, map.evictions());
+  }
+
+  @Test
+  void shouldReplaceIdleEntryWhenFull() {
+    IdleEvictingMap<String, String> map = new IdleEvictingMap<>(1, Duration.ofMinutes(1), now::get);
+
+    map.computeIfAbsent("10.0.0.1", key -> "first");
+    now.addAndGet(Duration.ofMinutes(1).toNanos());
+
+    assertEquals("second", map.computeIfAbsent("10.0.0.2", key -> "second"));
+    assertNull(map.get("10.0.0.1"));
+    assertEquals(1, map.size());
+    assertEquals(1, map.evictions());
+    assertEquals(0, map.rejections());
+  }
+
+  @Test
+  void shouldNeverHoldMoreThanMaxEntries() {
+    IdleEvictingMap<String, Integer> map = new IdleEvictingMap<>(1000, Duration.ofMinutes(1), now::get);
+
+    for (int i = 0; i < 100_000; i++) {
+      map.computeIfAbsent("ip-" + i, key -> 1);
+    }
+
+    assertTrue(map.size() <= 1000, "Size: " + map.size());
+    assertEquals(100_000 - map.size(), map.rejections());
+    assertEquals(0, map.evictions());
+  }
+
+  @Test
+  void shouldDropIdleEntriesButKeepRecentlyReadOnes() {
+    IdleEvictingMap<String, Integer> map = new IdleEvictingMap<>(10_000, Duration.ofSeconds(60), now::get);
+    for (int i = 0; i < 1000; i++) {
+      map.computeIfAbsent("ip-" + i, key -> 1);
+    }
+
+    now.addAndGet(Duration.ofSeconds(40).toNanos());
+    for (int i = 0; i < 1000; i += 2) {
+      map.get("ip-" + i);
+    }
+    now.addAndGet(Duration.ofSeconds(40).toNanos());
+    for (int i = 1000; i < 2000; i++) {
+      map.computeIfAbsent("ip-" + i, key -> 1);
+    }
+
+    assertEquals(1500, map.size());
+    assertEquals(500, map.evictions());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i % 2 == 0, map.get("ip-" + i) != null, "Key ip-" + i);
+    }
+  }
+}
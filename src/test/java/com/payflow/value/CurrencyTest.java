@@ -0,0 +1,36 @@
+package com.payflow.value;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyTest {
+
+  @Test
+  void testResolvesIsoCodesToSingletonsWithMinorUnitScale() {
+    assertSame(Currency.of("USD"), Currency.of(" usd "));
+    assertEquals(2, Currency.of("USD").getScale());
+    assertEquals(0, Currency.of("JPY").getScale());
+    assertEquals(3, Currency.of("KWD").getScale());
+  }
+
+  @Test
+  void testIndexesAreDenseAndUnique() {
+    Currency usd = Currency.of("USD");
+    Currency eur = Currency.of("EUR");
+
+    assertNotEquals(usd.getIndex(), eur.getIndex());
+    assertTrue(usd.getIndex() >= 0 && usd.getIndex() < Currency.count());
+    assertTrue(eur.getIndex() >= 0 && eur.getIndex() < Currency.count());
+  }
+
+  @Test
+  void testRejectsUnknownAndBlankCodes() {
+    assertNull(Currency.find("XYZ"));
+    assertNull(Currency.find("XAU"));
+    assertNull(Currency.find(null));
+    assertThrows(IllegalArgumentException.class, () -> Currency.of("XYZ"));
+    assertThrows(IllegalArgumentException.class, () -> Currency.of("  "));
+    assertThrows(IllegalArgumentException.class, () -> Currency.of(null));
+  }
+}
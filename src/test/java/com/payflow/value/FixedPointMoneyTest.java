@@ -0,0 +1,88 @@
+package com.payflow.value;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointMoneyTest {
+
+  @Test
+  void testConvertsExactlyToAndFromMoney() {
+    Money money = Money.of("1234.56", "USD");
+
+    FixedPointMoney fixed = FixedPointMoney.from(money);
+
+    assertEquals(123456L, fixed.getMinorUnits());
+    assertEquals(money, fixed.toMoney());
+    assertEquals(new BigDecimal("1234.56"), fixed.toBigDecimal());
+  }
+
+  @Test
+  void testRoundsLikeMoney() {
+    for (String amount : new String[] { "0.005", "0.015", "-2.675", "100", "99.999" }) {
+      BigDecimal value = new BigDecimal(amount);
+      assertEquals(Money.of(value, "USD").getAmount(), FixedPointMoney.of(value, "USD").toBigDecimal(), amount);
+    }
+  }
+
+  @Test
+  void testUsesMinorUnitOfTheCurrency() {
+    assertEquals(1235L, FixedPointMoney.of(new BigDecimal("1234.6"), "JPY").getMinorUnits());
+    assertEquals(1234500L, FixedPointMoney.of(new BigDecimal("1234.5"), "KWD").getMinorUnits());
+    assertEquals(new BigDecimal("1.234"), FixedPointMoney.ofMinorUnits(1234L, "KWD").toBigDecimal());
+    assertEquals(Money.of("1.234", "KWD"), FixedPointMoney.ofMinorUnits(1234L, "KWD").toMoney());
+  }
+
+  @Test
+  void testNormalizesCurrencyToSharedInstance() {
+    FixedPointMoney lower = FixedPointMoney.ofMinorUnits(100, " eur ");
+    FixedPointMoney upper = FixedPointMoney.ofMinorUnits(100, new String("EUR"));
+
+    assertEquals("EUR", lower.getCurrency());
+    assertSame(lower.getCurrencyUnit(), upper.getCurrencyUnit());
+    assertSame(lower.getCurrency(), upper.getCurrency());
+    assertEquals(lower, upper);
+  }
+
+  @Test
+  void testAddSubtractAndCompare() {
+    FixedPointMoney balance = FixedPointMoney.ofMinorUnits(10000, "USD");
+    FixedPointMoney debit = FixedPointMoney.ofMinorUnits(2550, "USD");
+
+    assertEquals(FixedPointMoney.ofMinorUnits(12550, "USD"), balance.add(debit));
+    assertEquals(FixedPointMoney.ofMinorUnits(7450, "USD"), balance.subtract(debit));
+    assertTrue(balance.isGreaterThan(debit));
+    assertTrue(debit.isLessThanOrEqual(balance));
+    assertTrue(debit.subtract(balance).isNegative());
+    assertTrue(balance.subtract(balance).isZero());
+  }
+
+  @Test
+  void testThrowsOnOverflowInsteadOfWrapping() {
+    FixedPointMoney max = FixedPointMoney.ofMinorUnits(Long.MAX_VALUE, "USD");
+    FixedPointMoney min = FixedPointMoney.ofMinorUnits(Long.MIN_VALUE, "USD");
+    FixedPointMoney cent = FixedPointMoney.ofMinorUnits(1, "USD");
+
+    assertThrows(ArithmeticException.class, () -> max.add(cent));
+    assertThrows(ArithmeticException.class, () -> min.subtract(cent));
+    assertThrows(ArithmeticException.class, min::negate);
+    assertThrows(ArithmeticException.class,
+        () -> FixedPointMoney.of(new BigDecimal("92233720368547758.08"), "USD"));
+  }
+
+  @Test
+  void testRejectsMixedCurrenciesAndMissingValues() {
+    FixedPointMoney usd = FixedPointMoney.ofMinorUnits(100, "USD");
+    FixedPointMoney eur = FixedPointMoney.ofMinorUnits(100, "EUR");
+
+    assertThrows(IllegalArgumentException.class, () -> usd.add(eur));
+    assertThrows(IllegalArgumentException.class, () -> usd.compareTo(eur));
+    assertThrows(IllegalArgumentException.class, () -> usd.compareTo(null));
+    assertThrows(IllegalArgumentException.class, () -> FixedPointMoney.of(null, "USD"));
+    assertThrows(IllegalArgumentException.class, () -> FixedPointMoney.ofMinorUnits(1, " "));
+    assertThrows(IllegalArgumentException.class, () -> FixedPointMoney.ofMinorUnits(1, (String) null));
+    assertThrows(IllegalArgumentException.class, () -> FixedPointMoney.ofMinorUnits(1, "XYZ"));
+  }
+}
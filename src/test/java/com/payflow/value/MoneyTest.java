@@ -78,6 +78,19 @@ class MoneyTest {
     assertEquals(new BigDecimal("100.12"), money.getAmount());
   }
 
+  @Test
+  void testScaleFollowsCurrencyMinorUnit() {
+    assertEquals(new BigDecimal("1235"), Money.of(new BigDecimal("1234.6"), "JPY").getAmount());
+    assertEquals(new BigDecimal("1.235"), Money.of(new BigDecimal("1.2346"), "KWD").getAmount());
+    assertEquals(new BigDecimal("1.234"), Money.ofCents(1234, "KWD").getAmount());
+    assertEquals(new BigDecimal("333"), Money.of("1000", "JPY").divide(3).getAmount());
+  }
+
+  @Test
+  void testThrowExceptionForUnsupportedCurrency() {
+    assertThrows(IllegalArgumentException.class, () -> Money.of("100", "XYZ"));
+  }
+
   @Test
   void testBankersRounding() {
     Money money1 = Money.of(new BigDecimal("100.125"), "USD");